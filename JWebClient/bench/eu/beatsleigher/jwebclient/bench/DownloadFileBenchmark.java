@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.bench;
+
+import eu.beatsleigher.jwebclient.JWebClient;
+import eu.beatsleigher.jwebclient.io.BufferPool;
+import eu.beatsleigher.jwebclient.io.OutputMode;
+import java.io.*;
+import java.net.*;
+
+/**
+ * Compares the old 1 KiB stream loop with the channel based (adaptive and fixed chunks) and segmented {@link JWebClient#downloadFile()},
+ * in each of the {@link OutputMode output modes}.
+ *
+ * Usage: <code>DownloadFileBenchmark [sizeInMiB] [iterations]</code>
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.2
+ */
+public class DownloadFileBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        long size = (args.length > 0 ? Long.parseLong(args[0]) : 256) * 1024 * 1024;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        File target = File.createTempFile("jwebclient-bench", ".bin");
+        target.deleteOnExit();
+
+        try (LocalHttpServer server = new LocalHttpServer()) {
+            final URL url = server.getBytesUrl(size);
+            final JWebClient client = new JWebClient(url, target);
+
+            run("stream loop (1 KiB)", size, iterations, new Download() {
+                @Override
+                public void download(URL url, File target) throws IOException { legacyDownloadFile(url, target); }
+            }, url, target);
+            run("channel (adaptive)", size, iterations, new Download() {
+                @Override
+                public void download(URL url, File target) throws IOException { client.downloadFile(); }
+            }, url, target);
+            final JWebClient fixedClient = new JWebClient(url, target);
+            fixedClient.setChunkSize(BufferPool.DEFAULT_BUFFER_SIZE);
+            run("channel (" + fixedClient.getChunkSize() / 1024 + " KiB)", size, iterations, new Download() {
+                @Override
+                public void download(URL url, File target) throws IOException { fixedClient.downloadFile(); }
+            }, url, target);
+
+            for (OutputMode outputMode : new OutputMode[] { OutputMode.PREALLOCATED, OutputMode.MAPPED }) {
+                final JWebClient outputClient = new JWebClient(url, target);
+                outputClient.setOutputMode(outputMode);
+                run("channel, " + outputMode.name().toLowerCase(), size, iterations, new Download() {
+                    @Override
+                    public void download(URL url, File target) throws IOException { outputClient.downloadFile(); }
+                }, url, target);
+            }
+
+            for (OutputMode outputMode : OutputMode.values()) {
+                final JWebClient segmentedClient = new JWebClient(url, target);
+                segmentedClient.setSegmentCount(4);
+                segmentedClient.setOutputMode(outputMode);
+                run("segmented, " + outputMode.name().toLowerCase(), size, iterations, new Download() {
+                    @Override
+                    public void download(URL url, File target) throws IOException { segmentedClient.downloadFile(); }
+                }, url, target);
+            }
+        }
+    }
+
+    private static void run(String name, long size, int iterations, Download download, URL url, File target) throws IOException {
+        // Warm up
+        for (int i = 0; i < 2; i++)
+            download.download(url, target);
+
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            download.download(url, target);
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+        System.out.printf("%-26s avg %8.1f MiB/s, best %8.1f MiB/s%n", name,
+                mibPerSecond(size, total / iterations), mibPerSecond(size, best));
+    }
+
+    private static double mibPerSecond(long size, long nanos) {
+        return (size / (1024.0 * 1024.0)) / (nanos / 1e9);
+    }
+
+    /**
+     * The download loop JWebClient used before the switch to channels, without the events.
+     */
+    static void legacyDownloadFile(URL dlSource, File dlPath) throws IOException {
+        HttpURLConnection httpConnect = (HttpURLConnection)dlSource.openConnection();
+        byte[] data = new byte[1024];
+        int i;
+        try (BufferedInputStream bufferedIStream = new BufferedInputStream(httpConnect.getInputStream());
+             BufferedOutputStream bufferedOStream = new BufferedOutputStream(new FileOutputStream(dlPath), 1024)) {
+            while ((i = bufferedIStream.read(data, 0, 1024)) >= 0)
+                bufferedOStream.write(data, 0, i);
+        }
+    }
+
+    private interface Download {
+        void download(URL url, File target) throws IOException;
+    }
+
+}
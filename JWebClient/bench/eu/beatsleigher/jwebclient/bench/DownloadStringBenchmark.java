@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.bench;
+
+import eu.beatsleigher.jwebclient.JWebClient;
+import java.io.*;
+import java.net.*;
+
+/**
+ * Compares the old line-by-line string download with the bulk decoding {@link JWebClient#downloadString()}.
+ *
+ * The old loop copies the whole string for every line it reads, so it is only run once, and only on the given size.
+ *
+ * Usage: <code>DownloadStringBenchmark [sizeInMiB] [iterations]</code>
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public class DownloadStringBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        long size = (args.length > 0 ? Long.parseLong(args[0]) : 2) * 1024 * 1024;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        try (LocalHttpServer server = new LocalHttpServer()) {
+            URL url = server.getTextUrl(size);
+            JWebClient client = new JWebClient(url);
+
+            long start = System.nanoTime();
+            legacyDownloadString(url);
+            report("readLine loop", size, System.nanoTime() - start);
+
+            // Warm up
+            for (int i = 0; i < 3; i++)
+                client.downloadString();
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < iterations; i++) {
+                start = System.nanoTime();
+                client.downloadString();
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            report("bulk decoding (best)", size, best);
+        }
+    }
+
+    private static void report(String name, long size, long nanos) {
+        System.out.printf("%-24s %10.2f ms, %8.1f MiB/s%n", name, nanos / 1e6, (size / (1024.0 * 1024.0)) / (nanos / 1e9));
+    }
+
+    /**
+     * The string download loop JWebClient used before, without the events, but with the progress computation.
+     */
+    static String legacyDownloadString(URL dlSource) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection)dlSource.openConnection();
+        StringBuilder readData = new StringBuilder();
+        long remoteSize = connection.getContentLengthLong();
+        float progress = 0;
+        String line;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(dlSource.openStream()))) {
+            while ((line = reader.readLine()) != null) {
+                readData.append(String.format("{0}{1}", line, "\n"));
+                progress = (readData.toString().length() / remoteSize) * 100 + (long)readData.toString().length();
+            }
+        } finally {
+            connection.disconnect();
+        }
+        return readData.toString() + (progress > 0 ? "" : " ");
+    }
+
+}
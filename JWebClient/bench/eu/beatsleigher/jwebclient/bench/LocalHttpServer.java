@@ -0,0 +1,360 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.bench;
+
+import com.sun.net.httpserver.*;
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.zip.*;
+
+/**
+ * A tiny HTTP server bound to the loopback interface, which serves generated payloads for the benchmarks.
+ *
+ * A request to <code>/bytes/&lt;size&gt;</code> is answered with <code>size</code> bytes of pseudo-random data.
+ * Single byte ranges (<code>Range: bytes=first-last</code>) and <code>If-Range</code> are supported,
+ * and so is <code>If-None-Match</code>, which is answered with <code>304 Not Modified</code>.
+ * A request to <code>/text/&lt;size&gt;</code> is answered with roughly <code>size</code> bytes of UTF-8 encoded lines of text.
+ * A request to <code>/status/&lt;code&gt;</code> is answered with the given status code and a short text.
+ *
+ * Both accept these options in the query, separated by <code>&amp;</code>:
+ * <ul>
+ * <li><code>chunked</code>: omit the <code>Content-Length</code> and use chunked encoding.</li>
+ * <li><code>gzip</code>: compress the body with gzip, if the client accepts it (and didn't ask for a range).</li>
+ * <li><code>latency=&lt;ms&gt;</code>: wait that long before answering.</li>
+ * <li><code>cache=&lt;directives&gt;</code>: send these <code>Cache-Control</code> directives, e.g. <code>cache=max-age=60</code>.</li>
+ * <li><code>truncate=&lt;bytes&gt;</code>: close the connection after that many bytes of the body, without changing the headers.</li>
+ * <li><code>truncations=&lt;count&gt;</code>: only truncate the first <code>count</code> responses to the same URL.</li>
+ * </ul>
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.3
+ */
+public class LocalHttpServer implements Closeable {
+
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+    private final byte[] pattern;
+    private final AtomicLong requestCount;
+    private final ConcurrentMap<String, AtomicInteger> truncationCounts;
+
+    /**
+     * Default constructor. Starts the server on a random free port.
+     * @throws IOException If the server socket could not be bound.
+     */
+    public LocalHttpServer() throws IOException {
+        this.pattern = new byte[64 * 1024];
+        new Random(42).nextBytes(pattern);
+        this.requestCount = new AtomicLong();
+        this.truncationCounts = new ConcurrentHashMap<>();
+        this.executor = Executors.newCachedThreadPool();
+        // Otherwise small responses on kept-alive connections wait for delayed ACKs, and every request takes 40 ms
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.httpServer.createContext("/bytes/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                serveBytes(exchange);
+            }
+        });
+        this.httpServer.createContext("/text/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                serveText(exchange);
+            }
+        });
+        this.httpServer.createContext("/status/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                serveStatus(exchange);
+            }
+        });
+        this.httpServer.setExecutor(executor);
+        this.httpServer.start();
+    }
+
+    /**
+     * Gets and returns the URL under which a payload of the given size is served.
+     * @param size The size of the payload in bytes.
+     * @return The URL of the payload.
+     * @throws MalformedURLException Should never be thrown.
+     */
+    public URL getBytesUrl(long size) throws MalformedURLException {
+        return getBytesUrl(size, null);
+    }
+
+    /**
+     * Gets and returns the URL under which a payload of the given size is served with the given options.
+     * @param size The size of the payload in bytes.
+     * @param options The options, e.g. <code>gzip&amp;latency=5</code>, or null.
+     * @return The URL of the payload.
+     * @throws MalformedURLException Should never be thrown.
+     */
+    public URL getBytesUrl(long size, String options) throws MalformedURLException {
+        return getUrl("/bytes/" + size, options);
+    }
+
+    /**
+     * Gets and returns the URL under which a text of (roughly) the given size is served.
+     * @param size The size of the text in bytes.
+     * @return The URL of the text.
+     * @throws MalformedURLException Should never be thrown.
+     */
+    public URL getTextUrl(long size) throws MalformedURLException {
+        return getTextUrl(size, null);
+    }
+
+    /**
+     * Gets and returns the URL under which a text of (roughly) the given size is served with the given options.
+     * @param size The size of the text in bytes.
+     * @param options The options, e.g. <code>gzip&amp;latency=5</code>, or null.
+     * @return The URL of the text.
+     * @throws MalformedURLException Should never be thrown.
+     */
+    public URL getTextUrl(long size, String options) throws MalformedURLException {
+        return getUrl("/text/" + size, options);
+    }
+
+    /**
+     * Gets and returns the URL which is answered with the given status code.
+     * @param statusCode The status code.
+     * @return The URL of the status.
+     * @throws MalformedURLException Should never be thrown.
+     */
+    public URL getStatusUrl(int statusCode) throws MalformedURLException {
+        return getUrl("/status/" + statusCode, null);
+    }
+
+    /**
+     * Gets and returns a part of the payload served under {@link #getBytesUrl(long)}, so it can be compared with a download.
+     * @param first The offset of the first byte.
+     * @param length The amount of bytes.
+     * @return The bytes of the payload.
+     */
+    public byte[] getPayload(long first, int length) {
+        byte[] payload = new byte[length];
+        for (int i = 0; i < length; i++)
+            payload[i] = pattern[(int)((first + i) % pattern.length)];
+        return payload;
+    }
+
+    /**
+     * Gets and returns the amount of requests the server has received so far.
+     * @return The amount of requests.
+     */
+    public long getRequestCount() { return requestCount.get(); }
+
+    private URL getUrl(String path, String options) throws MalformedURLException {
+        return new URL("http", "127.0.0.1", httpServer.getAddress().getPort(), options == null || options.isEmpty() ? path : path + "?" + options);
+    }
+
+    private void serveStatus(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        String path = exchange.getRequestURI().getPath();
+        int statusCode = Integer.parseInt(path.substring(path.lastIndexOf('/') + 1));
+        byte[] body = ("Status " + statusCode + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        exchange.sendResponseHeaders(statusCode, body.length);
+        try (OutputStream oStream = exchange.getResponseBody()) {
+            oStream.write(body);
+        }
+    }
+
+    private void serveText(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        String path = exchange.getRequestURI().getPath();
+        long size = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+        byte[] line = "{\"id\": 4711, \"name\": \"Gr\u00fc\u00dfe aus K\u00f6ln\", \"tags\": [\"\u00e4\u00f6\u00fc\", \"\u00df\", \"\u20ac\"], \"ok\": true}\n"
+                .getBytes(StandardCharsets.UTF_8);
+        long lines = Math.max(1, size / line.length);
+
+        Map<String, String> options = getOptions(exchange);
+        delay(options);
+        setCacheControl(exchange, options);
+        boolean compressed = isCompressed(exchange, options);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        exchange.sendResponseHeaders(200, compressed || options.containsKey("chunked") ? 0 : lines * line.length);
+        try (OutputStream oStream = new BufferedOutputStream(openBody(exchange, options, compressed), 64 * 1024)) {
+            for (long i = 0; i < lines; i++)
+                oStream.write(line);
+        }
+    }
+
+    private static Map<String, String> getOptions(HttpExchange exchange) {
+        Map<String, String> options = new HashMap<>();
+        String query = exchange.getRequestURI().getQuery();
+        if (query == null)
+            return options;
+        for (String option : query.split("&")) {
+            int i = option.indexOf('=');
+            options.put(i < 0 ? option : option.substring(0, i), i < 0 ? "" : option.substring(i + 1));
+        }
+        return options;
+    }
+
+    private static void delay(Map<String, String> options) throws IOException {
+        String latency = options.get("latency");
+        if (latency == null)
+            return;
+        try {
+            Thread.sleep(Long.parseLong(latency));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private static void setCacheControl(HttpExchange exchange, Map<String, String> options) {
+        String cacheControl = options.get("cache");
+        if (cacheControl != null)
+            exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+    }
+
+    /**
+     * Decides whether to compress the response, and if so, says so in its headers.
+     */
+    private static boolean isCompressed(HttpExchange exchange, Map<String, String> options) {
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (!options.containsKey("gzip") || acceptEncoding == null || !acceptEncoding.contains("gzip"))
+            return false;
+        exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        return true;
+    }
+
+    private OutputStream openBody(HttpExchange exchange, Map<String, String> options, boolean compressed) throws IOException {
+        OutputStream oStream = exchange.getResponseBody();
+        String truncate = options.get("truncate");
+        if (truncate != null && isTruncated(exchange, options))
+            oStream = new TruncatingOutputStream(oStream, Long.parseLong(truncate));
+        return compressed ? new GZIPOutputStream(oStream, 64 * 1024) : oStream;
+    }
+
+    private boolean isTruncated(HttpExchange exchange, Map<String, String> options) {
+        String truncations = options.get("truncations");
+        if (truncations == null)
+            return true;
+        AtomicInteger count = truncationCounts.computeIfAbsent(exchange.getRequestURI().toString(), key -> new AtomicInteger());
+        return count.incrementAndGet() <= Integer.parseInt(truncations);
+    }
+
+    private void serveBytes(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        String path = exchange.getRequestURI().getPath();
+        long size = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+        long first = 0;
+        long last = size - 1;
+        int status = 200;
+        Map<String, String> options = getOptions(exchange);
+        delay(options);
+        setCacheControl(exchange, options);
+
+        String entityTag = "\"" + size + "\"";
+        if (entityTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.getResponseHeaders().set("ETag", entityTag);
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        if (range != null && range.startsWith("bytes=") && (ifRange == null || ifRange.equals(entityTag))) {
+            String[] bounds = range.substring(6).split("-", 2);
+            first = Long.parseLong(bounds[0]);
+            if (!bounds[1].isEmpty())
+                last = Math.min(last, Long.parseLong(bounds[1]));
+            status = 206;
+            exchange.getResponseHeaders().set("Content-Range", "bytes " + first + "-" + last + "/" + size);
+        }
+
+        long length = last - first + 1;
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+        exchange.getResponseHeaders().set("ETag", entityTag);
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Content-Length", Long.toString(length));
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        boolean compressed = status == 200 && isCompressed(exchange, options);
+        exchange.sendResponseHeaders(status, length <= 0 ? -1 : compressed || options.containsKey("chunked") ? 0 : length);
+        try (OutputStream oStream = openBody(exchange, options, compressed)) {
+            long offset = first;
+            while (offset <= last) {
+                int start = (int)(offset % pattern.length);
+                int i = (int)Math.min(last - offset + 1, pattern.length - start);
+                oStream.write(pattern, start, i);
+                offset += i;
+            }
+        }
+    }
+
+    /**
+     * Passes on the first bytes of a body, and then fails, which makes the server close the connection.
+     */
+    private static final class TruncatingOutputStream extends FilterOutputStream {
+
+        private long remaining;
+
+        TruncatingOutputStream(OutputStream oStream, long limit) {
+            super(oStream);
+            this.remaining = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte)b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            int i = (int)Math.min(length, remaining);
+            out.write(buffer, offset, i);
+            remaining -= i;
+            if (i < length) {
+                out.flush();
+                throw new IOException("Body truncated on purpose!");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Closing would end a chunked body properly
+            if (remaining > 0)
+                super.close();
+        }
+
+    }
+
+    /**
+     * Stops the server.
+     */
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.bench;
+
+import eu.beatsleigher.jwebclient.JWebClient;
+import eu.beatsleigher.jwebclient.engine.*;
+import eu.beatsleigher.jwebclient.transport.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs many small concurrent downloads from one host through each {@link Transport}, and checks they all arrive intact.
+ *
+ * The local server only speaks HTTP/1.1, so the {@link HttpClientTransport} falls back to HTTP/1.1 connections here;
+ * this covers the transport itself, not the gains of multiplexing.
+ *
+ * Usage: <code>TransportBenchmark [downloads] [sizeInKiB] [iterations]</code>
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public class TransportBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int downloads = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        long size = (args.length > 1 ? Long.parseLong(args[1]) : 4) * 1024;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        DownloadEngine engine = new DownloadEngine(DownloadEngine.createDefaultExecutor(64), 64, 64);
+
+        try (LocalHttpServer server = new LocalHttpServer()) {
+            URL url = server.getBytesUrl(size);
+            ConnectionManager connectionManager = new ConnectionManager(64, 64, ConnectionManager.DEFAULT_IDLE_TIMEOUT);
+            run("HttpURLConnection", connectionManager, engine, url, size, downloads, iterations);
+            System.out.println("  " + connectionManager.getStatistics());
+            run("HttpClient", new HttpClientTransport(), engine, url, size, downloads, iterations);
+        } finally {
+            engine.dispose();
+        }
+    }
+
+    private static void run(String name, Transport transport, DownloadEngine engine, URL url, long size,
+                            int downloads, int iterations) throws Exception {
+        // Warm up
+        for (int i = 0; i < 2; i++)
+            downloadAll(transport, engine, url, size, downloads);
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            downloadAll(transport, engine, url, size, downloads);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-20s %5d x %d KiB: best %8.1f ms, %8.0f downloads/s%n", name, downloads, size / 1024,
+                best / 1e6, downloads / (best / 1e9));
+    }
+
+    private static void downloadAll(Transport transport, DownloadEngine engine, URL url, long size, int downloads) throws Exception {
+        List<CompletableFuture<byte[]>> futures = new ArrayList<>(downloads);
+        for (int i = 0; i < downloads; i++) {
+            JWebClient client = new JWebClient(url);
+            client.setTransport(transport);
+            client.setDownloadEngine(engine);
+            futures.add(client.downloadDataAsync());
+        }
+        for (CompletableFuture<byte[]> future : futures) {
+            if (future.get().length != size)
+                throw new IllegalStateException("Download came back with " + future.get().length + " bytes instead of " + size + "!");
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.bench;
+
+import eu.beatsleigher.jwebclient.JWebClient;
+import java.io.*;
+import java.nio.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures every way of downloading a body, for small, medium and large bodies, sent plain, chunked or compressed.
+ *
+ * Each benchmark is run for throughput and as sampled latency, which reports the percentiles of the single downloads.
+ * The allocation rate is reported by the <code>gc</code> profiler, which <code>ant jmh</code> enables by default.
+ * A latency (in milliseconds) the local server waits before every response can be set with <code>-p latency=5</code>.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DownloadBenchmark {
+
+    @Param({ "4096", "1048576", "16777216" })
+    public long size;
+
+    @Param({ "plain", "chunked", "gzip" })
+    public String body;
+
+    @Param({ "0" })
+    public int latency;
+
+    private LocalHttpServer server;
+    private File target;
+    private JWebClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new LocalHttpServer();
+        target = File.createTempFile("jwebclient-jmh", ".bin");
+        String options = body.equals("plain") ? "" : body;
+        if (latency > 0)
+            options += (options.isEmpty() ? "" : "&") + "latency=" + latency;
+        client = new JWebClient(server.getTextUrl(size, options), target);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+        target.delete();
+    }
+
+    @Benchmark
+    public long downloadFile() throws IOException {
+        client.downloadFile();
+        return target.length();
+    }
+
+    @Benchmark
+    public String downloadString() throws IOException {
+        client.downloadString();
+        return client.getDownloadedString();
+    }
+
+    @Benchmark
+    public byte[] downloadData() throws IOException {
+        client.downloadData();
+        return client.getDownloadedData();
+    }
+
+    @Benchmark
+    public long downloadPublisher() throws Exception {
+        CountingSubscriber subscriber = new CountingSubscriber();
+        client.downloadPublisher().subscribe(subscriber);
+        return subscriber.await();
+    }
+
+    /**
+     * Requests every chunk at once and counts the bytes.
+     */
+    private static final class CountingSubscriber implements Flow.Subscriber<ByteBuffer> {
+
+        private final CompletableFuture<Long> done = new CompletableFuture<>();
+        private long count = 0;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+            count += item.remaining();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(count);
+        }
+
+        long await() throws Exception {
+            return done.get();
+        }
+
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.bench;
+
+import eu.beatsleigher.jwebclient.JWebClient;
+import eu.beatsleigher.jwebclient.events.*;
+import java.io.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures what progress events cost a download: small chunks, an event for every chunk, and a varying amount of listeners,
+ * called on the downloading thread or on the event thread, which either take every event or only the final one.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventDispatchBenchmark {
+
+    @Param({ "4194304" })
+    public long size;
+
+    @Param({ "0", "1", "8" })
+    public int listeners;
+
+    @Param({ "false", "true" })
+    public boolean asyncEvents;
+
+    @Param({ "false", "true" })
+    public boolean finalOnly;
+
+    private final AtomicLong eventCount = new AtomicLong();
+    private LocalHttpServer server;
+    private JWebClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new LocalHttpServer();
+        client = new JWebClient(server.getBytesUrl(size));
+        client.setChunkSize(8 * 1024);
+        client.setProgressInterval(0);
+        client.setAsyncProgressEvents(asyncEvents);
+        for (int i = 0; i < listeners; i++)
+            client.addDownloadProgressChangedEventListener(new DownloadProgressChangedEventListener() {
+                @Override
+                public void onDownloadProgressChanged(DownloadProgressChangedEvent evt) {
+                    eventCount.incrementAndGet();
+                }
+            }, finalOnly ? EventFilter.FINAL_PROGRESS : null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public byte[] downloadData() throws IOException {
+        client.downloadData();
+        return client.getDownloadedData();
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.bench;
+
+import eu.beatsleigher.jwebclient.JWebClient;
+import eu.beatsleigher.jwebclient.io.*;
+import java.io.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the ways a large file can be written to the disk: the output modes, segments, part files and fsync policies.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 4)
+@Fork(1)
+public class FileOutputBenchmark {
+
+    @Param({ "67108864" })
+    public long size;
+
+    @Param({ "CHANNEL", "PREALLOCATED", "MAPPED" })
+    public OutputMode outputMode;
+
+    @Param({ "1", "4" })
+    public int segments;
+
+    @Param({ "false" })
+    public boolean atomic;
+
+    @Param({ "none" })
+    public String fsync;
+
+    private LocalHttpServer server;
+    private File target;
+    private JWebClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new LocalHttpServer();
+        target = File.createTempFile("jwebclient-jmh", ".bin");
+        client = new JWebClient(server.getBytesUrl(size), target);
+        client.setOutputMode(outputMode);
+        client.setSegmentCount(segments);
+        client.setAtomicOutput(atomic);
+        client.setFsyncPolicy(fsync.equals("none") ? FsyncPolicy.NONE
+                : fsync.equals("completion") ? FsyncPolicy.ON_COMPLETION : FsyncPolicy.every(Long.parseLong(fsync)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+        target.delete();
+    }
+
+    @Benchmark
+    public long downloadFile() throws IOException {
+        client.downloadFile();
+        return target.length();
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient;
+
+import java.io.*;
+
+/**
+ * Counts the bytes read from a stream.
+ *
+ * Sits between the connection and the decompressor, so the progress of a compressed download
+ * can be reported in bytes received as well as bytes decoded.
+ * Not thread-safe; the count is meant to be read by the thread reading the stream.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+final class CountingInputStream extends FilterInputStream {
+
+    private long count = 0;
+
+    CountingInputStream(InputStream iStream) {
+        super(iStream);
+    }
+
+    /**
+     * Gets and returns the amount of bytes read so far.
+     * @return The amount of bytes read.
+     */
+    long getCount() { return count; }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0)
+            count++;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int i = in.read(buffer, offset, length);
+        if (i > 0)
+            count += i;
+        return i;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(n);
+        count += skipped;
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() { return false; }
+
+    @Override
+    public void mark(int readLimit) { }
+
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("mark/reset not supported!");
+    }
+
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient;
+
+import eu.beatsleigher.jwebclient.transport.Exchange;
+import java.io.*;
+import java.net.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * A small sidecar file next to a download, which records how much of the download has safely been written
+ * and which version of the remote file it belongs to.
+ *
+ * The journal for <code>file.bin</code> is stored in <code>file.bin.journal</code>.
+ * If a download fails, the journal allows the next attempt to request only the missing bytes,
+ * using <code>Range</code> and <code>If-Range</code>.
+ * If the remote file has changed in the meantime, the server sends the whole file and the download starts over.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.1
+ */
+final class DownloadJournal implements TransferListener {
+
+    /**
+     * The file suffix of journal files.
+     */
+    static final String JOURNAL_SUFFIX = ".journal";
+
+    /**
+     * The amount of bytes after which the downloaded data is flushed to the disk and the journal is updated.
+     */
+    static final long CHECKPOINT_INTERVAL = 4 * 1024 * 1024;
+
+    private final File journalFile;
+    private String source;
+    private String entityTag;
+    private String lastModified;
+    private long remoteSize;
+    private long committedBytes;
+    private long lastCheckpoint;
+
+    /**
+     * Default constructor.
+     * @param dlPath The file that is downloaded. The journal is stored next to it.
+     */
+    DownloadJournal(File dlPath) {
+        this.journalFile = new File(dlPath.getPath() + JOURNAL_SUFFIX);
+    }
+
+    /**
+     * Reads the journal and works out from which offset the download can be resumed.
+     * @param dlSource The URL that is about to be downloaded.
+     * @param dlPath The file that is about to be written.
+     * @return The offset from which to resume the download, or zero if the download cannot be resumed.
+     */
+    long getResumeOffset(URL dlSource, File dlPath) {
+        if (!journalFile.isFile() || !dlPath.isFile())
+            return 0;
+
+        Properties properties = new Properties();
+        try (InputStream iStream = new FileInputStream(journalFile)) {
+            properties.load(iStream);
+            source = properties.getProperty("source");
+            entityTag = properties.getProperty("etag");
+            lastModified = properties.getProperty("lastModified");
+            remoteSize = Long.parseLong(properties.getProperty("remoteSize", "-1"));
+            committedBytes = Long.parseLong(properties.getProperty("committedBytes", "0"));
+        } catch (IOException | NumberFormatException ex) {
+            // A broken journal is no reason to fail the download, we just can't resume.
+            return 0;
+        }
+
+        if (!dlSource.toString().equals(source) || getValidator() == null)
+            return 0;
+        // Never trust the journal beyond what actually made it to the disk
+        return Math.max(0, Math.min(committedBytes, dlPath.length()));
+    }
+
+    /**
+     * Asks the server to only send the bytes from the given offset, as long as the remote file hasn't changed.
+     * @param exchange The exchange whose request hasn't been sent yet.
+     * @param offset The offset returned by {@link #getResumeOffset(URL, File)}.
+     */
+    void addResumeHeaders(Exchange exchange, long offset) {
+        exchange.setRequestHeader("Range", "bytes=" + offset + "-");
+        exchange.setRequestHeader("If-Range", getValidator());
+    }
+
+    /**
+     * Checks whether a partial response starts at the requested offset.
+     * @param exchange The exchange that was set up with {@link #addResumeHeaders(Exchange, long)}.
+     * @param offset The requested offset.
+     * @return True if the response contains the bytes from the given offset onwards.
+     * @throws IOException If the response could not be read.
+     */
+    boolean isResumedAt(Exchange exchange, long offset) throws IOException {
+        String contentRange = exchange.getHeaderField("Content-Range");
+        return exchange.getResponseCode() == HttpURLConnection.HTTP_PARTIAL
+                && contentRange != null && contentRange.startsWith("bytes " + offset + "-");
+    }
+
+    /**
+     * Gets and returns the size of the remote file recorded in the journal.
+     * @return The size of the remote file, or -1 if unknown.
+     */
+    long getRemoteSize() { return remoteSize; }
+
+    /**
+     * Records the response a download is (re)started with and writes the journal.
+     * @param dlSource The URL that is downloaded.
+     * @param exchange The exchange the data is read from.
+     * @param offset The offset at which the response body is written to the file.
+     * @param remoteSize The size of the complete remote file, or -1 if unknown.
+     * @throws IOException If the journal could not be written.
+     */
+    void begin(URL dlSource, Exchange exchange, long offset, long remoteSize) throws IOException {
+        this.source = dlSource.toString();
+        this.entityTag = exchange.getHeaderField("ETag");
+        this.lastModified = exchange.getHeaderField("Last-Modified");
+        this.remoteSize = remoteSize;
+        this.committedBytes = offset;
+        this.lastCheckpoint = offset;
+        save();
+    }
+
+    /**
+     * Every {@link #CHECKPOINT_INTERVAL} bytes the file is flushed to the disk and the journal is updated,
+     * so that even a system crash loses no more than that.
+     * {@inheritDoc}
+     */
+    @Override
+    public void chunkWritten(FileChannel outChannel, Flushable mappedWriter, long committed) throws IOException {
+        if (committed - lastCheckpoint < CHECKPOINT_INTERVAL)
+            return;
+        if (mappedWriter != null)
+            mappedWriter.flush();
+        outChannel.force(false);
+        committedBytes = committed;
+        lastCheckpoint = committed;
+        save();
+    }
+
+    /**
+     * Records the amount of bytes that were written before a download failed.
+     * @param committed The amount of bytes of the file which have been written.
+     */
+    void interrupted(long committed) {
+        // Nothing to record if the download failed before it got a response
+        if (source == null)
+            return;
+        committedBytes = committed;
+        try {
+            save();
+        } catch (IOException ex) {
+            // Keep the last checkpoint; the download failed anyway and that exception is more important.
+        }
+    }
+
+    /**
+     * Deletes the journal. Called once the download has completed.
+     * @throws IOException If the journal exists, but could not be deleted.
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(journalFile.toPath());
+    }
+
+    private String getValidator() {
+        // Weak entity tags must not be used with If-Range
+        if (entityTag != null && !entityTag.startsWith("W/"))
+            return entityTag;
+        return lastModified;
+    }
+
+    private void save() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("source", source);
+        if (entityTag != null)
+            properties.setProperty("etag", entityTag);
+        if (lastModified != null)
+            properties.setProperty("lastModified", lastModified);
+        properties.setProperty("remoteSize", Long.toString(remoteSize));
+        properties.setProperty("committedBytes", Long.toString(committedBytes));
+
+        // Write a new journal and swap it in, so a crash never leaves a half-written journal behind
+        File tempFile = new File(journalFile.getPath() + ".tmp");
+        try (OutputStream oStream = new FileOutputStream(tempFile)) {
+            properties.store(oStream, "JWebClient download journal");
+        }
+        Files.move(tempFile.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient;
+
+import eu.beatsleigher.jwebclient.io.BufferPool;
+import eu.beatsleigher.jwebclient.metrics.DownloadTimer;
+import eu.beatsleigher.jwebclient.transport.*;
+import java.io.*;
+import java.net.*;
+import java.nio.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * Publishes the body of a download as a stream of {@link ByteBuffer}s.
+ *
+ * The publisher is cold: every subscriber gets its own request, which is started on the client's
+ * {@link eu.beatsleigher.jwebclient.engine.DownloadEngine} once the subscriber asks for the first chunk.
+ * The body is only read from the connection while the subscriber has outstanding demand, 
+ * so a slow subscriber holds back the server instead of filling up the memory.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+final class DownloadPublisher implements Flow.Publisher<ByteBuffer> {
+
+    private final JWebClient client;
+    private final URL dlSource;
+
+    /**
+     * Default constructor.
+     * @param client The client on whose behalf the body is downloaded. Used for the transport, the settings and the events.
+     * @param dlSource The URL to download from.
+     */
+    DownloadPublisher(JWebClient client, URL dlSource) {
+        this.client = client;
+        this.dlSource = dlSource;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        BodySubscription subscription = new BodySubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.subscribed();
+    }
+
+    /**
+     * The subscription of a single subscriber, and the download which feeds it.
+     */
+    private final class BodySubscription implements Flow.Subscription, Callable<Void> {
+
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final Lock lock = new ReentrantLock();
+        private final Condition demandAvailable = lock.newCondition();
+        private long demand = 0;
+        private boolean subscribed = false;
+        private boolean started = false;
+        private volatile boolean cancelled = false;
+        private volatile Exchange exchange = null;
+        private Throwable pendingError = null;
+
+        BodySubscription(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                rejectRequest(new IllegalArgumentException("The amount of requested chunks must be positive!"));
+                return;
+            }
+            lock.lock();
+            try {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                demandAvailable.signal();
+            } finally {
+                lock.unlock();
+            }
+            startIfRequested();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            lock.lock();
+            try {
+                demandAvailable.signal();
+            } finally {
+                lock.unlock();
+            }
+            // Unblocks a read which is waiting for the server
+            Exchange exchange = this.exchange;
+            if (exchange != null)
+                exchange.abort();
+        }
+
+        /**
+         * Called once {@link Flow.Subscriber#onSubscribe(Flow.Subscription)} has returned.
+         * Chunks requested from within onSubscribe are only delivered from now on, so the signals don't overlap.
+         */
+        void subscribed() {
+            lock.lock();
+            try {
+                subscribed = true;
+            } finally {
+                lock.unlock();
+            }
+            startIfRequested();
+        }
+
+        private void startIfRequested() {
+            lock.lock();
+            try {
+                if (!subscribed || started || demand == 0 || cancelled)
+                    return;
+                started = true;
+            } finally {
+                lock.unlock();
+            }
+            client.getDownloadEngine().submit(dlSource, this).whenComplete(new BiConsumer<Void, Throwable>() {
+                @Override
+                public void accept(Void result, Throwable ex) {
+                    // Only set if the engine refused the download; everything else is reported in call()
+                    if (ex != null)
+                        fail(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+                }
+            });
+        }
+
+        /**
+         * Waits until the subscriber has asked for another chunk, and takes it from the demand.
+         * @return False if the subscription was cancelled instead.
+         * @throws InterruptedIOException If the thread was interrupted while waiting.
+         */
+        private boolean awaitDemand() throws InterruptedIOException {
+            lock.lock();
+            try {
+                while (demand == 0 && !cancelled)
+                    demandAvailable.await();
+                if (cancelled)
+                    return false;
+                if (demand != Long.MAX_VALUE)
+                    demand--;
+                return true;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the subscriber!");
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Cancels the subscription because of an invalid request.
+         * If the download is already running, the error is delivered from its thread, after the last chunk.
+         * @param ex The error.
+         */
+        private void rejectRequest(Throwable ex) {
+            boolean running;
+            lock.lock();
+            try {
+                if (cancelled)
+                    return;
+                pendingError = ex;
+                running = started;
+                cancelled = true;
+            } finally {
+                lock.unlock();
+            }
+            cancel();
+            if (!running)
+                subscriber.onError(ex);
+        }
+
+        /**
+         * Delivers the error of an invalid request, once the download has stopped.
+         */
+        private void deliverPendingError() {
+            Throwable ex;
+            lock.lock();
+            try {
+                ex = pendingError;
+                pendingError = null;
+            } finally {
+                lock.unlock();
+            }
+            if (ex != null)
+                subscriber.onError(ex);
+        }
+
+        @Override
+        public Void call() {
+            if (cancelled) {
+                deliverPendingError();
+                return null;
+            }
+            BufferPool bufferPool = BufferPool.getSharedInstance();
+            ByteBuffer scratch = bufferPool.leaseHeap(client.getChunkSize());
+            DownloadTimer timer = client.getDownloadMetrics().start(dlSource);
+            Exchange exchange = null;
+            try {
+                exchange = client.getTransport().open(dlSource);
+                this.exchange = exchange;
+                client.requestCompression(exchange);
+                long remoteSize = exchange.getContentLength();
+                timer.connected(exchange.getConnectTime());
+                ProgressDispatcher progress = client.createProgressDispatcher(null, remoteSize, 0, timer, null);
+                try (InputStream iStream = client.openResponseBody(exchange, progress)) {
+                    int i;
+                    while (awaitDemand() && (i = iStream.read(scratch.array(), 0, scratch.capacity())) >= 0) {
+                        progress.transferred(i);
+                        // The subscriber owns the chunks it's given, so they are never reused
+                        subscriber.onNext(ByteBuffer.wrap(Arrays.copyOf(scratch.array(), i)));
+                    }
+                    if (!cancelled)
+                        progress.finish();
+                }
+                if (cancelled) {
+                    exchange.abort();
+                    deliverPendingError();
+                    return null;
+                }
+                exchange.release();
+                subscriber.onComplete();
+            } catch (IOException | RuntimeException ex) {
+                if (exchange != null)
+                    exchange.abort();
+                if (cancelled) {
+                    deliverPendingError();
+                } else {
+                    timer.failed(ex);
+                    fail(ex);
+                }
+            } finally {
+                bufferPool.release(scratch);
+            }
+            return null;
+        }
+
+        /**
+         * Cancels the subscription and hands the error to the subscriber, unless the subscription was cancelled before.
+         * @param ex The error.
+         */
+        private void fail(Throwable ex) {
+            if (cancelled)
+                return;
+            cancel();
+            subscriber.onError(ex);
+        }
+
+    }
+
+}
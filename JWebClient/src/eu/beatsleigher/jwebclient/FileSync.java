@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient;
+
+import eu.beatsleigher.jwebclient.io.FsyncPolicy;
+import java.io.*;
+import java.nio.channels.*;
+
+/**
+ * Forces a downloaded file to the disk as its {@link FsyncPolicy} says, and passes every chunk on to another listener.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+final class FileSync implements TransferListener {
+
+    private final FsyncPolicy fsyncPolicy;
+    private final TransferListener delegate;
+    private long lastSync;
+    private Flushable mappedWriter = null;
+
+    /**
+     * Default constructor.
+     * @param fsyncPolicy The policy to follow.
+     * @param delegate The listener to pass the chunks on to, e.g. the download's journal. May be null.
+     * @param position The position in the file at which the transfer starts.
+     */
+    FileSync(FsyncPolicy fsyncPolicy, TransferListener delegate, long position) {
+        this.fsyncPolicy = fsyncPolicy;
+        this.delegate = delegate;
+        this.lastSync = position;
+    }
+
+    @Override
+    public void chunkWritten(FileChannel outChannel, Flushable mappedWriter, long committed) throws IOException {
+        if (delegate != null)
+            delegate.chunkWritten(outChannel, mappedWriter, committed);
+        this.mappedWriter = mappedWriter;
+        if (fsyncPolicy.getInterval() <= 0 || committed - lastSync < fsyncPolicy.getInterval())
+            return;
+        if (mappedWriter != null)
+            mappedWriter.flush();
+        outChannel.force(false);
+        lastSync = committed;
+    }
+
+    /**
+     * Writes back the memory mapped window the transfer wrote to last, if the policy forces the file on completion.
+     * Enough for transfers which share a channel, which is then forced by the last of them.
+     * @throws IOException If the window could not be written back.
+     */
+    void flush() throws IOException {
+        if (fsyncPolicy.isSyncOnCompletion() && mappedWriter != null)
+            mappedWriter.flush();
+    }
+
+    /**
+     * Forces the file to the disk, if the policy says so. Called once the transfer is complete.
+     * @param outChannel The channel of the file.
+     * @throws IOException If the file could not be forced.
+     */
+    void finish(FileChannel outChannel) throws IOException {
+        if (!fsyncPolicy.isSyncOnCompletion())
+            return;
+        flush();
+        // With the metadata, so the file's size is durable as well
+        outChannel.force(true);
+    }
+
+}
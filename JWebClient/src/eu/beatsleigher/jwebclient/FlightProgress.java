@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient;
+
+import eu.beatsleigher.jwebclient.engine.Flight;
+import java.io.*;
+
+/**
+ * Fires the progress events of a download which follows a {@link Flight}, by mirroring the progress of the leader.
+ *
+ * Every attempt of the leader gets a new {@link ProgressDispatcher}, set up with the follower's own progress settings,
+ * so the follower's listeners see the same events as if it had downloaded on its own.
+ * The events are always fired on the event thread, however, so the follower's listeners cannot hold up the leader.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.1
+ */
+final class FlightProgress implements Flight.Observer {
+
+    private final JWebClient client;
+    private final File downloadPath;
+    private volatile ProgressDispatcher progress = null;
+
+    /**
+     * Default constructor.
+     * @param client The following client. Used as event source, and for its listeners and progress settings.
+     * @param downloadPath The file the follower downloads to, or null.
+     */
+    FlightProgress(JWebClient client, File downloadPath) {
+        this.client = client;
+        this.downloadPath = downloadPath;
+    }
+
+    @Override
+    public void started(long remoteSize, long initialDataRead) {
+        progress = client.createFollowerProgressDispatcher(downloadPath, remoteSize, initialDataRead);
+    }
+
+    @Override
+    public void transferred(long bytes, long wireDataRead) {
+        progress.transferred(bytes, wireDataRead);
+    }
+
+    /**
+     * Fires the final event, once the flight has landed.
+     */
+    void finish() {
+        ProgressDispatcher progress = this.progress;
+        if (progress != null)
+            progress.finish();
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient;
+
+import eu.beatsleigher.jwebclient.engine.RetryPolicy;
+import eu.beatsleigher.jwebclient.metrics.*;
+import eu.beatsleigher.jwebclient.transport.Exchange;
+import java.io.*;
+import java.net.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Sends a request, and if its response takes longer than is usual for the host, sends the same request again.
+ * Whichever response arrives first is used; the other request is aborted.
+ *
+ * This trades a little extra load on the server for a shorter tail latency:
+ * a request which happened to land on a slow connection or a busy server doesn't hold up the download.
+ * The requests are sent from a small pool of daemon threads, so the calling thread only waits for the first response.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+final class HedgedRequest {
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "JWebClient-hedge-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final JWebClient client;
+    private final URL dlSource;
+    private final boolean compressed;
+    private final BlockingQueue<Object> outcomes;
+    private final AtomicBoolean decided;
+
+    /**
+     * Default constructor.
+     * @param client The client whose transport the requests are sent through.
+     * @param dlSource The URL to request.
+     * @param compressed Whether to ask the server to compress the response.
+     */
+    HedgedRequest(JWebClient client, URL dlSource, boolean compressed) {
+        this.client = client;
+        this.dlSource = dlSource;
+        this.compressed = compressed;
+        this.outcomes = new LinkedBlockingQueue<>();
+        this.decided = new AtomicBoolean();
+    }
+
+    /**
+     * Works out how long to wait for a response from the given host before hedging.
+     * @param metrics The registry the downloads from the host have been measured in.
+     * @param dlSource The URL to request.
+     * @param retryPolicy The retry policy of the download.
+     * @return The time to wait in nanoseconds, or -1 if the request isn't to be hedged:
+     * if the policy doesn't ask for it, or too few downloads from the host have been measured.
+     */
+    static long getHedgeDelay(DownloadMetrics metrics, URL dlSource, RetryPolicy retryPolicy) {
+        if (retryPolicy.getHedgePercentile() <= 0)
+            return -1;
+        MetricSet host = metrics.getHost(dlSource.getHost());
+        if (host == null)
+            return -1;
+        HistogramSnapshot timeToFirstByte = host.getTimeToFirstByte();
+        if (timeToFirstByte.getCount() < RetryPolicy.MIN_HEDGE_SAMPLES)
+            return -1;
+        return timeToFirstByte.getValueAtPercentile(retryPolicy.getHedgePercentile());
+    }
+
+    /**
+     * Sends the request, and another one if the first hasn't been answered after the given delay.
+     * @param hedgeDelay The time (in nanoseconds) to wait for the first response before sending the second request.
+     * @return The exchange which was answered first. Its response has arrived, its body hasn't been read yet.
+     * @throws IOException If every request that was sent failed. The first failure is thrown.
+     */
+    Exchange send(long hedgeDelay) throws IOException {
+        Attempt primary = new Attempt();
+        Attempt secondary = null;
+        EXECUTOR.execute(primary);
+
+        try {
+            Object outcome = outcomes.poll(hedgeDelay, TimeUnit.NANOSECONDS);
+            if (outcome == null) {
+                secondary = new Attempt();
+                EXECUTOR.execute(secondary);
+                outcome = outcomes.take();
+                if (outcome instanceof IOException) {
+                    Object other = outcomes.take();
+                    if (other instanceof IOException)
+                        ((IOException)outcome).addSuppressed((IOException)other);
+                    else
+                        outcome = other;
+                }
+            }
+            if (outcome instanceof IOException)
+                throw (IOException)outcome;
+
+            Exchange winner = (Exchange)outcome;
+            // The loser may still be waiting for its response; don't let it hold on to a connection
+            if (secondary != null)
+                (winner == primary.exchange ? secondary : primary).abort();
+            return winner;
+        } catch (InterruptedException ex) {
+            decided.set(true);
+            primary.abort();
+            if (secondary != null)
+                secondary.abort();
+            // A response may have been claimed just before
+            for (Object outcome : outcomes)
+                if (outcome instanceof Exchange)
+                    ((Exchange)outcome).abort();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a response from " + dlSource + "!");
+        }
+    }
+
+    /**
+     * A single request. Hands its exchange to the waiting thread if it's the first to get a response, aborts it otherwise.
+     */
+    private final class Attempt implements Runnable {
+
+        private volatile Exchange exchange = null;
+        private volatile boolean aborted = false;
+
+        @Override
+        public void run() {
+            try {
+                exchange = client.getTransport().open(dlSource);
+                if (aborted) {
+                    exchange.abort();
+                    return;
+                }
+                if (compressed)
+                    client.requestCompression(exchange);
+                exchange.getResponseCode();
+                if (decided.compareAndSet(false, true))
+                    outcomes.add(exchange);
+                else
+                    exchange.abort();
+            } catch (IOException ex) {
+                if (exchange != null)
+                    exchange.abort();
+                outcomes.add(ex);
+            } catch (RuntimeException ex) {
+                if (exchange != null)
+                    exchange.abort();
+                outcomes.add(new IOException("Request to " + dlSource + " failed!", ex));
+            }
+        }
+
+        void abort() {
+            aborted = true;
+            Exchange exchange = this.exchange;
+            if (exchange != null)
+                exchange.abort();
+        }
+
+    }
+
+}
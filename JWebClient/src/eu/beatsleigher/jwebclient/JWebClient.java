@@ -20,10 +20,25 @@
 package eu.beatsleigher.jwebclient;
 
 import eu.beatsleigher.jwebclient.interfaces.Disposeable;
+import eu.beatsleigher.jwebclient.cache.*;
+import eu.beatsleigher.jwebclient.engine.ConnectionManager;
+import eu.beatsleigher.jwebclient.engine.DownloadEngine;
+import eu.beatsleigher.jwebclient.engine.Flight;
+import eu.beatsleigher.jwebclient.engine.RetryPolicy;
+import eu.beatsleigher.jwebclient.engine.SingleFlight;
 import eu.beatsleigher.jwebclient.events.*;
+import eu.beatsleigher.jwebclient.io.*;
+import eu.beatsleigher.jwebclient.metrics.*;
+import eu.beatsleigher.jwebclient.transport.*;
 import java.io.*;
 import java.net.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
 
 /**
  * The JWebClient class provides methods, functions and properties to make downloading data, 
@@ -38,9 +53,30 @@ import java.util.*;
  * @version 1.0
  */
 @SuppressWarnings({"FieldMayBeFinal"})
-public abstract class JWebClient implements Disposeable {
+public class JWebClient implements Disposeable {
     
     //<editor-fold defaultstate="collapsed" desc="Variables">
+    /**
+     * The default minimum time (in milliseconds) between two progress events of the same download.
+     */
+    public static final long DEFAULT_PROGRESS_INTERVAL = 100;
+    
+    /**
+     * The largest string (in chars) {@link #downloadString()} allocates up front, based on the <code>Content-Length</code>.
+     * Anything larger starts out at this size and grows as needed, so a wrong header can't make us allocate gigabytes.
+     */
+    private static final int MAX_PRESIZED_STRING_LENGTH = 64 * 1024 * 1024;
+    
+    /**
+     * The largest byte array {@link #downloadData()} can fill. Some VMs reserve a few header words in an array.
+     */
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+    
+    /**
+     * The suffix of the file a download is written to before it's moved into place, if {@link #isAtomicOutput() atomic output} is enabled.
+     */
+    public static final String PART_SUFFIX = ".part";
+    
     /**
      * If a file is to be downloaded, this is the variable that stores its information.
      * @author Beatsleigher
@@ -73,37 +109,259 @@ public abstract class JWebClient implements Disposeable {
     private byte[] downloadedData = null;
     
     /**
-     * This list contains all of the event handlers for the onDownloadProgressChangedEvent-events.
+     * This registry contains all of the event handlers for the onDownloadProgressChangedEvent-events.
      * These events, as obviously stated by the name, will be fired when the progress of a download has changed. Duh...
      * @author Beatsleigher
      * @since 30-09-2014
-     * @version 1.0
+     * @version 2.0
      */
-    private List<DownloadProgressChangedEventListener> downloadProgressChangedEventHandlerList;
+    private final ListenerRegistry<DownloadProgressChangedEventListener, DownloadProgressChangedEvent> downloadProgressChangedEventListeners = 
+            new ListenerRegistry<DownloadProgressChangedEventListener, DownloadProgressChangedEvent>() {
+        @Override
+        protected void deliver(DownloadProgressChangedEventListener listener, DownloadProgressChangedEvent evt) {
+            listener.onDownloadProgressChanged(evt);
+        }
+    };
     
     /**
-     * This list contains all of the event handlers for the onDownloadFileCompletedEvent-events.
+     * This registry contains all of the event handlers for the onDownloadFileCompletedEvent-events.
      * @author Beatsleigher
      * @since 30-09-2014
-     * @version 1.0
+     * @version 2.0
+     */
+    private final ListenerRegistry<DownloadFileCompletedEventListener, DownloadFileCompletedEvent> downloadFileCompletedEventListeners = 
+            new ListenerRegistry<DownloadFileCompletedEventListener, DownloadFileCompletedEvent>() {
+        @Override
+        protected void deliver(DownloadFileCompletedEventListener listener, DownloadFileCompletedEvent evt) {
+            listener.onDownloadFileCompletedEvent(evt);
+        }
+    };
+    
+    /**
+     * This registry contains all of the handlers for the onDownloadStringCompletedEvent-events.
+     * @author Beatsleigher
+     * @since 30-09-2014
+     * @version 2.0
      */
-    private List<DownloadFileCompletedEventListener> downloadFileCompletedEventHandlerList;
+    private final ListenerRegistry<DownloadStringCompletedEventListener, DownloadStringCompletedEvent> downloadStringCompletedEventListeners = 
+            new ListenerRegistry<DownloadStringCompletedEventListener, DownloadStringCompletedEvent>() {
+        @Override
+        protected void deliver(DownloadStringCompletedEventListener listener, DownloadStringCompletedEvent evt) {
+            listener.onDownloadStringCompleted(evt);
+        }
+    };
     
     /**
-     * This list contains all of the handlers for the onDownloadStringCompletedEvent-events.
+     * This... you know what this registry contains. If you don't, you really, <i>really</i> shouldn't be looking at this JavaDoc...
      * @author Beatsleigher
      * @since 30-09-2014
+     * @version 2.0
+     */
+    private final ListenerRegistry<DownloadDataCompletedEventListener, DownloadDataCompletedEvent> downloadDataCompletedEventListeners = 
+            new ListenerRegistry<DownloadDataCompletedEventListener, DownloadDataCompletedEvent>() {
+        @Override
+        protected void deliver(DownloadDataCompletedEventListener listener, DownloadDataCompletedEvent evt) {
+            listener.onDownloadDataCompleted(evt);
+        }
+    };
+    
+    /**
+     * The size (in bytes) of the chunks in which files are read from the connection and written to the disk.
+     * Larger chunks mean less system calls and less progress events, smaller chunks mean more frequent progress updates.
+     * @author Beatsleigher
+     * @since 17-10-2026
      * @version 1.0
      */
-    private List<DownloadStringCompletedEventListener> downloadStringCompletedEventHandlerList;
+    private int chunkSize = BufferPool.DEFAULT_BUFFER_SIZE;
     
     /**
-     * This... you know what this list contains. If you don't, you really, <i>really</i> shouldn't be looking at this JavaDoc...
+     * Whether the chunks of file and sink downloads are sized by their throughput instead of {@link #chunkSize}.
      * @author Beatsleigher
-     * @since 30-09-2014
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private boolean adaptiveChunkSize = true;
+    
+    /**
+     * The budget which limits how far adaptive chunks may grow.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private MemoryBudget memoryBudget = MemoryBudget.getDefault();
+    
+    /**
+     * The amount of connections used to download a single file.
+     * If this is greater than one and the server supports range requests, 
+     * the file is split into this many segments which are downloaded in parallel.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private int segmentCount = 1;
+    
+    /**
+     * Whether interrupted file downloads are continued where they left off.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private boolean resumeEnabled = false;
+    
+    /**
+     * The engine the asynchronous downloads of this client run on.
+     * If null, the {@link DownloadEngine#getDefault() default engine} is used.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private DownloadEngine downloadEngine = null;
+    
+    /**
+     * The minimum time (in milliseconds) between two progress events of the same download.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private long progressInterval = DEFAULT_PROGRESS_INTERVAL;
+    
+    /**
+     * The minimum progress (in percent) between two progress events of the same download.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private float progressStep = 0;
+    
+    /**
+     * Whether progress events are fired on a separate thread.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private boolean asyncProgressEvents = false;
+    
+    /**
+     * Whether {@link #downloadData()} takes its scratch buffers from the shared {@link BufferPool}.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private boolean pooledDataBuffers = true;
+    
+    /**
+     * The cache downloads are served from and stored in, or null.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private DownloadCache downloadCache = null;
+    
+    /**
+     * Whether the server is asked to compress its responses.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private boolean compressionEnabled = true;
+    
+    /**
+     * The transport this client's requests are sent through.
+     * If null, the {@link ConnectionManager#getDefault() default connection manager} is used.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private Transport transport = null;
+    
+    /**
+     * How downloaded files of known size are written to the disk.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private OutputMode outputMode = OutputMode.CHANNEL;
+    
+    /**
+     * The registry this client's downloads are measured in.
+     * If null, the {@link DownloadMetrics#getDefault() default registry} is used.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private DownloadMetrics downloadMetrics = null;
+    
+    /**
+     * The limiter this client's downloads are held to, on top of the {@link RateLimiter#getGlobal() global one}, or null.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private RateLimiter rateLimiter = null;
+    
+    /**
+     * Decides whether failed downloads are tried again, and whether slow requests are hedged.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private RetryPolicy retryPolicy = RetryPolicy.NONE;
+    
+    /**
+     * The algorithm downloaded files are digested with while they're written, or null.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private DigestAlgorithm digestAlgorithm = null;
+    
+    /**
+     * The digest the next downloaded file is expected to have, or null.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private String expectedDigest = null;
+    
+    /**
+     * The digest of the last downloaded file, or null.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private volatile DownloadDigest downloadDigest = null;
+    
+    /**
+     * Whether files are downloaded to a part file, which is moved into place once it's complete.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private boolean atomicOutput = false;
+    
+    /**
+     * When downloaded files are forced to the disk.
+     * @author Beatsleigher
+     * @since 17-10-2026
      * @version 1.0
      */
-    private List<Object> downloadDataCompletedEventHandlerList;
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.NONE;
+    
+    /**
+     * The coordinator which merges concurrent downloads of the same thing, or null.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private SingleFlight singleFlight = null;
+    
+    /**
+     * The flight this client is currently leading, whose progress is passed on to its followers.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    private volatile Flight<?> leadingFlight = null;
     //</editor-fold>
     
     //<editor-fold defaultstate="collapsed" desc="Constructors">
@@ -124,10 +382,6 @@ public abstract class JWebClient implements Disposeable {
     public JWebClient(String dlSource, String dlPath) throws IOException {
         this.dlPath = new File(dlPath);
         this.dlSource = new URL(dlSource);
-        this.downloadProgressChangedEventHandlerList = new ArrayList<>();
-        this.downloadFileCompletedEventHandlerList = new ArrayList<>();
-        this.downloadStringCompletedEventHandlerList = new ArrayList<>();
-        this.downloadDataCompletedEventHandlerList = new ArrayList<>();
     }
     
     /**
@@ -148,10 +402,6 @@ public abstract class JWebClient implements Disposeable {
     public JWebClient(String dlSource, File dlPath) throws IOException {
         this.dlPath = dlPath;
         this.dlSource = new URL(dlSource);
-        this.downloadProgressChangedEventHandlerList = new ArrayList<>();
-        this.downloadFileCompletedEventHandlerList = new ArrayList<>();
-        this.downloadStringCompletedEventHandlerList = new ArrayList<>();
-        this.downloadDataCompletedEventHandlerList = new ArrayList<>();
     }
     
     /**
@@ -170,10 +420,6 @@ public abstract class JWebClient implements Disposeable {
     public JWebClient(URL dlSource, String dlPath) throws IOException {
         this.dlSource = dlSource;
         this.dlPath = new File(dlPath);
-        this.downloadProgressChangedEventHandlerList = new ArrayList<>();
-        this.downloadFileCompletedEventHandlerList = new ArrayList<>();
-        this.downloadStringCompletedEventHandlerList = new ArrayList<>();
-        this.downloadDataCompletedEventHandlerList = new ArrayList<>();
     }
     
     /**
@@ -192,19 +438,11 @@ public abstract class JWebClient implements Disposeable {
     public JWebClient(URL dlSource, File dlPath) {
         this.dlSource = dlSource;
         this.dlPath = dlPath;
-        this.downloadProgressChangedEventHandlerList = new ArrayList<>();
-        this.downloadFileCompletedEventHandlerList = new ArrayList<>();
-        this.downloadStringCompletedEventHandlerList = new ArrayList<>();
-        this.downloadDataCompletedEventHandlerList = new ArrayList<>();
     }
     
     public JWebClient(URL dlSource) {
         this.dlSource = dlSource;
         this.dlPath = null;
-        this.downloadProgressChangedEventHandlerList = new ArrayList<>();
-        this.downloadFileCompletedEventHandlerList = new ArrayList<>();
-        this.downloadStringCompletedEventHandlerList = new ArrayList<>();
-        this.downloadDataCompletedEventHandlerList = new ArrayList<>();
     }
     
     /**
@@ -215,10 +453,6 @@ public abstract class JWebClient implements Disposeable {
     public JWebClient() {
         this.dlPath = null;
         this.dlSource = null;
-        this.downloadProgressChangedEventHandlerList = new ArrayList<>();
-        this.downloadFileCompletedEventHandlerList = new ArrayList<>();
-        this.downloadStringCompletedEventHandlerList = new ArrayList<>();
-        this.downloadDataCompletedEventHandlerList = new ArrayList<>();
     }
     //</editor-fold>
     
@@ -282,219 +516,1966 @@ public abstract class JWebClient implements Disposeable {
      * @param path The {@link File} object from which to download the file to.
      */
     public void setDownloadPath(File path) { this.dlPath = path; }
-    //</editor-fold>
     
-    //<editor-fold defaultstate="collapsed" desc="Event Processing Methods">
-    public abstract void addDownloadProgressChangedEventListener();
+    /**
+     * Gets and returns the size of the chunks (in bytes) in which files are downloaded.
+     * While the {@link #isAdaptiveChunkSize() chunk size is adaptive}, this only applies to strings, data and published bodies.
+     * @return The chunk size in bytes. Defaults to {@link BufferPool#DEFAULT_BUFFER_SIZE}.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.1
+     */
+    public int getChunkSize() { return chunkSize; }
     
-    public abstract void addDownloadFileCompletedEventListener();
+    /**
+     * Sets the size of the chunks (in bytes) in which files are downloaded.
+     * Each chunk is written to the disk with a single call, and a progress event is fired after every chunk.
+     * Turns the {@link #setAdaptiveChunkSize(boolean) adaptive chunk size} off, so this size applies to all downloads.
+     * @param chunkSize The chunk size in bytes. Must be greater than zero.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.1
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("The chunk size must be greater than zero!");
+        this.chunkSize = chunkSize;
+        this.adaptiveChunkSize = false;
+    }
     
-    public abstract void addDownloadStringCompletedEventHandler();
+    /**
+     * Gets and returns whether the chunks of file and sink downloads are sized by their throughput.
+     * @return True if the chunk size is adaptive. Defaults to true, until a {@link #setChunkSize(int) chunk size} is set.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public boolean isAdaptiveChunkSize() { return adaptiveChunkSize; }
     
-    public abstract void addDownloadDataCompletedEventHandler();
-    //</editor-fold>
+    /**
+     * Sets whether the chunks of file and sink downloads are sized by their throughput.
+     * 
+     * An adaptive download starts with small chunks, which suit small bodies and slow connections,
+     * and doubles them for as long as its throughput keeps rising, up to {@link BufferPool#MAX_POOLED_CAPACITY} 
+     * and as far as the {@link #getMemoryBudget() memory budget} allows. The buffers are leased from the shared {@link BufferPool}.
+     * Larger chunks mean less progress events; set a {@link #setProgressStep(float) progress step} to keep them regular.
+     * If disabled, {@link #getChunkSize()} is used for all chunks.
+     * @param adaptiveChunkSize True to adapt the chunk size to each download.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setAdaptiveChunkSize(boolean adaptiveChunkSize) { this.adaptiveChunkSize = adaptiveChunkSize; }
     
     /**
-     * Downloads a file from the URL provided in the constructor 
-     * and saves it to the location provided in the constructor on to the local computer.
-     * @throws java.io.IOException This exception is thrown if something goes wrong during the download.
+     * Gets and returns the budget which limits how far adaptive chunks may grow.
+     * @return The memory budget. Defaults to {@link MemoryBudget#getDefault()}, which all clients share.
      * @author Beatsleigher
-     * @since 30-09-2014
+     * @since 17-10-2026
      * @version 1.0
      */
-    public void downloadFile() throws IOException {
-        HttpURLConnection httpConnect = null;
-        float totalDataRead;
-        BufferedInputStream bufferedIStream = null;
-        FileOutputStream fileOStream = null;
-        BufferedOutputStream bufferedOStream = null;
-        byte[] data = new byte[1024];
-        int i = 0;
-        float progressPercentage = 0;
-        long remoteSize = 0;
-        
-        try {
-            httpConnect = (HttpURLConnection)dlSource.openConnection();
-            totalDataRead = 0;
-            remoteSize = httpConnect.getContentLengthLong();
-            
-            bufferedIStream = new BufferedInputStream(httpConnect.getInputStream());
-            fileOStream = new FileOutputStream(dlPath);
-            bufferedOStream = new BufferedOutputStream(fileOStream, 1024);
-            
-            // Download file
-            while ((i = bufferedIStream.read(data, 0, 1024)) >= 0) {
-                totalDataRead += i;
-                bufferedOStream.write(data, 0, i);
-                progressPercentage = (totalDataRead / remoteSize) * 100;
-                for (DownloadProgressChangedEventListener evt : this.downloadProgressChangedEventHandlerList)
-                    evt.onDownloadProgressChanged(
-                            new DownloadProgressChangedEvent(this, dlSource, dlPath, progressPercentage, remoteSize, (long)totalDataRead));
-            }
-        } finally {
-            bufferedIStream.close();
-            fileOStream.close();
-            bufferedIStream.close();
-            for (DownloadFileCompletedEventListener evt : this.downloadFileCompletedEventHandlerList)
-                evt.onDownloadFileCompletedEvent(new DownloadFileCompletedEvent(this, dlPath, dlSource));
-        }
+    public MemoryBudget getMemoryBudget() { return memoryBudget; }
+    
+    /**
+     * Sets the budget which limits how far adaptive chunks may grow.
+     * The buffers of all downloads sharing the budget take up no more than its limit together,
+     * except for the initial buffer every download gets in any case.
+     * @param memoryBudget The memory budget. Must not be null.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setMemoryBudget(MemoryBudget memoryBudget) {
+        if (memoryBudget == null)
+            throw new IllegalArgumentException("memoryBudget must not be null!");
+        this.memoryBudget = memoryBudget;
     }
     
-    protected IOException m_downloadFileAsyncException = null;
     /**
-     * Downloads a file from the URL provided too the path provided.
-     * This methods runs asynchronously. 
-     * The events will still be fired.
-     * @throws IOException This exception is thrown if something goes wrong during the download.
+     * Gets and returns the amount of connections used to download a single file.
+     * @return The amount of segments a file is split into. Defaults to 1.
      * @author Beatsleigher
-     * @since 1-10-2014
+     * @since 17-10-2026
      * @version 1.0
      */
-    public void downloadFileAsync() throws IOException {
-        m_downloadFileAsyncException = null;
-        new Thread() {
-            @Override
-            public void run() {
-                HttpURLConnection httpConnect = null;
-                float totalDataRead;
-                BufferedInputStream bufferedIStream = null;
-                FileOutputStream fileOStream = null;
-                BufferedOutputStream bufferedOStream = null;
-                byte[] data = new byte[1024];
-                int i = 0;
-                float progressPercentage = 0;
-                long remoteSize = 0;
-
-                try {
-                    httpConnect = (HttpURLConnection)dlSource.openConnection();
-                    totalDataRead = 0;
-                    remoteSize = httpConnect.getContentLengthLong();
-
-                    bufferedIStream = new BufferedInputStream(httpConnect.getInputStream());
-                    fileOStream = new FileOutputStream(dlPath);
-                    bufferedOStream = new BufferedOutputStream(fileOStream, 1024);
-
-                    // Download file
-                    while ((i = bufferedIStream.read(data, 0, 1024)) >= 0) {
-                        totalDataRead += i;
-                        bufferedOStream.write(data, 0, i);
-                        progressPercentage = (totalDataRead / remoteSize) * 100;
-                        for (DownloadProgressChangedEventListener evt : downloadProgressChangedEventHandlerList)
-                            evt.onDownloadProgressChanged(
-                                    new DownloadProgressChangedEvent(this, dlSource, dlPath, progressPercentage, remoteSize, (long)totalDataRead));
-                    }
-                } catch (IOException ex) {
-                    m_downloadFileAsyncException = ex;
-                } finally {
-                    try {
-                        bufferedIStream.close();
-                        fileOStream.close();
-                        bufferedIStream.close();
-                    } catch (IOException ex) {}
-                    for (DownloadFileCompletedEventListener evt : downloadFileCompletedEventHandlerList)
-                        evt.onDownloadFileCompletedEvent(new DownloadFileCompletedEvent(this, dlPath, dlSource));
-                    interrupt();
-                }
-                interrupt();
-            }
-        }.start();
-        if (m_downloadFileAsyncException != null)
-            throw m_downloadFileAsyncException;
+    public int getSegmentCount() { return segmentCount; }
+    
+    /**
+     * Sets the amount of connections used to download a single file.
+     * 
+     * If this is greater than one, {@link #downloadFile()} asks the server whether it supports range requests.
+     * If it does, and the file is large enough, the file is split into this many byte ranges 
+     * which are downloaded in parallel and written straight to their offset in the file.
+     * Otherwise the file is downloaded over a single connection, as usual.
+     * @param segmentCount The amount of segments. Must be greater than zero.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setSegmentCount(int segmentCount) {
+        if (segmentCount <= 0)
+            throw new IllegalArgumentException("The segment count must be greater than zero!");
+        this.segmentCount = segmentCount;
     }
     
     /**
-     * Downloads and saves file from the provided {@link java.net.URL} to a {@link java.lang.String} object
-     * @throws IOException This exception is thrown if something goes wrong during the download.
+     * Gets and returns whether interrupted file downloads are continued where they left off.
+     * @return True if resuming is enabled. Defaults to false.
      * @author Beatsleigher
-     * @since 01-09-2014
+     * @since 17-10-2026
      * @version 1.0
      */
-    public void downloadString() throws IOException {
-        BufferedReader reader = null;
-        String line = null;
-        HttpURLConnection connection = null;
-        StringBuilder readData = new StringBuilder();
-        long remoteSize = 0;
-        
-        try {
-            connection = (HttpURLConnection)dlSource.openConnection();
-            reader = new BufferedReader(new InputStreamReader(dlSource.openStream()));
-            remoteSize = connection.getContentLengthLong();
-            
-            while ((line = reader.readLine()) != null) {
-                readData.append(String.format("{0}{1}", line, "\n"));
-                for (DownloadProgressChangedEventListener evt : this.downloadProgressChangedEventHandlerList)
-                    evt.onDownloadProgressChanged(
-                            new DownloadProgressChangedEvent(this, dlSource, null, (readData.toString().length() / remoteSize) * 100, 
-                                    remoteSize, (long)readData.toString().length()));
-            }
-            
-        } finally {
-            connection.disconnect();
-            connection = null;
-            reader.close();
-            reader = null;
-            downloadedString = readData.toString();
-            for (DownloadStringCompletedEventListener evt : this.downloadStringCompletedEventHandlerList)
-                evt.onDownloadStringCompleted(new DownloadStringCompletedEvent(this, dlSource, readData.toString()));
-            readData.delete(0, readData.toString().length());
-        }
+    public boolean isResumeEnabled() { return resumeEnabled; }
+    
+    /**
+     * Sets whether interrupted file downloads are continued where they left off.
+     * 
+     * If enabled, {@link #downloadFile()} keeps a small journal next to the download path 
+     * (<code>&lt;file&gt;.journal</code>), which records how many bytes have been written 
+     * and the <code>ETag</code>/<code>Last-Modified</code> of the remote file.
+     * When a failed download is restarted, only the missing bytes are requested. 
+     * If the remote file has changed since, the download starts from the beginning.
+     * The journal is deleted once the download has completed.
+     * 
+     * Resuming only applies to downloads over a single connection; segmented downloads always start over.
+     * @param resumeEnabled True to enable resuming.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setResumeEnabled(boolean resumeEnabled) { this.resumeEnabled = resumeEnabled; }
+    
+    /**
+     * Gets and returns the engine the asynchronous downloads of this client run on.
+     * @return The client's download engine, or the default engine if none was set.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public DownloadEngine getDownloadEngine() { return downloadEngine == null ? DownloadEngine.getDefault() : downloadEngine; }
+    
+    /**
+     * Sets the engine the asynchronous downloads of this client run on.
+     * Clients sharing an engine also share its limits on concurrent downloads.
+     * @param downloadEngine The engine to use, or null to use the default engine.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setDownloadEngine(DownloadEngine downloadEngine) { this.downloadEngine = downloadEngine; }
+    
+    /**
+     * Gets and returns the minimum time between two progress events of the same download.
+     * @return The interval in milliseconds. Defaults to {@link #DEFAULT_PROGRESS_INTERVAL}.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public long getProgressInterval() { return progressInterval; }
+    
+    /**
+     * Sets the minimum time between two progress events of the same download.
+     * 
+     * A progress event is fired when either this interval has passed, or the progress has grown by the {@link #getProgressStep() step}.
+     * The final progress of a download is always reported.
+     * If both the interval and the step are zero, an event is fired for every chunk.
+     * @param progressInterval The interval in milliseconds, or zero to only use the step.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setProgressInterval(long progressInterval) {
+        if (progressInterval < 0)
+            throw new IllegalArgumentException("The progress interval must not be negative!");
+        this.progressInterval = progressInterval;
     }
     
-    protected IOException m_downloadStringAsyncException = null;
     /**
-     * Downloads a String from the Internet asynchronously via the provided {@link java.net.URL}.
-     * @throws IOException This is exception is thrown if something goes wrong during the download.
+     * Gets and returns the minimum progress between two progress events of the same download.
+     * @return The step in percent. Defaults to zero.
      * @author Beatsleigher
-     * @since 01-09-2014
+     * @since 17-10-2026
      * @version 1.0
      */
-    public void downloadStringAsync() throws IOException {
-        this.m_downloadStringAsyncException = null;
-        new Thread() {
-            @Override
-            public void run() {
-                BufferedReader reader = null;
-                String line = null;
-                HttpURLConnection connection = null;
-                StringBuilder readData = new StringBuilder();
-                long remoteSize = 0;
-
-                try {
-                    connection = (HttpURLConnection)dlSource.openConnection();
-                    reader = new BufferedReader(new InputStreamReader(dlSource.openStream()));
-                    remoteSize = connection.getContentLengthLong();
-
-                    while ((line = reader.readLine()) != null) {
-                        readData.append(String.format("{0}{1}", line, "\n"));
-                        for (DownloadProgressChangedEventListener evt : downloadProgressChangedEventHandlerList)
-                            evt.onDownloadProgressChanged(
-                                    new DownloadProgressChangedEvent(this, dlSource, null, (readData.toString().length() / remoteSize) * 100, 
-                                            remoteSize, (long)readData.toString().length()));
-                    }
-
-                } catch (IOException ex) {
-                    m_downloadStringAsyncException = ex;
-                } finally {
-                    try {
-                        connection.disconnect();
-                        connection = null;
-                        reader.close();
-                        reader = null;
-                    } catch (IOException ex) {}
-                    downloadedString = readData.toString();
-                    for (DownloadStringCompletedEventListener evt : downloadStringCompletedEventHandlerList)
-                        evt.onDownloadStringCompleted(new DownloadStringCompletedEvent(this, dlSource, readData.toString()));
-                    readData.delete(0, readData.toString().length());
-                    interrupt();
-                }
-                interrupt();
-            }
-        }.start();
-        if (m_downloadStringAsyncException != null)
-            throw m_downloadStringAsyncException;
+    public float getProgressStep() { return progressStep; }
+    
+    /**
+     * Sets the minimum progress between two progress events of the same download.
+     * The step is ignored if the size of the remote file is unknown.
+     * @param progressStep The step in percent, or zero to only use the {@link #getProgressInterval() interval}.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setProgressStep(float progressStep) {
+        if (progressStep < 0)
+            throw new IllegalArgumentException("The progress step must not be negative!");
+        this.progressStep = progressStep;
     }
     
+    /**
+     * Gets and returns whether progress events are fired on a separate thread.
+     * @return True if progress events are fired asynchronously. Defaults to false.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public boolean isAsyncProgressEvents() { return asyncProgressEvents; }
+    
+    /**
+     * Sets whether progress events are fired on a separate thread.
+     * 
+     * If enabled, the download never waits for the progress listeners. 
+     * If the listeners can't keep up, intermediate progress is skipped and only the latest progress is reported.
+     * Note that the last progress event may then arrive after the completion event.
+     * @param asyncProgressEvents True to fire progress events asynchronously.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setAsyncProgressEvents(boolean asyncProgressEvents) { this.asyncProgressEvents = asyncProgressEvents; }
+    
+    /**
+     * Gets and returns whether {@link #downloadData()} takes its scratch buffers from the shared {@link BufferPool}.
+     * @return True if scratch buffers are pooled. Defaults to true.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public boolean isPooledDataBuffers() { return pooledDataBuffers; }
+    
+    /**
+     * Sets whether {@link #downloadData()} takes its scratch buffers from the shared {@link BufferPool}.
+     * 
+     * Scratch buffers are only needed if the server doesn't send a <code>Content-Length</code>;
+     * otherwise the data is read straight into an array of the right size.
+     * @param pooledDataBuffers True to pool scratch buffers.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setPooledDataBuffers(boolean pooledDataBuffers) { this.pooledDataBuffers = pooledDataBuffers; }
+    
+    /**
+     * Gets and returns the cache downloads are served from and stored in.
+     * @return The client's cache, or null if downloads are not cached. Defaults to null.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public DownloadCache getDownloadCache() { return downloadCache; }
+    
+    /**
+     * Sets the cache downloads are served from and stored in.
+     * 
+     * Before downloading, the cache is asked for a fresh copy of the response; if there is one, no request is made.
+     * A stale copy is revalidated with the server, and only downloaded again if it has changed.
+     * Progress and completion events are fired as usual for responses served from the cache.
+     * 
+     * Files downloaded over several {@link #getSegmentCount() segments}, or continued from an earlier attempt,
+     * are served from the cache, but are not stored in it.
+     * Several clients may share one cache.
+     * @param downloadCache The cache to use, or null to not cache downloads.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setDownloadCache(DownloadCache downloadCache) { this.downloadCache = downloadCache; }
+    
+    /**
+     * Gets and returns whether the server is asked to compress its responses.
+     * @return True if compression is negotiated. Defaults to true.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public boolean isCompressionEnabled() { return compressionEnabled; }
+    
+    /**
+     * Sets whether the server is asked to compress its responses.
+     * 
+     * If enabled, requests carry <code>Accept-Encoding: gzip, deflate</code>, 
+     * and compressed responses are decompressed while they are read; the downloaded file, string or data is always the decoded content.
+     * Progress events then report the bytes received in {@link DownloadProgressChangedEvent#getWireSize()}
+     * and the decoded bytes in {@link DownloadProgressChangedEvent#getFileSize()}.
+     * 
+     * Range requests are never compressed, so segmented and {@link #isResumeEnabled() resumable} file downloads are not affected.
+     * @param compressionEnabled True to negotiate compression.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setCompressionEnabled(boolean compressionEnabled) { this.compressionEnabled = compressionEnabled; }
+    
+    /**
+     * Gets and returns the transport this client's requests are sent through.
+     * @return The client's transport, or the default {@link ConnectionManager} if none was set.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public Transport getTransport() { return transport == null ? ConnectionManager.getDefault() : transport; }
+    
+    /**
+     * Sets the transport this client's requests are sent through.
+     * 
+     * By default, requests are sent over HTTP/1.1 connections taken from the {@link ConnectionManager#getDefault() default connection manager}.
+     * A {@link ConnectionManager} of its own gives the client its own limits on connections per host;
+     * a {@link HttpClientTransport} lets it multiplex its requests over HTTP/2.
+     * Clients sharing a transport share its connections.
+     * @param transport The transport to use, or null to use the default connection manager.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setTransport(Transport transport) { this.transport = transport; }
+    
+    /**
+     * Gets and returns how downloaded files of known size are written to the disk.
+     * @return The output mode. {@link OutputMode#CHANNEL} by default.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public OutputMode getOutputMode() { return outputMode; }
+    
+    /**
+     * Sets how downloaded files of known size are written to the disk.
+     * 
+     * With {@link OutputMode#PREALLOCATED} and {@link OutputMode#MAPPED}, the file is set to its final size
+     * before the download starts, so it can be read while it is being written.
+     * Segmented downloads always know the size of the file, and benefit the most.
+     * @param outputMode The output mode.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setOutputMode(OutputMode outputMode) {
+        if (outputMode == null)
+            throw new IllegalArgumentException("Output mode must not be null!");
+        this.outputMode = outputMode;
+    }
+    
+    /**
+     * Gets and returns the registry this client's downloads are measured in.
+     * @return The client's registry, or the default registry if none was set.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public DownloadMetrics getDownloadMetrics() { return downloadMetrics == null ? DownloadMetrics.getDefault() : downloadMetrics; }
+    
+    /**
+     * Sets the registry this client's downloads are measured in.
+     * 
+     * Every download records its connect time, time to first byte, duration, throughput and errors there,
+     * per host and for all hosts together.
+     * @param downloadMetrics The registry to use, or null to use the default registry.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setDownloadMetrics(DownloadMetrics downloadMetrics) { this.downloadMetrics = downloadMetrics; }
+    
+    /**
+     * Gets and returns the limiter this client's downloads are held to.
+     * @return The client's rate limiter, or null if only the global one applies.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public RateLimiter getRateLimiter() { return rateLimiter; }
+    
+    /**
+     * Sets the limiter this client's downloads are held to.
+     * 
+     * All downloads are held to the {@link RateLimiter#getGlobal() global limiter}; this one applies on top of it.
+     * Clients sharing a limiter share its rate, and so do the segments of a segmented download.
+     * The rate of a limiter can be changed while downloads are running; a new limiter only applies to new downloads.
+     * @param rateLimiter The rate limiter, or null to apply only the global one.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setRateLimiter(RateLimiter rateLimiter) { this.rateLimiter = rateLimiter; }
+    
+    /**
+     * Gets and returns the policy deciding whether failed downloads are tried again.
+     * @return The retry policy. {@link RetryPolicy#NONE} by default.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public RetryPolicy getRetryPolicy() { return retryPolicy; }
+    
+    /**
+     * Sets the policy deciding whether failed downloads are tried again.
+     * 
+     * A file download which fails part way is retried from where it left off, as with {@link #setResumeEnabled(boolean) resume}
+     * (so, like resumable downloads, it isn't compressed); each segment of a segmented download is retried on its own.
+     * Strings and data are downloaded anew. The completion events are fired once, after the last attempt.
+     * If the policy hedges requests, downloads which don't start from the cache or from a previous attempt may send a second
+     * request when the first one is slow to answer, and read the response which arrives first.
+     * @param retryPolicy The new retry policy.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        if (retryPolicy == null)
+            throw new IllegalArgumentException("retryPolicy must not be null!");
+        this.retryPolicy = retryPolicy;
+    }
+    
+    /**
+     * Gets and returns the algorithm downloaded files are digested with.
+     * @return The digest algorithm, or null if files aren't digested.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public DigestAlgorithm getDigestAlgorithm() { return digestAlgorithm; }
+    
+    /**
+     * Sets the algorithm downloaded files are digested with.
+     * 
+     * The digest is computed from the chunks as they're written, so the file needn't be read again after the download;
+     * only the part written by an earlier attempt of a resumed download is read back, and segmented downloads
+     * (whose chunks don't arrive in order) are digested in a single pass over the finished file.
+     * The digest is checked against the {@link #setExpectedDigest(String) expected digest}, and against the
+     * <code>Digest</code> (or, for MD5, <code>Content-MD5</code>) header of an uncompressed response, before the
+     * completion event is fired. A mismatch fails the download with a {@link DigestMismatchException}.
+     * The digest is available from {@link #getDownloadDigest()}, also to the listeners of the completion event.
+     * @param digestAlgorithm The digest algorithm, or null to not digest files.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setDigestAlgorithm(DigestAlgorithm digestAlgorithm) { this.digestAlgorithm = digestAlgorithm; }
+    
+    /**
+     * Gets and returns the digest the downloaded file is expected to have.
+     * @return The expected digest, or null.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public String getExpectedDigest() { return expectedDigest; }
+    
+    /**
+     * Sets the digest the downloaded file is expected to have, e.g. as published next to the file.
+     * Only checked if a {@link #setDigestAlgorithm(DigestAlgorithm) digest algorithm} is set.
+     * @param expectedDigest The expected digest, in hexadecimal digits or base64, or null to only check what the server sends.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setExpectedDigest(String expectedDigest) { this.expectedDigest = expectedDigest; }
+    
+    /**
+     * Gets and returns the digest of the last downloaded file.
+     * @return The digest, or null if no file has been downloaded with a digest algorithm set, or the download failed.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public DownloadDigest getDownloadDigest() { return downloadDigest; }
+    
+    /**
+     * Gets and returns whether files are downloaded to a part file first.
+     * @return True if the download path is only ever replaced by a complete file.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public boolean isAtomicOutput() { return atomicOutput; }
+    
+    /**
+     * Sets whether files are downloaded to a part file first.
+     * 
+     * If enabled, {@link #downloadFile()} writes to <code>&lt;file&gt;.part</code> in the same directory,
+     * and atomically moves it over the download path once it's complete (and verified, if a 
+     * {@link #setDigestAlgorithm(DigestAlgorithm) digest algorithm} is set). Readers of the download path see
+     * either the old file or the new one, never a partial one, and a crash leaves the download path untouched.
+     * Resumable downloads continue the part file. If a download fails and isn't resumable, the part file is deleted.
+     * @param atomicOutput True to download to a part file first.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setAtomicOutput(boolean atomicOutput) { this.atomicOutput = atomicOutput; }
+    
+    /**
+     * Gets and returns when downloaded files are forced to the disk.
+     * @return The fsync policy. {@link FsyncPolicy#NONE} by default.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public FsyncPolicy getFsyncPolicy() { return fsyncPolicy; }
+    
+    /**
+     * Sets when downloaded files are forced to the disk.
+     * With {@link #isAtomicOutput() atomic output}, a policy which forces the file on completion
+     * forces it before it's moved into place, and the directory after it was moved, so the new file survives a crash.
+     * @param fsyncPolicy The new fsync policy.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+        if (fsyncPolicy == null)
+            throw new IllegalArgumentException("fsyncPolicy must not be null!");
+        this.fsyncPolicy = fsyncPolicy;
+    }
+    
+    /**
+     * Gets and returns the coordinator which merges concurrent downloads of the same thing.
+     * @return The coordinator, or null if every download sends its own request (the default).
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public SingleFlight getSingleFlight() { return singleFlight; }
+    
+    /**
+     * Sets the coordinator which merges concurrent downloads of the same thing.
+     * 
+     * While a client sharing the coordinator downloads the same kind of thing (a file, a string or data) from the same URL,
+     * {@link #downloadFile()}, {@link #downloadString()} and {@link #downloadData()} wait for that download to finish
+     * instead of sending a request of their own, and take its result. Downloaded files are copied (or linked) to 
+     * this client's download path. Progress and completion events are fired as usual, and an error of the shared 
+     * download is thrown as well. Downloads with different digest settings are never merged.
+     * The request headers don't matter, as they only decide how the response is encoded, not what it holds.
+     * @param singleFlight The coordinator, e.g. {@link SingleFlight#getDefault()}, or null to disable merging.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void setSingleFlight(SingleFlight singleFlight) { this.singleFlight = singleFlight; }
+    //</editor-fold>
+    
+    //<editor-fold defaultstate="collapsed" desc="Event Processing Methods">
+    /**
+     * Registers a listener which is notified when the progress of a download has changed.
+     * 
+     * Listeners may be added and removed at any time, from any thread, even while a download is running;
+     * a download which is already firing an event delivers it to the listeners which were registered when it started to.
+     * As long as no listener is registered, the downloads don't create any progress events at all.
+     * @param listener The listener to add. The same listener may be added more than once, and is notified once per registration.
+     * @author Beatsleigher
+     * @since 30-09-2014
+     * @version 2.0
+     */
+    public void addDownloadProgressChangedEventListener(DownloadProgressChangedEventListener listener) {
+        addDownloadProgressChangedEventListener(listener, null);
+    }
+    
+    /**
+     * Registers a listener which is only notified of the progress events the given filter accepts.
+     * 
+     * With {@link EventFilter#FINAL_PROGRESS}, the listener is only told about the last event of every download, 
+     * and as long as all listeners are filtered like that, the intermediate progress isn't dispatched at all.
+     * @param listener The listener to add.
+     * @param filter The filter the events must pass, or null to pass all of them.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void addDownloadProgressChangedEventListener(DownloadProgressChangedEventListener listener, EventFilter<? super DownloadProgressChangedEvent> filter) {
+        downloadProgressChangedEventListeners.add(listener, filter);
+    }
+    
+    /**
+     * Removes a listener which was added with {@link #addDownloadProgressChangedEventListener(DownloadProgressChangedEventListener)}.
+     * @param listener The listener to remove. If it was added more than once, only one registration is removed.
+     * @return True if the listener was registered.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public boolean removeDownloadProgressChangedEventListener(DownloadProgressChangedEventListener listener) {
+        return downloadProgressChangedEventListeners.remove(listener);
+    }
+    
+    /**
+     * Registers a listener which is notified when a file download has completed, successfully or not.
+     * @param listener The listener to add.
+     * @author Beatsleigher
+     * @since 30-09-2014
+     * @version 2.0
+     */
+    public void addDownloadFileCompletedEventListener(DownloadFileCompletedEventListener listener) {
+        addDownloadFileCompletedEventListener(listener, null);
+    }
+    
+    /**
+     * Registers a listener which is only notified of the file download events the given filter accepts.
+     * @param listener The listener to add.
+     * @param filter The filter the events must pass, or null to pass all of them.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void addDownloadFileCompletedEventListener(DownloadFileCompletedEventListener listener, EventFilter<? super DownloadFileCompletedEvent> filter) {
+        downloadFileCompletedEventListeners.add(listener, filter);
+    }
+    
+    /**
+     * Removes a listener which was added with {@link #addDownloadFileCompletedEventListener(DownloadFileCompletedEventListener)}.
+     * @param listener The listener to remove. If it was added more than once, only one registration is removed.
+     * @return True if the listener was registered.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public boolean removeDownloadFileCompletedEventListener(DownloadFileCompletedEventListener listener) {
+        return downloadFileCompletedEventListeners.remove(listener);
+    }
+    
+    /**
+     * Registers a listener which is notified when a string download has completed, successfully or not.
+     * @param listener The listener to add.
+     * @author Beatsleigher
+     * @since 30-09-2014
+     * @version 2.0
+     */
+    public void addDownloadStringCompletedEventHandler(DownloadStringCompletedEventListener listener) {
+        addDownloadStringCompletedEventHandler(listener, null);
+    }
+    
+    /**
+     * Registers a listener which is only notified of the string download events the given filter accepts.
+     * @param listener The listener to add.
+     * @param filter The filter the events must pass, or null to pass all of them.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void addDownloadStringCompletedEventHandler(DownloadStringCompletedEventListener listener, EventFilter<? super DownloadStringCompletedEvent> filter) {
+        downloadStringCompletedEventListeners.add(listener, filter);
+    }
+    
+    /**
+     * Removes a listener which was added with {@link #addDownloadStringCompletedEventHandler(DownloadStringCompletedEventListener)}.
+     * @param listener The listener to remove. If it was added more than once, only one registration is removed.
+     * @return True if the listener was registered.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public boolean removeDownloadStringCompletedEventHandler(DownloadStringCompletedEventListener listener) {
+        return downloadStringCompletedEventListeners.remove(listener);
+    }
+    
+    /**
+     * Registers a listener which is notified when a data download has completed, successfully or not.
+     * @param listener The listener to add.
+     * @author Beatsleigher
+     * @since 30-09-2014
+     * @version 2.0
+     */
+    public void addDownloadDataCompletedEventHandler(DownloadDataCompletedEventListener listener) {
+        addDownloadDataCompletedEventHandler(listener, null);
+    }
+    
+    /**
+     * Registers a listener which is only notified of the data download events the given filter accepts.
+     * @param listener The listener to add.
+     * @param filter The filter the events must pass, or null to pass all of them.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public void addDownloadDataCompletedEventHandler(DownloadDataCompletedEventListener listener, EventFilter<? super DownloadDataCompletedEvent> filter) {
+        downloadDataCompletedEventListeners.add(listener, filter);
+    }
+    
+    /**
+     * Removes a listener which was added with {@link #addDownloadDataCompletedEventHandler(DownloadDataCompletedEventListener)}.
+     * @param listener The listener to remove. If it was added more than once, only one registration is removed.
+     * @return True if the listener was registered.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public boolean removeDownloadDataCompletedEventHandler(DownloadDataCompletedEventListener listener) {
+        return downloadDataCompletedEventListeners.remove(listener);
+    }
+    
+    /**
+     * Left over from when the listeners had to be registered by a subclass. Does nothing.
+     * @deprecated Use {@link #addDownloadProgressChangedEventListener(DownloadProgressChangedEventListener)}.
+     */
+    @Deprecated
+    public void addDownloadProgressChangedEventListener() {}
+    
+    /**
+     * Left over from when the listeners had to be registered by a subclass. Does nothing.
+     * @deprecated Use {@link #addDownloadFileCompletedEventListener(DownloadFileCompletedEventListener)}.
+     */
+    @Deprecated
+    public void addDownloadFileCompletedEventListener() {}
+    
+    /**
+     * Left over from when the listeners had to be registered by a subclass. Does nothing.
+     * @deprecated Use {@link #addDownloadStringCompletedEventHandler(DownloadStringCompletedEventListener)}.
+     */
+    @Deprecated
+    public void addDownloadStringCompletedEventHandler() {}
+    
+    /**
+     * Left over from when the listeners had to be registered by a subclass. Does nothing.
+     * @deprecated Use {@link #addDownloadDataCompletedEventHandler(DownloadDataCompletedEventListener)}.
+     */
+    @Deprecated
+    public void addDownloadDataCompletedEventHandler() {}
+    
+    /**
+     * Gets and returns the list of listeners which are notified when the progress of a download has changed.
+     * Listeners added to or removed from the list (by position, or through its iterators) are added to or removed from the client;
+     * its iterators don't see later changes.
+     * @return A modifiable view of the progress listeners.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.2
+     * @deprecated Use {@link #addDownloadProgressChangedEventListener(DownloadProgressChangedEventListener)} 
+     * and {@link #removeDownloadProgressChangedEventListener(DownloadProgressChangedEventListener)}.
+     */
+    @Deprecated
+    protected List<DownloadProgressChangedEventListener> getDownloadProgressChangedEventHandlerList() { return downloadProgressChangedEventListeners.asList(); }
+    
+    /**
+     * Gets and returns the list of listeners which are notified when a file download has completed.
+     * Listeners added to or removed from the list (by position, or through its iterators) are added to or removed from the client;
+     * its iterators don't see later changes.
+     * @return A modifiable view of the file download listeners.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.2
+     * @deprecated Use {@link #addDownloadFileCompletedEventListener(DownloadFileCompletedEventListener)} 
+     * and {@link #removeDownloadFileCompletedEventListener(DownloadFileCompletedEventListener)}.
+     */
+    @Deprecated
+    protected List<DownloadFileCompletedEventListener> getDownloadFileCompletedEventHandlerList() { return downloadFileCompletedEventListeners.asList(); }
+    
+    /**
+     * Gets and returns the list of listeners which are notified when a string download has completed.
+     * Listeners added to or removed from the list (by position, or through its iterators) are added to or removed from the client;
+     * its iterators don't see later changes.
+     * @return A modifiable view of the string download listeners.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.2
+     * @deprecated Use {@link #addDownloadStringCompletedEventHandler(DownloadStringCompletedEventListener)} 
+     * and {@link #removeDownloadStringCompletedEventHandler(DownloadStringCompletedEventListener)}.
+     */
+    @Deprecated
+    protected List<DownloadStringCompletedEventListener> getDownloadStringCompletedEventHandlerList() { return downloadStringCompletedEventListeners.asList(); }
+    
+    /**
+     * Gets and returns the list of listeners which are notified when a data download has completed.
+     * Listeners added to or removed from the list (by position, or through its iterators) are added to or removed from the client;
+     * its iterators don't see later changes.
+     * @return A modifiable view of the data download listeners.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.2
+     * @deprecated Use {@link #addDownloadDataCompletedEventHandler(DownloadDataCompletedEventListener)} 
+     * and {@link #removeDownloadDataCompletedEventHandler(DownloadDataCompletedEventListener)}.
+     */
+    @Deprecated
+    protected List<DownloadDataCompletedEventListener> getDownloadDataCompletedEventHandlerList() { return downloadDataCompletedEventListeners.asList(); }
+    //</editor-fold>
+    
+    /**
+     * Downloads a file from the URL provided in the constructor 
+     * and saves it to the location provided in the constructor on to the local computer.
+     * 
+     * The response is read into a pooled direct buffer, in chunks which {@link #isAdaptiveChunkSize() adapt} to the throughput,
+     * and written to the file through a {@link FileChannel}.
+     * If {@link #getSegmentCount()} is greater than one, the file may be downloaded over several connections at once.
+     * If {@link #isResumeEnabled()} is true, a previously failed download is continued where it left off.
+     * If a {@link #getDownloadCache() cache} is set, the file may be copied from there instead.
+     * If the size of the file is known up front, it is written according to the {@link #getOutputMode() output mode}.
+     * Failed attempts are retried according to the {@link #getRetryPolicy() retry policy}.
+     * If a {@link #getDigestAlgorithm() digest algorithm} is set, the file is digested and verified along the way.
+     * If {@link #isAtomicOutput() atomic output} is enabled, the file is written next to the download path and moved into place at the end.
+     * If a {@link #getSingleFlight() coordinator} is set and the same file is already being downloaded, that download is shared.
+     * @throws java.io.IOException This exception is thrown if something goes wrong during the download.
+     * @author Beatsleigher
+     * @since 30-09-2014
+     * @version 1.11
+     */
+    public void downloadFile() throws IOException {
+        downloadDigest = null;
+        final Flight<SharedFile> flight = joinFlight("file");
+        if (flight != null && !flight.lead()) {
+            try {
+                followFile(flight);
+            } finally {
+                fireDownloadFileCompleted();
+            }
+            return;
+        }
+        
+        final DownloadTimer timer = getDownloadMetrics().start(dlSource);
+        // Retries continue where the failed attempt left off, which takes a journal even if resume is disabled
+        final DownloadJournal journal = resumeEnabled || retryPolicy.isRetrying() ? new DownloadJournal(getWorkPath()) : null;
+        leadingFlight = flight;
+        try {
+            CachedResponse cached = downloadCache == null ? null : downloadCache.getFresh(dlSource);
+            if (cached != null) {
+                copyFromCache(cached);
+                timer.discard();
+                return;
+            }
+            
+            if (segmentCount > 1) {
+                final SegmentedDownload segmented = new SegmentedDownload(this, dlSource, dlPath, segmentCount);
+                long remoteSize = withRetries(timer, new Callable<Long>() {
+                    @Override
+                    public Long call() throws IOException {
+                        return segmented.probeRangeSupport(getTransport());
+                    }
+                });
+                if (remoteSize >= segmentCount * SegmentedDownload.MIN_SEGMENT_SIZE) {
+                    // Every segment is retried on its own
+                    long transferred = segmented.download(remoteSize, timer);
+                    commitOutput();
+                    timer.succeeded(transferred);
+                    return;
+                }
+            }
+            
+            // Without resume, a journal left behind by an earlier download must not be picked up
+            if (journal != null && !resumeEnabled)
+                journal.delete();
+            withRetries(timer, new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    downloadFileStream(journal, timer);
+                    return null;
+                }
+            });
+        } catch (IOException | RuntimeException ex) {
+            timer.failed(ex);
+            if (flight != null)
+                flight.fail(ex);
+            if (!resumeEnabled) {
+                if (journal != null)
+                    deleteQuietly(journal);
+                // Nothing will pick it up again
+                if (atomicOutput)
+                    getWorkPath().delete();
+            }
+            throw ex;
+        } finally {
+            leadingFlight = null;
+            // Unless it has already failed
+            if (flight != null)
+                flight.complete(new SharedFile(dlPath, downloadDigest));
+            fireDownloadFileCompleted();
+        }
+    }
+    
+    /**
+     * Notifies the file download listeners that {@link #downloadFile()} has finished.
+     * No event is created if nobody is listening.
+     */
+    private void fireDownloadFileCompleted() {
+        if (downloadFileCompletedEventListeners.hasListeners())
+            downloadFileCompletedEventListeners.fire(new DownloadFileCompletedEvent(this, dlPath, dlSource));
+    }
+
+    /**
+     * Takes the file of a download this client follows, once it has landed.
+     * The file is linked or copied to the work path, and committed like a download of our own.
+     * @param flight The flight to follow.
+     * @throws IOException If the shared download failed, or the file could not be copied.
+     */
+    private void followFile(Flight<SharedFile> flight) throws IOException {
+        FlightProgress progress = new FlightProgress(this, dlPath);
+        flight.addObserver(progress);
+        SharedFile shared = flight.await();
+        
+        Path source = shared.path.toPath();
+        if (!dlPath.exists() || !Files.isSameFile(source, dlPath.toPath())) {
+            Path workPath = getWorkPath().toPath();
+            Files.deleteIfExists(workPath);
+            if (!singleFlight.isLinkingFiles() || !createLink(workPath, source))
+                Files.copy(source, workPath);
+            if (fsyncPolicy.isSyncOnCompletion()) {
+                try (FileChannel channel = FileChannel.open(workPath, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+            }
+            commitOutput();
+        }
+        downloadDigest = shared.digest;
+        progress.finish();
+    }
+    
+    private static boolean createLink(Path link, Path existing) {
+        try {
+            Files.createLink(link, existing);
+            return true;
+        } catch (IOException | UnsupportedOperationException ex) {
+            // E.g. across file systems, or on a file system without hard links
+            return false;
+        }
+    }
+    
+    /**
+     * Joins the flight of the given kind of download from the download source, if a {@link #getSingleFlight() coordinator} is set.
+     * @param <T> The type of the result of the download.
+     * @param kind The kind of download.
+     * @return The flight, or null if downloads aren't merged.
+     */
+    private <T> Flight<T> joinFlight(String kind) {
+        if (singleFlight == null)
+            return null;
+        StringBuilder key = new StringBuilder(kind).append(' ').append(dlSource.toExternalForm());
+        // The leader verifies its download against its own digest settings
+        if (digestAlgorithm != null)
+            key.append(' ').append(digestAlgorithm.getName()).append(' ').append(expectedDigest);
+        return singleFlight.join(key.toString());
+    }
+    
+    /**
+     * Runs a download which may lead a flight, and lands the flight with its result.
+     * @param <T> The type of the result of the download.
+     * @param flight The flight to lead, or null.
+     * @param timer The timer measuring the download.
+     * @param attempt A single attempt at the download.
+     * @return The result of the download.
+     * @throws IOException If the download failed.
+     */
+    private <T> T lead(Flight<T> flight, DownloadTimer timer, Callable<T> attempt) throws IOException {
+        if (flight == null)
+            return withRetries(timer, attempt);
+        leadingFlight = flight;
+        try {
+            T result = withRetries(timer, attempt);
+            flight.complete(result);
+            return result;
+        } catch (IOException | RuntimeException ex) {
+            flight.fail(ex);
+            throw ex;
+        } finally {
+            leadingFlight = null;
+        }
+    }
+    
+    /**
+     * Waits for the result of a download this client follows, and fires the final progress event.
+     * @param <T> The type of the result of the download.
+     * @param flight The flight to follow.
+     * @return The result of the download.
+     * @throws IOException If the shared download failed.
+     */
+    private <T> T follow(Flight<T> flight) throws IOException {
+        FlightProgress progress = new FlightProgress(this, null);
+        flight.addObserver(progress);
+        T result = flight.await();
+        progress.finish();
+        return result;
+    }
+    
+    private static void deleteQuietly(DownloadJournal journal) {
+        try {
+            journal.delete();
+        } catch (IOException ex) {
+            // The download failed anyway, and that exception is more important
+        }
+    }
+    
+    /**
+     * Runs a download, and runs it again for as long as it fails and the {@link #getRetryPolicy() retry policy} allows.
+     * @param <T> The type of the result of the download.
+     * @param timer The timer measuring the download. Every retry is recorded with it.
+     * @param attempt A single attempt at the download.
+     * @return The result of the first successful attempt.
+     * @throws IOException The exception of the last attempt, if no attempt succeeded.
+     */
+    <T> T withRetries(DownloadTimer timer, Callable<T> attempt) throws IOException {
+        long startTime = System.nanoTime();
+        for (int failedAttempts = 1; ; failedAttempts++) {
+            try {
+                return attempt.call();
+            } catch (IOException ex) {
+                long delay = retryPolicy.getRetryDelay(ex, failedAttempts, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+                if (delay < 0)
+                    throw ex;
+                timer.retried();
+                RetryPolicy.pause(delay);
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new IOException(ex);
+            }
+        }
+    }
+    
+    /**
+     * Opens an exchange for a download which starts from scratch.
+     * If the {@link #getRetryPolicy() retry policy} asks for it and no cache is involved, the request is hedged.
+     * @param compressed Whether to ask the server to compress the response.
+     * @return The exchange. The request may already have been sent.
+     * @throws IOException If the exchange could not be opened, or a hedged request failed.
+     */
+    Exchange openExchange(boolean compressed) throws IOException {
+        long hedgeDelay = downloadCache == null ? HedgedRequest.getHedgeDelay(getDownloadMetrics(), dlSource, retryPolicy) : -1;
+        if (hedgeDelay >= 0)
+            return new HedgedRequest(this, dlSource, compressed).send(hedgeDelay);
+        
+        Exchange exchange = getTransport().open(dlSource);
+        if (compressed)
+            requestCompression(exchange);
+        return exchange;
+    }
+    
+    /**
+     * Downloads the file over a single connection.
+     * If a journal is given, the download continues where a previous attempt left off, if possible.
+     * @param journal The journal of the download, or null if the download is not resumable.
+     * @param timer The timer measuring the download.
+     * @throws IOException If something goes wrong during the download.
+     */
+    private void downloadFileStream(DownloadJournal journal, DownloadTimer timer) throws IOException {
+        File workPath = getWorkPath();
+        long offset = journal == null ? 0 : journal.getResumeOffset(dlSource, workPath);
+        long remoteSize = 0;
+        // The journal counts decoded bytes, which a range request on the compressed response couldn't be based on
+        Exchange exchange = offset == 0 ? openExchange(journal == null) : getTransport().open(dlSource);
+        ProgressDispatcher progress;
+        
+        try {
+            if (offset == 0 && downloadCache != null) {
+                CachedResponse cached = downloadCache.revalidate(dlSource, exchange);
+                if (cached != null) {
+                    exchange.release();
+                    copyFromCache(cached);
+                    timer.discard();
+                    if (journal != null)
+                        journal.delete();
+                    return;
+                }
+            }
+            
+            if (offset > 0) {
+                journal.addResumeHeaders(exchange, offset);
+                if (exchange.getResponseCode() == 416 && journal.getRemoteSize() == offset) {
+                    // The previous attempt got everything, it just didn't live to clean up
+                    exchange.releaseUnread();
+                    if (digestAlgorithm != null)
+                        verifyFile(workPath, null);
+                    commitOutput();
+                    journal.delete();
+                    timer.succeeded(0);
+                    return;
+                }
+                if (!journal.isResumedAt(exchange, offset)) {
+                    if (exchange.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                        // Whatever the server didn't like about the range, the plain request will tell
+                        exchange.releaseUnread();
+                        journal.delete();
+                        downloadFileStream(journal, timer);
+                        return;
+                    }
+                    // The remote file has changed; the server sent all of it
+                    offset = 0;
+                }
+            }
+            
+            remoteSize = exchange.getContentLength();
+            if (offset > 0 && remoteSize >= 0)
+                remoteSize += offset;
+            
+            // The size of a compressed response is only known once it's been decoded
+            boolean sizeKnown = remoteSize > 0 && exchange.getContentEncoding() == null;
+            boolean preallocated = sizeKnown && outputMode != OutputMode.CHANNEL;
+            boolean mapped = preallocated && outputMode == OutputMode.MAPPED;
+            Digester digester = digestAlgorithm == null ? null : digestAlgorithm.newDigester();
+            FileSync fileSync = new FileSync(fsyncPolicy, journal, offset);
+            timer.connected(exchange.getConnectTime());
+            progress = createProgressDispatcher(dlPath, remoteSize, offset, timer);
+            try (ReadableByteChannel inChannel = Channels.newChannel(openResponseBody(exchange, progress));
+                 FileChannel outChannel = openOutputChannel(mapped || (digester != null && offset > 0))) {
+                outChannel.truncate(offset);
+                if (journal != null)
+                    journal.begin(dlSource, exchange, offset, remoteSize);
+                if (preallocated)
+                    preallocate(outChannel, remoteSize);
+                try {
+                    // What an earlier attempt wrote has to be digested first
+                    if (digester != null && offset > 0)
+                        digester.update(outChannel, 0, offset);
+                    transferToFile(inChannel, outChannel, offset, progress, fileSync, digester, mapped);
+                    // HttpURLConnection reports a connection closed too early as the end of the body
+                    if (sizeKnown && progress.getTotalDataRead() < remoteSize)
+                        throw new EOFException(String.format("Download of %s ended after %d of %d bytes!", 
+                                dlSource, progress.getTotalDataRead(), remoteSize));
+                    if (digester != null)
+                        verifyDigest(digester.finish(), exchange);
+                    fileSync.finish(outChannel);
+                } finally {
+                    // Whatever didn't arrive must not look like part of the file
+                    if (preallocated && outChannel.isOpen() && outChannel.size() > progress.getTotalDataRead())
+                        outChannel.truncate(progress.getTotalDataRead());
+                }
+                // The download has only succeeded once the file is committed
+                progress.fireFinal();
+            } catch (DigestMismatchException ex) {
+                // Resuming would only keep the damage
+                if (journal != null)
+                    journal.delete();
+                throw ex;
+            } catch (IOException ex) {
+                if (journal != null)
+                    journal.interrupted(workPath.length());
+                throw ex;
+            }
+            exchange.release();
+        } catch (IOException | RuntimeException ex) {
+            exchange.abort();
+            throw ex;
+        }
+        
+        commitOutput();
+        if (journal != null)
+            journal.delete();
+        // Partial responses aren't cacheable, so this only stores downloads which started from scratch
+        if (downloadCache != null)
+            downloadCache.store(dlSource, exchange, dlPath);
+        timer.succeeded(progress.getTransferred());
+    }
+    
+    /**
+     * Opens the download path for writing.
+     * @param readable Whether the file must be readable as well, to be mapped into memory or digested.
+     * @return The channel of the file.
+     * @throws IOException If the file could not be opened.
+     */
+    FileChannel openOutputChannel(boolean readable) throws IOException {
+        Path workPath = getWorkPath().toPath();
+        if (readable)
+            return FileChannel.open(workPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return FileChannel.open(workPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+    
+    /**
+     * Gets and returns the file a download is actually written to.
+     * @return The part file if {@link #isAtomicOutput() atomic output} is enabled, the download path otherwise.
+     */
+    File getWorkPath() { return atomicOutput ? new File(dlPath.getPath() + PART_SUFFIX) : dlPath; }
+    
+    /**
+     * Moves a complete part file over the download path, if {@link #isAtomicOutput() atomic output} is enabled.
+     * If the fsync policy forces files on completion, the directory is forced afterwards, so the move is durable too.
+     * @throws IOException If the file could not be moved.
+     */
+    private void commitOutput() throws IOException {
+        if (!atomicOutput)
+            return;
+        Path workPath = getWorkPath().toPath();
+        try {
+            Files.move(workPath, dlPath.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            // Only if the part file ended up on another file system, e.g. because the download path is a symbolic link
+            Files.move(workPath, dlPath.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        
+        if (!fsyncPolicy.isSyncOnCompletion())
+            return;
+        File directory = dlPath.getAbsoluteFile().getParentFile();
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            // Not every platform can open (or force) a directory; there, the file system has to take care of it
+        }
+    }
+    
+    /**
+     * Sets a file to its final size before its data is written.
+     * Java has no portable way to reserve the blocks of a file, so this extends the file by writing its last byte;
+     * file systems supporting sparse files leave the rest unallocated until it's written.
+     * @param outChannel The channel of the file.
+     * @param size The final size of the file.
+     * @throws IOException If the file could not be extended.
+     */
+    static void preallocate(FileChannel outChannel, long size) throws IOException {
+        if (outChannel.size() >= size)
+            return;
+        ByteBuffer lastByte = ByteBuffer.allocate(1);
+        while (lastByte.hasRemaining())
+            outChannel.write(lastByte, size - 1);
+    }
+    
+    /**
+     * Copies a cached response to the download path, and reports it as progress.
+     * @param cached The cached response.
+     * @throws IOException If the response could not be copied.
+     */
+    private void copyFromCache(CachedResponse cached) throws IOException {
+        File workPath = getWorkPath();
+        cached.copyTo(workPath);
+        if (digestAlgorithm != null)
+            verifyFile(workPath, null);
+        if (fsyncPolicy.isSyncOnCompletion()) {
+            try (FileChannel channel = FileChannel.open(workPath.toPath(), StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+        }
+        commitOutput();
+        reportCachedProgress(dlPath, cached.getLength());
+    }
+    
+    /**
+     * Checks the digest of a downloaded file against the expected digest and the one sent by the server,
+     * and makes it available from {@link #getDownloadDigest()}.
+     * @param digest The digest of the file.
+     * @param exchange The exchange the file was downloaded with, or null if there's none (or its headers don't apply).
+     * @throws IOException If the digests don't match, or the response could not be read.
+     */
+    void verifyDigest(DownloadDigest digest, Exchange exchange) throws IOException {
+        if (expectedDigest != null && !digest.matches(expectedDigest))
+            throw new DigestMismatchException(dlSource, expectedDigest, digest);
+        // The headers describe the body as sent, which for compressed responses isn't what we've written
+        if (exchange != null && exchange.getContentEncoding() == null) {
+            String advertised = digest.getAlgorithm().findIn(exchange.getHeaderField("Digest"));
+            // Content-MD5 covers just the body of this response, i.e. only the range for partial ones
+            if (advertised == null && digest.getAlgorithm() == DigestAlgorithm.MD5 && exchange.getResponseCode() == HttpURLConnection.HTTP_OK)
+                advertised = exchange.getHeaderField("Content-MD5");
+            if (advertised != null && !digest.matches(advertised))
+                throw new DigestMismatchException(dlSource, advertised, digest);
+        }
+        downloadDigest = digest;
+    }
+    
+    /**
+     * Digests a downloaded file in a single pass, for downloads which couldn't be digested as they were written.
+     * @param channel The channel of the file, opened for reading.
+     * @param length The length of the file.
+     * @param exchange The exchange the file was downloaded with, or null.
+     * @throws IOException If the file could not be read, or the digests don't match.
+     */
+    void verifyFile(FileChannel channel, long length, Exchange exchange) throws IOException {
+        Digester digester = digestAlgorithm.newDigester();
+        digester.update(channel, 0, length);
+        verifyDigest(digester.finish(), exchange);
+    }
+    
+    private void verifyFile(File path, Exchange exchange) throws IOException {
+        try (FileChannel channel = FileChannel.open(path.toPath(), StandardOpenOption.READ)) {
+            verifyFile(channel, channel.size(), exchange);
+        }
+    }
+    
+    /**
+     * Fires the progress events for a response which was served from the cache.
+     * @param path The path the data was copied to. Null if no file is being downloaded.
+     * @param length The length of the cached body.
+     */
+    private void reportCachedProgress(File path, long length) {
+        ProgressDispatcher progress = createProgressDispatcher(path, length, 0, null);
+        progress.transferred(length);
+        progress.finish();
+    }
+    
+    /**
+     * Asks the server to compress the response, if {@link #isCompressionEnabled() compression} is enabled.
+     * @param exchange The exchange whose request hasn't been sent yet.
+     */
+    void requestCompression(Exchange exchange) {
+        if (compressionEnabled)
+            exchange.setRequestHeader("Accept-Encoding", "gzip, deflate");
+    }
+    
+    /**
+     * Opens the body of a response, and decompresses it if the server compressed it.
+     * The bytes received are held to the rate limiters; for compressed responses, they're also counted for the given progress.
+     * @param exchange The exchange to read the response of.
+     * @param progress The progress of the download.
+     * @return The stream of the decoded body.
+     * @throws IOException If the body could not be opened, or was compressed in a way we didn't ask for.
+     */
+    InputStream openResponseBody(Exchange exchange, ProgressDispatcher progress) throws IOException {
+        String encoding = exchange.getContentEncoding();
+        InputStream iStream = throttle(exchange.getBody());
+        if (encoding == null || encoding.trim().isEmpty() || encoding.trim().equalsIgnoreCase("identity"))
+            return iStream;
+        
+        CountingInputStream wireStream = new CountingInputStream(iStream);
+        progress.setWireCounter(wireStream);
+        switch (encoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(wireStream, chunkSize);
+            case "deflate":
+                return openDeflateStream(wireStream);
+            default:
+                iStream.close();
+                throw new IOException("Unsupported Content-Encoding: " + encoding + "!");
+        }
+    }
+    
+    /**
+     * Holds the reads from a response body to the global and this client's {@link RateLimiter}.
+     * @param iStream The stream of the body, as received.
+     * @return The throttled stream.
+     */
+    InputStream throttle(InputStream iStream) {
+        if (rateLimiter == null)
+            return new ThrottledInputStream(iStream, RateLimiter.getGlobal());
+        return new ThrottledInputStream(iStream, RateLimiter.getGlobal(), rateLimiter);
+    }
+    
+    /**
+     * Opens a deflate-encoded body.
+     * The standard calls for a zlib stream, but some servers send raw deflate data, so the header is checked first.
+     * @param iStream The stream of the encoded body.
+     * @return The stream of the decoded body.
+     * @throws IOException If the body could not be read.
+     */
+    private InputStream openDeflateStream(InputStream iStream) throws IOException {
+        PushbackInputStream pushbackStream = new PushbackInputStream(iStream, 2);
+        byte[] header = new byte[2];
+        int count = 0;
+        int i;
+        while (count < 2 && (i = pushbackStream.read(header, count, 2 - count)) >= 0)
+            count += i;
+        pushbackStream.unread(header, 0, count);
+        
+        // A zlib header names deflate as its method, and is a multiple of 31 when read as a 16 bit number
+        boolean zlibWrapped = count == 2 && (header[0] & 0x0F) == 8 && (((header[0] & 0xFF) << 8) | (header[1] & 0xFF)) % 31 == 0;
+        final Inflater inflater = new Inflater(!zlibWrapped);
+        return new InflaterInputStream(pushbackStream, inflater, chunkSize) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+    
+    /**
+     * Copies everything from the given channel to the given file channel, starting at the given position in the file.
+     * The data is copied in chunks of {@link #getChunkSize()} bytes, or {@link #isAdaptiveChunkSize() adaptive} ones, using positional writes, 
+     * so several transfers may write to different regions of the same file channel at once.
+     * A progress event is fired after each chunk was written.
+     * @param inChannel The channel to read from. Read until end-of-stream.
+     * @param outChannel The file channel to write to.
+     * @param position The position in the file at which the first byte is written.
+     * @param progress The progress of the download, shared by all transfers belonging to the same download.
+     * @param listener The listener to checkpoint the written data with, e.g. the download's journal. May be null.
+     * @param digester The digester to feed the chunks to, or null. Only for transfers which write the file in order.
+     * @param mapped Whether to write through memory mapped windows of the file. The file must have been preallocated,
+     * and the channel opened for reading as well.
+     * @return The amount of bytes that were transferred by this call.
+     * @throws IOException If reading from or writing to one of the channels fails.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.7
+     */
+    long transferToFile(ReadableByteChannel inChannel, FileChannel outChannel, long position, ProgressDispatcher progress, 
+                        TransferListener listener, Digester digester, boolean mapped) throws IOException {
+        long bodySize = progress.getRemoteSize() < 0 ? -1 : progress.getRemoteSize() - position;
+        TransferBuffer transferBuffer = createTransferBuffer(true, bodySize);
+        MappedFileWriter mappedWriter = mapped ? new MappedFileWriter(outChannel) : null;
+        long transferred = 0;
+        int i = 0;
+        
+        try {
+            while (i >= 0) {
+                ByteBuffer buffer = transferBuffer.get();
+                // Fill the buffer as far as possible, so every write hands a full chunk to the OS
+                while (buffer.hasRemaining() && (i = inChannel.read(buffer)) >= 0);
+                
+                if (buffer.position() == 0)
+                    continue;
+                buffer.flip();
+                int chunk = buffer.remaining();
+                if (digester != null)
+                    digester.update(buffer);
+                if (mappedWriter != null)
+                    mappedWriter.write(buffer, position + transferred);
+                while (buffer.hasRemaining())
+                    outChannel.write(buffer, position + transferred + (chunk - buffer.remaining()));
+                transferred += chunk;
+                buffer.clear();
+                if (listener != null)
+                    listener.chunkWritten(outChannel, mappedWriter, position + transferred);
+                progress.transferred(chunk);
+                transferBuffer.transferred(chunk);
+            }
+        } finally {
+            transferBuffer.release();
+        }
+        return transferred;
+    }
+    
+    /**
+     * Creates the buffer a transfer reads its chunks into, as large as {@link #getChunkSize()}, or adaptive.
+     * @param direct Whether to use direct buffers instead of heap buffers.
+     * @param bodySize The amount of bytes left to transfer, or -1 if unknown.
+     * @return The buffer. Must be released once the transfer is done.
+     */
+    TransferBuffer createTransferBuffer(boolean direct, long bodySize) {
+        return adaptiveChunkSize ? TransferBuffer.adaptive(memoryBudget, direct, bodySize) : TransferBuffer.fixed(memoryBudget, direct, chunkSize);
+    }
+    
+    /**
+     * Creates the object which keeps track of the progress of a download and fires the progress events,
+     * according to this client's progress settings.
+     * @param path The path the data is downloaded to. Null if no file is being downloaded.
+     * @param remoteSize The size of the remote file. May be -1 if unknown.
+     * @param initialDataRead The amount of bytes which had already been downloaded before.
+     * If this client leads a flight, the progress is passed on to it.
+     * @param timer The timer measuring the download, or null if it isn't measured.
+     * @return The new progress dispatcher.
+     */
+    ProgressDispatcher createProgressDispatcher(File path, long remoteSize, long initialDataRead, DownloadTimer timer) {
+        return createProgressDispatcher(path, remoteSize, initialDataRead, timer, leadingFlight);
+    }
+    
+    /**
+     * Creates the object which keeps track of the progress of a download and fires the progress events,
+     * according to this client's progress settings.
+     * @param path The path the data is downloaded to. Null if no file is being downloaded.
+     * @param remoteSize The size of the remote file. May be -1 if unknown.
+     * @param initialDataRead The amount of bytes which had already been downloaded before.
+     * @param timer The timer measuring the download, or null if it isn't measured.
+     * @param flight The flight to pass the progress on to, or null.
+     * @return The new progress dispatcher.
+     */
+    ProgressDispatcher createProgressDispatcher(File path, long remoteSize, long initialDataRead, DownloadTimer timer, Flight<?> flight) {
+        return new ProgressDispatcher(this, downloadProgressChangedEventListeners, dlSource, path, remoteSize, 
+                                      initialDataRead, progressInterval, progressStep, asyncProgressEvents, timer, flight);
+    }
+    
+    /**
+     * Creates the object which mirrors the progress of a download this client follows.
+     * Unlike {@link #createProgressDispatcher(File, long, long, DownloadTimer, Flight)}, the events are always fired
+     * on the event thread, as the progress is recorded on the leader's thread.
+     * @param path The path the data is downloaded to. Null if no file is being downloaded.
+     * @param remoteSize The size of the remote file. May be -1 if unknown.
+     * @param initialDataRead The amount of bytes which had already been downloaded before.
+     * @return The new progress dispatcher.
+     */
+    ProgressDispatcher createFollowerProgressDispatcher(File path, long remoteSize, long initialDataRead) {
+        return new ProgressDispatcher(this, downloadProgressChangedEventListeners, dlSource, path, remoteSize, 
+                                      initialDataRead, progressInterval, progressStep, true, null, null);
+    }
+    
+    /**
+     * The exception thrown by the last asynchronous file download, if any.
+     * @deprecated Only set once the download has finished. Use the future returned by {@link #downloadFileAsync()} instead.
+     */
+    @Deprecated
+    protected volatile IOException m_downloadFileAsyncException = null;
+    /**
+     * Downloads a file from the URL provided too the path provided.
+     * This methods runs asynchronously on the client's {@link DownloadEngine}. 
+     * The events will still be fired.
+     * @return A future which completes with the download path once the file has been downloaded, 
+     * or exceptionally with the exception that caused the download to fail.
+     * @throws IOException Never thrown; errors are delivered through the returned future. Declared for compatibility.
+     * @author Beatsleigher
+     * @since 1-10-2014
+     * @version 1.2
+     */
+    public CompletableFuture<File> downloadFileAsync() throws IOException {
+        m_downloadFileAsyncException = null;
+        return getDownloadEngine().submit(dlSource, new Callable<File>() {
+            @Override
+            public File call() throws IOException {
+                try {
+                    downloadFile();
+                    return dlPath;
+                } catch (IOException ex) {
+                    m_downloadFileAsyncException = ex;
+                    throw ex;
+                }
+            }
+        });
+    }
+    
+    /**
+     * Downloads and saves file from the provided {@link java.net.URL} to a {@link java.lang.String} object.
+     * 
+     * The response is decoded with the charset given in its <code>Content-Type</code> header,
+     * or UTF-8 if the header doesn't name one (or names one this runtime doesn't know).
+     * Malformed input is replaced, not rejected. The text is kept exactly as it was sent, line endings included.
+     * Progress is reported in bytes received.
+     * If a {@link #getDownloadCache() cache} is set, the string may be taken from there instead.
+     * Failed attempts are retried according to the {@link #getRetryPolicy() retry policy}.
+     * If a {@link #getSingleFlight() coordinator} is set and the same string is already being downloaded, that download is shared.
+     * @throws IOException This exception is thrown if something goes wrong during the download.
+     * @author Beatsleigher
+     * @since 01-09-2014
+     * @version 1.5
+     */
+    public void downloadString() throws IOException {
+        String readData = null;
+        final Flight<String> flight = joinFlight("string");
+        final boolean leading = flight == null || flight.lead();
+        // Followers don't download anything themselves, so only the leader is measured
+        final DownloadTimer timer = leading ? getDownloadMetrics().start(dlSource) : null;
+        
+        try {
+            readData = !leading ? follow(flight) : lead(flight, timer, new Callable<String>() {
+                @Override
+                public String call() throws IOException {
+                    return fetchString(timer);
+                }
+            });
+        } catch (IOException | RuntimeException ex) {
+            if (timer != null)
+                timer.failed(ex);
+            throw ex;
+        } finally {
+            downloadedString = readData == null ? "" : readData;
+            if (downloadStringCompletedEventListeners.hasListeners())
+                downloadStringCompletedEventListeners.fire(new DownloadStringCompletedEvent(this, dlSource, downloadedString));
+        }
+    }
+    
+    /**
+     * A single attempt at {@link #downloadString()}.
+     * @param timer The timer measuring the download.
+     * @return The downloaded string.
+     * @throws IOException If something goes wrong during the download.
+     */
+    private String fetchString(DownloadTimer timer) throws IOException {
+        Exchange exchange = null;
+        
+        try {
+            CachedResponse cached = downloadCache == null ? null : downloadCache.getFresh(dlSource);
+            if (cached == null) {
+                exchange = openExchange(true);
+                if (downloadCache != null)
+                    cached = downloadCache.revalidate(dlSource, exchange);
+            }
+            if (cached != null) {
+                if (exchange != null)
+                    exchange.release();
+                String text = new String(cached.readBody(), getCharset(cached.getContentType()));
+                timer.discard();
+                reportCachedProgress(null, cached.getLength());
+                return text;
+            }
+            
+            long remoteSize = exchange.getContentLength();
+            // Every charset we're likely to meet needs at least one byte per char, so this is an upper bound
+            // (or, for compressed responses, a start)
+            StringBuilder readData = new StringBuilder(remoteSize > 0 ? (int)Math.min(remoteSize, MAX_PRESIZED_STRING_LENGTH) : 16);
+            
+            timer.connected(exchange.getConnectTime());
+            ProgressDispatcher progress = createProgressDispatcher(null, remoteSize, 0, timer);
+            try (ReadableByteChannel inChannel = Channels.newChannel(openResponseBody(exchange, progress))) {
+                decodeString(inChannel, getCharset(exchange.getContentType()), readData, progress);
+            }
+            // HttpURLConnection reports a connection closed too early as the end of the body
+            if (exchange.getContentEncoding() == null && remoteSize >= 0 && progress.getTotalDataRead() < remoteSize)
+                throw new EOFException(String.format("Download of %s ended after %d of %d bytes!", 
+                        dlSource, progress.getTotalDataRead(), remoteSize));
+            progress.finish();
+            exchange.release();
+            String text = readData.toString();
+            if (downloadCache != null)
+                downloadCache.store(dlSource, exchange, text);
+            return text;
+        } catch (IOException | RuntimeException ex) {
+            if (exchange != null)
+                exchange.abort();
+            throw ex;
+        }
+    }
+    
+    /**
+     * Reads everything from the given channel and decodes it into the given string builder.
+     * The bytes are read in chunks of {@link #getChunkSize()} bytes and decoded in bulk.
+     * @param inChannel The channel to read from. Read until end-of-stream.
+     * @param charset The charset the data is encoded in.
+     * @param readData The string builder to append the text to.
+     * @param progress The progress of the download.
+     * @throws IOException If reading from the channel fails.
+     */
+    private void decodeString(ReadableByteChannel inChannel, Charset charset, StringBuilder readData, 
+                              ProgressDispatcher progress) throws IOException {
+        BufferPool bufferPool = BufferPool.getSharedInstance();
+        ByteBuffer buffer = bufferPool.lease(chunkSize);
+        CharBuffer chars = CharBuffer.allocate(chunkSize);
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        boolean endOfStream = false;
+        
+        try {
+            while (!endOfStream) {
+                int i = inChannel.read(buffer);
+                if (i < 0)
+                    endOfStream = true;
+                else if (i > 0)
+                    progress.transferred(i);
+                
+                buffer.flip();
+                // Loop until the decoder has consumed everything it can; incomplete characters stay in the buffer
+                while (decoder.decode(buffer, chars, endOfStream).isOverflow())
+                    drainChars(chars, readData);
+                drainChars(chars, readData);
+                buffer.compact();
+            }
+            while (decoder.flush(chars).isOverflow())
+                drainChars(chars, readData);
+            drainChars(chars, readData);
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+    
+    private static void drainChars(CharBuffer chars, StringBuilder readData) {
+        readData.append(chars.array(), chars.arrayOffset(), chars.position());
+        chars.clear();
+    }
+    
+    /**
+     * Gets the charset named in a <code>Content-Type</code> header.
+     * @param contentType The value of the header. May be null.
+     * @return The charset of the content, or UTF-8 if none (or an unknown one) was specified.
+     */
+    static Charset getCharset(String contentType) {
+        if (contentType != null) {
+            for (String parameter : contentType.split(";")) {
+                parameter = parameter.trim();
+                if (!parameter.regionMatches(true, 0, "charset=", 0, 8))
+                    continue;
+                String charsetName = parameter.substring(8).trim().replace("\"", "");
+                try {
+                    return Charset.forName(charsetName);
+                } catch (IllegalArgumentException ex) {
+                    break; // Unknown or illegal charset name
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+    
+    /**
+     * The exception thrown by the last asynchronous string download, if any.
+     * @deprecated Only set once the download has finished. Use the future returned by {@link #downloadStringAsync()} instead.
+     */
+    @Deprecated
+    protected volatile IOException m_downloadStringAsyncException = null;
+    /**
+     * Downloads a String from the Internet asynchronously via the provided {@link java.net.URL}.
+     * The download runs on the client's {@link DownloadEngine}.
+     * @return A future which completes with the downloaded string, 
+     * or exceptionally with the exception that caused the download to fail.
+     * @throws IOException Never thrown; errors are delivered through the returned future. Declared for compatibility.
+     * @author Beatsleigher
+     * @since 01-09-2014
+     * @version 1.1
+     */
+    public CompletableFuture<String> downloadStringAsync() throws IOException {
+        this.m_downloadStringAsyncException = null;
+        return getDownloadEngine().submit(dlSource, new Callable<String>() {
+            @Override
+            public String call() throws IOException {
+                try {
+                    downloadString();
+                    return downloadedString;
+                } catch (IOException ex) {
+                    m_downloadStringAsyncException = ex;
+                    throw ex;
+                }
+            }
+        });
+    }
+    
+    /**
+     * Downloads the data from the provided {@link java.net.URL} into a byte array.
+     * 
+     * If the server sends a <code>Content-Length</code>, the data is read straight into an array of that size.
+     * Otherwise it is collected in a scratch buffer which doubles in size whenever it runs full, 
+     * and copied into an array of the right size at the end.
+     * If a {@link #getDownloadCache() cache} is set, the data may be taken from there instead.
+     * Failed attempts are retried according to the {@link #getRetryPolicy() retry policy}.
+     * If a {@link #getSingleFlight() coordinator} is set and the same data is already being downloaded, that download is shared;
+     * every client gets its own copy of the data.
+     * @throws IOException This exception is thrown if something goes wrong during the download.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.4
+     */
+    public void downloadData() throws IOException {
+        byte[] readData = null;
+        final Flight<byte[]> flight = joinFlight("data");
+        final boolean leading = flight == null || flight.lead();
+        // Followers don't download anything themselves, so only the leader is measured
+        final DownloadTimer timer = leading ? getDownloadMetrics().start(dlSource) : null;
+        
+        try {
+            if (leading) {
+                readData = lead(flight, timer, new Callable<byte[]>() {
+                    @Override
+                    public byte[] call() throws IOException {
+                        return fetchData(timer);
+                    }
+                });
+            } else
+                readData = follow(flight).clone();
+        } catch (IOException | RuntimeException ex) {
+            if (timer != null)
+                timer.failed(ex);
+            throw ex;
+        } finally {
+            downloadedData = readData;
+            if (downloadDataCompletedEventListeners.hasListeners())
+                downloadDataCompletedEventListeners.fire(new DownloadDataCompletedEvent(this, dlSource, readData));
+        }
+    }
+    
+    /**
+     * A single attempt at {@link #downloadData()}.
+     * @param timer The timer measuring the download.
+     * @return The downloaded data.
+     * @throws IOException If something goes wrong during the download.
+     */
+    private byte[] fetchData(DownloadTimer timer) throws IOException {
+        Exchange exchange = null;
+        
+        try {
+            CachedResponse cached = downloadCache == null ? null : downloadCache.getFresh(dlSource);
+            if (cached == null) {
+                exchange = openExchange(true);
+                if (downloadCache != null)
+                    cached = downloadCache.revalidate(dlSource, exchange);
+            }
+            if (cached != null) {
+                if (exchange != null)
+                    exchange.release();
+                byte[] readData = cached.readBody();
+                timer.discard();
+                reportCachedProgress(null, cached.getLength());
+                return readData;
+            }
+            
+            long remoteSize = exchange.getContentLength();
+            byte[] readData;
+            
+            timer.connected(exchange.getConnectTime());
+            ProgressDispatcher progress = createProgressDispatcher(null, remoteSize, 0, timer);
+            try (InputStream iStream = openResponseBody(exchange, progress)) {
+                // The Content-Length of a compressed response says nothing about the size of the data
+                if (exchange.getContentEncoding() == null && remoteSize >= 0 && remoteSize <= MAX_ARRAY_LENGTH)
+                    readData = readFully(iStream, (int)remoteSize, progress);
+                else
+                    readData = readGrowing(iStream, progress);
+                progress.finish();
+            }
+            exchange.release();
+            if (downloadCache != null)
+                downloadCache.store(dlSource, exchange, readData);
+            return readData;
+        } catch (IOException | RuntimeException ex) {
+            if (exchange != null)
+                exchange.abort();
+            throw ex;
+        }
+    }
+    
+    /**
+     * Reads a body of known length into an array of exactly that size.
+     * @param iStream The stream to read from.
+     * @param length The expected length.
+     * @param progress The progress of the download.
+     * @return The data.
+     * @throws IOException If reading from the stream fails.
+     * @throws EOFException If the stream ended early; HttpURLConnection reports a connection closed too early as the end of the body.
+     */
+    private byte[] readFully(InputStream iStream, int length, ProgressDispatcher progress) throws IOException {
+        byte[] data = new byte[length];
+        int count = 0;
+        int i;
+        
+        while (count < length && (i = iStream.read(data, count, Math.min(length - count, chunkSize))) >= 0) {
+            count += i;
+            progress.transferred(i);
+        }
+        if (count < length)
+            throw new EOFException(String.format("Download of %s ended after %d of %d bytes!", dlSource, count, length));
+        return data;
+    }
+    
+    /**
+     * Reads a body of unknown length into a scratch buffer which grows geometrically.
+     * @param iStream The stream to read from.
+     * @param progress The progress of the download.
+     * @return The data, in an array of exactly the right size.
+     * @throws IOException If reading from the stream fails or the body doesn't fit into an array.
+     */
+    private byte[] readGrowing(InputStream iStream, ProgressDispatcher progress) throws IOException {
+        BufferPool bufferPool = BufferPool.getSharedInstance();
+        ByteBuffer buffer = pooledDataBuffers ? bufferPool.leaseHeap(chunkSize) : ByteBuffer.allocate(chunkSize);
+        int i;
+        
+        try {
+            while ((i = iStream.read(buffer.array(), buffer.position(), buffer.remaining())) >= 0) {
+                buffer.position(buffer.position() + i);
+                progress.transferred(i);
+                if (buffer.hasRemaining())
+                    continue;
+                
+                if (buffer.capacity() >= MAX_ARRAY_LENGTH)
+                    throw new IOException("The downloaded data does not fit into a byte array!");
+                int newCapacity = (int)Math.min((long)buffer.capacity() * 2, MAX_ARRAY_LENGTH);
+                ByteBuffer newBuffer = pooledDataBuffers ? bufferPool.leaseHeap(newCapacity) : ByteBuffer.allocate(newCapacity);
+                buffer.flip();
+                newBuffer.put(buffer);
+                if (pooledDataBuffers)
+                    bufferPool.release(buffer);
+                buffer = newBuffer;
+            }
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        } finally {
+            if (pooledDataBuffers)
+                bufferPool.release(buffer);
+        }
+    }
+    
+    /**
+     * Downloads the data from the provided {@link java.net.URL} into a byte array, asynchronously.
+     * The download runs on the client's {@link DownloadEngine}.
+     * @return A future which completes with the downloaded data, 
+     * or exceptionally with the exception that caused the download to fail.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public CompletableFuture<byte[]> downloadDataAsync() {
+        return getDownloadEngine().submit(dlSource, new Callable<byte[]>() {
+            @Override
+            public byte[] call() throws IOException {
+                downloadData();
+                return downloadedData;
+            }
+        });
+    }
+
+    /**
+     * Creates a publisher which streams the body from the provided {@link java.net.URL} in chunks,
+     * without holding the whole body in memory.
+     * Each subscriber starts its own download on the client's {@link DownloadEngine}, once it requests the first chunk.
+     * Chunks of up to {@link #getChunkSize()} bytes are read only as the subscriber requests them,
+     * and the subscriber may keep them. Compressed responses are decoded; the cache is bypassed.
+     * Progress events are fired as for the other downloads. Cancelling the subscription aborts the download.
+     * @return The publisher of the body.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public Flow.Publisher<ByteBuffer> downloadPublisher() {
+        return new DownloadPublisher(this, dlSource);
+    }
+    
+    /**
+     * Downloads the body from the provided {@link java.net.URL} straight into a sink, without writing it to a file first.
+     * 
+     * The body is read into a pooled buffer, in chunks sized as for {@link #downloadFile()}, which is handed to the sink,
+     * and progress events are fired as for {@link #downloadFile()}. If a {@link #getDigestAlgorithm() digest algorithm} is set,
+     * the body is digested as it passes, and checked once it's complete; the sink is only {@link DownloadSink#finish() finished} if it matches.
+     * Failed attempts are retried according to the {@link #getRetryPolicy() retry policy}; if the sink has already been given
+     * part of the body, a retry continues where it stopped, as far as the server allows.
+     * The cache and the {@link #getSingleFlight() coordinator} aren't used, as the body isn't kept anywhere.
+     * @param sink The sink to write the body to.
+     * @return The amount of bytes written to the sink.
+     * @throws IOException If the download failed, or the sink failed to take the body.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.1
+     */
+    public long downloadTo(DownloadSink sink) throws IOException {
+        if (sink == null)
+            throw new IllegalArgumentException("sink must not be null!");
+        downloadDigest = null;
+        DownloadTimer timer = getDownloadMetrics().start(dlSource);
+        try {
+            return new SinkDownload(this, dlSource, sink).download(timer);
+        } catch (IOException | RuntimeException ex) {
+            timer.failed(ex);
+            throw ex;
+        }
+    }
+    
+    /**
+     * Downloads the body from the provided {@link java.net.URL} into a stream, as {@link #downloadTo(DownloadSink)} does.
+     * The stream is flushed once the download is complete, but not closed.
+     * @param oStream The stream to write the body to.
+     * @return The amount of bytes written to the stream.
+     * @throws IOException If the download failed, or writing to the stream failed.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public long downloadTo(OutputStream oStream) throws IOException {
+        return downloadTo(DownloadSink.of(oStream));
+    }
+    
+    /**
+     * Downloads the body from the provided {@link java.net.URL} into a channel, as {@link #downloadTo(DownloadSink)} does.
+     * The channel must be in blocking mode. It is not closed.
+     * @param channel The channel to write the body to.
+     * @return The amount of bytes written to the channel.
+     * @throws IOException If the download failed, or writing to the channel failed.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public long downloadTo(WritableByteChannel channel) throws IOException {
+        return downloadTo(DownloadSink.of(channel));
+    }
+    
+    /**
+     * Downloads the body from the provided {@link java.net.URL} into a sink, asynchronously.
+     * The download runs on the client's {@link DownloadEngine}; the sink is called from its thread.
+     * @param sink The sink to write the body to.
+     * @return A future which completes with the amount of bytes written to the sink,
+     * or exceptionally with the exception that caused the download to fail.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public CompletableFuture<Long> downloadToAsync(final DownloadSink sink) {
+        if (sink == null)
+            throw new IllegalArgumentException("sink must not be null!");
+        return getDownloadEngine().submit(dlSource, new Callable<Long>() {
+            @Override
+            public Long call() throws IOException {
+                return downloadTo(sink);
+            }
+        });
+    }
+
+    /**
+     * The result of a file download shared through a {@link Flight}.
+     */
+    private static final class SharedFile {
+        
+        private final File path;
+        private final DownloadDigest digest;
+        
+        SharedFile(File path, DownloadDigest digest) {
+            this.path = path;
+            this.digest = digest;
+        }
+        
+    }
+
     //<editor-fold defaultstate="collapsed" desc="Overriden Methods">
     /** 
      * {@inheritDoc}
@@ -525,10 +2506,10 @@ public abstract class JWebClient implements Disposeable {
         hash = 29 * hash + Objects.hashCode(this.dlSource);
         hash = 29 * hash + Objects.hashCode(this.downloadedString);
         hash = 29 * hash + Arrays.hashCode(this.downloadedData);
-        hash = 29 * hash + Objects.hashCode(this.downloadProgressChangedEventHandlerList);
-        hash = 29 * hash + Objects.hashCode(this.downloadFileCompletedEventHandlerList);
-        hash = 29 * hash + Objects.hashCode(this.downloadStringCompletedEventHandlerList);
-        hash = 29 * hash + Objects.hashCode(this.downloadDataCompletedEventHandlerList);
+        hash = 29 * hash + this.downloadProgressChangedEventListeners.asList().hashCode();
+        hash = 29 * hash + this.downloadFileCompletedEventListeners.asList().hashCode();
+        hash = 29 * hash + this.downloadStringCompletedEventListeners.asList().hashCode();
+        hash = 29 * hash + this.downloadDataCompletedEventListeners.asList().hashCode();
         hash = 29 * hash + Objects.hashCode(this.m_downloadFileAsyncException);
         return hash;
     }
@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient;
+
+import eu.beatsleigher.jwebclient.events.EventFilter;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * The listeners of one kind of event, which may be registered and removed while events are being fired.
+ *
+ * The registrations are kept in an array which is replaced, never changed, whenever a listener is added or removed
+ * (copy-on-write, with a compare-and-set instead of a lock). Firing an event iterates over whatever array was current
+ * when it started, so it neither blocks nor fails if the listeners change meanwhile, and costs a single volatile read
+ * if there are no listeners at all.
+ *
+ * @param <L> The type of the listeners.
+ * @param <E> The type of the events.
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.1
+ */
+abstract class ListenerRegistry<L, E> {
+
+    private final AtomicReference<Registrations<L, E>> registrations;
+
+    /**
+     * Default constructor. Creates an empty registry.
+     */
+    ListenerRegistry() {
+        this.registrations = new AtomicReference<>(new Registrations<L, E>(new Registration<?, ?>[0]));
+    }
+
+    /**
+     * Notifies a single listener of an event.
+     * @param listener The listener.
+     * @param evt The event.
+     */
+    protected abstract void deliver(L listener, E evt);
+
+    /**
+     * Registers a listener, which is notified of every event after those of the listeners registered before.
+     * @param listener The listener.
+     * @param filter The filter deciding which events the listener is notified of, or null for all of them.
+     */
+    void add(L listener, EventFilter<? super E> filter) {
+        add(-1, listener, filter);
+    }
+
+    private void add(int index, L listener, EventFilter<? super E> filter) {
+        if (listener == null)
+            throw new IllegalArgumentException("listener must not be null!");
+        Registration<L, E> registration = new Registration<>(listener, filter);
+        Registrations<L, E> current;
+        Registration<?, ?>[] updated;
+        do {
+            current = registrations.get();
+            int length = current.array.length;
+            int position = index < 0 || index > length ? length : index;
+            updated = new Registration<?, ?>[length + 1];
+            System.arraycopy(current.array, 0, updated, 0, position);
+            updated[position] = registration;
+            System.arraycopy(current.array, position, updated, position + 1, length - position);
+        } while (!registrations.compareAndSet(current, new Registrations<L, E>(updated)));
+    }
+
+    /**
+     * Removes the first registration of a listener.
+     * @param listener The listener.
+     * @return True if the listener was registered.
+     */
+    boolean remove(L listener) {
+        Registrations<L, E> current;
+        int index;
+        do {
+            current = registrations.get();
+            index = current.indexOf(listener);
+            if (index < 0)
+                return false;
+        } while (!registrations.compareAndSet(current, current.without(index)));
+        return true;
+    }
+
+    /**
+     * Removes the registration at a position.
+     * @param index The position of the registration.
+     * @return The listener of the removed registration.
+     * @throws IndexOutOfBoundsException If there's no registration at the position.
+     */
+    private L removeAt(int index) {
+        Registrations<L, E> current;
+        do {
+            current = registrations.get();
+            if (index < 0 || index >= current.array.length)
+                throw new IndexOutOfBoundsException("Index: " + index);
+        } while (!registrations.compareAndSet(current, current.without(index)));
+        return current.get(index).listener;
+    }
+
+    /**
+     * Removes a registration, unless it has already been removed.
+     * Unlike {@link #remove(Object)}, this doesn't take another registration of an equal listener instead.
+     * @param registration The registration.
+     */
+    private void removeRegistration(Registration<L, E> registration) {
+        Registrations<L, E> current;
+        int index;
+        do {
+            current = registrations.get();
+            index = current.indexOf(registration);
+            if (index < 0)
+                return;
+        } while (!registrations.compareAndSet(current, current.without(index)));
+    }
+
+    /**
+     * Gets and returns whether any listener is registered. Events needn't even be created if there's none.
+     * @return True if there are listeners.
+     */
+    boolean hasListeners() { return registrations.get().array.length > 0; }
+
+    /**
+     * Gets and returns whether any listener may be interested in other events than the final progress event of a download.
+     * @return True if there's a listener without a {@link EventFilter#isFinalOnly() final only} filter.
+     */
+    boolean hasIntermediateListeners() { return registrations.get().intermediate; }
+
+    /**
+     * Notifies the listeners whose filters accept it of an event.
+     * @param evt The event.
+     */
+    void fire(E evt) {
+        fire(evt, false);
+    }
+
+    /**
+     * Notifies the listeners whose filters accept it of an event.
+     * @param evt The event.
+     * @param filteredOnly Whether to notify only the listeners which have a filter,
+     * e.g. because the others have already been notified of an equal event.
+     */
+    void fire(E evt, boolean filteredOnly) {
+        Registrations<L, E> current = registrations.get();
+        for (int i = 0; i < current.array.length; i++) {
+            Registration<L, E> registration = current.get(i);
+            if (registration.filter == null ? !filteredOnly : registration.filter.accept(evt))
+                deliver(registration.listener, evt);
+        }
+    }
+
+    /**
+     * Gets and returns a modifiable view of the registered listeners, for the list based API of the client.
+     * Listeners added through the view aren't filtered. Removing by position removes the registration at that position,
+     * even if an equal listener was registered before it.
+     * Iterating the view iterates over a snapshot; removing through the iterator removes the registration it returned last,
+     * unless that's already gone.
+     * @return The list of listeners.
+     */
+    List<L> asList() {
+        return new AbstractList<L>() {
+            @Override
+            public L get(int index) {
+                Registrations<L, E> current = registrations.get();
+                if (index < 0 || index >= current.array.length)
+                    throw new IndexOutOfBoundsException("Index: " + index);
+                return current.get(index).listener;
+            }
+
+            @Override
+            public int size() {
+                return registrations.get().array.length;
+            }
+
+            @Override
+            public void add(int index, L listener) {
+                if (index < 0 || index > size())
+                    throw new IndexOutOfBoundsException("Index: " + index);
+                ListenerRegistry.this.add(index, listener, null);
+            }
+
+            @Override
+            public L remove(int index) {
+                return removeAt(index);
+            }
+
+            @Override
+            public Iterator<L> iterator() {
+                final Registrations<L, E> snapshot = registrations.get();
+                return new Iterator<L>() {
+                    private int index = 0;
+                    private Registration<L, E> last = null;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < snapshot.array.length;
+                    }
+
+                    @Override
+                    public L next() {
+                        if (!hasNext())
+                            throw new NoSuchElementException();
+                        last = snapshot.get(index++);
+                        return last.listener;
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last == null)
+                            throw new IllegalStateException("next() must be called before remove()!");
+                        removeRegistration(last);
+                        last = null;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * A listener and its filter.
+     */
+    private static final class Registration<L, E> {
+
+        final L listener;
+        final EventFilter<? super E> filter;
+
+        Registration(L listener, EventFilter<? super E> filter) {
+            this.listener = listener;
+            this.filter = filter;
+        }
+
+    }
+
+    /**
+     * An immutable snapshot of the registrations, along with what the dispatchers need to know about them.
+     */
+    private static final class Registrations<L, E> {
+
+        final Registration<?, ?>[] array;
+        final boolean intermediate;
+
+        Registrations(Registration<?, ?>[] array) {
+            this.array = array;
+            boolean intermediate = false;
+            for (Registration<?, ?> registration : array)
+                intermediate |= registration.filter == null || !registration.filter.isFinalOnly();
+            this.intermediate = intermediate;
+        }
+
+        @SuppressWarnings("unchecked")
+        Registration<L, E> get(int index) {
+            return (Registration<L, E>)array[index];
+        }
+
+        int indexOf(Object listener) {
+            for (int i = 0; i < array.length; i++)
+                if (array[i].listener.equals(listener))
+                    return i;
+            return -1;
+        }
+
+        int indexOf(Registration<?, ?> registration) {
+            for (int i = 0; i < array.length; i++)
+                if (array[i] == registration)
+                    return i;
+            return -1;
+        }
+
+        Registrations<L, E> without(int index) {
+            Registration<?, ?>[] updated = new Registration<?, ?>[array.length - 1];
+            System.arraycopy(array, 0, updated, 0, index);
+            System.arraycopy(array, index + 1, updated, index, array.length - index - 1);
+            return new Registrations<>(updated);
+        }
+
+    }
+
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient;
+
+import eu.beatsleigher.jwebclient.engine.Flight;
+import eu.beatsleigher.jwebclient.events.*;
+import eu.beatsleigher.jwebclient.metrics.DownloadTimer;
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Counts the bytes of a single download and decides when the progress listeners get to hear about it.
+ *
+ * Events are only fired once the configured interval has passed or the progress has grown by the configured step,
+ * and always once more when the download has finished.
+ * A single event object is reused for the whole download.
+ * Optionally, the events are handed to a separate thread, so slow listeners cannot hold up the download.
+ * In that case, only the latest progress is delivered if the listeners fall behind.
+ *
+ * For compressed responses, the bytes passed to {@link #transferred(long)} are the decoded ones,
+ * while the percentage is worked out from the bytes received, which are taken from the {@link #setWireCounter(CountingInputStream) wire counter}.
+ *
+ * The progress of a download which leads a {@link Flight} is passed on to the flight, so its followers can mirror it
+ * with dispatchers of their own, through {@link #transferred(long, long)}.
+ *
+ * While no listener is registered, or all of them only want the final event, nothing is dispatched until the download
+ * has finished. The event object itself is only created once it's first fired.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.4
+ */
+final class ProgressDispatcher implements Runnable {
+
+    private static volatile ExecutorService eventExecutor;
+
+    private final ListenerRegistry<DownloadProgressChangedEventListener, DownloadProgressChangedEvent> listeners;
+    private final JWebClient client;
+    private final URL downloadSource;
+    private final File downloadPath;
+    private final long remoteSize;
+    private final long intervalNanos;
+    private final float progressStep;
+    private final Executor executor;
+    private final AtomicLong totalDataRead;
+    private final AtomicBoolean deliveryScheduled;
+    private final long initialDataRead;
+    private final DownloadTimer timer;
+    private final Flight<?> flight;
+    private long lastDispatchTime;
+    private long lastDispatchedDataRead;
+    private volatile long pendingDataRead;
+    private boolean pendingFinal = false;
+    private long lastFiredDataRead = -1;
+    private ReusableProgressEvent event = null;
+    private CountingInputStream wireCounter = null;
+    private long pendingWireDataRead;
+    private volatile long mirroredWireDataRead = -1;
+
+    /**
+     * Default constructor.
+     * @param client The client the download belongs to. Used as event source.
+     * @param listeners The listeners to notify.
+     * @param downloadSource The URL that is downloaded.
+     * @param downloadPath The file that is downloaded to, or null.
+     * @param remoteSize The size of the remote file. May be -1 if unknown.
+     * @param initialDataRead The amount of bytes that had already been downloaded before (when resuming).
+     * @param intervalMillis The minimum time between two events in milliseconds, or zero.
+     * @param progressStep The minimum progress (in percent) between two events, or zero.
+     * @param async Whether to fire the events on a separate thread.
+     * @param timer The timer measuring the download, or null if it isn't measured.
+     * @param flight The flight the download leads, or null.
+     */
+    ProgressDispatcher(JWebClient client, ListenerRegistry<DownloadProgressChangedEventListener, DownloadProgressChangedEvent> listeners,
+                       URL downloadSource, File downloadPath,
+                       long remoteSize, long initialDataRead, long intervalMillis, float progressStep, boolean async, 
+                       DownloadTimer timer, Flight<?> flight) {
+        this.listeners = listeners;
+        this.client = client;
+        this.downloadSource = downloadSource;
+        this.downloadPath = downloadPath;
+        this.remoteSize = remoteSize;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.progressStep = remoteSize > 0 ? progressStep : 0;
+        this.executor = async ? getEventExecutor() : null;
+        this.totalDataRead = new AtomicLong(initialDataRead);
+        this.deliveryScheduled = new AtomicBoolean();
+        this.lastDispatchTime = System.nanoTime();
+        this.lastDispatchedDataRead = initialDataRead;
+        this.initialDataRead = initialDataRead;
+        this.timer = timer;
+        this.flight = flight;
+        if (flight != null)
+            flight.started(remoteSize, initialDataRead);
+    }
+
+    /**
+     * Gets and returns the amount of bytes downloaded so far.
+     * @return The amount of downloaded bytes.
+     */
+    long getTotalDataRead() { return totalDataRead.get(); }
+
+    /**
+     * Gets and returns the size of the remote file.
+     * @return The size in bytes, or -1 if unknown.
+     */
+    long getRemoteSize() { return remoteSize; }
+    
+    /**
+     * Sets the stream which counts the bytes received, if the response is decoded before it is counted.
+     * Must be set before the first chunk is recorded, and only for downloads over a single connection.
+     * @param wireCounter The counting stream between the connection and the decoder.
+     */
+    void setWireCounter(CountingInputStream wireCounter) { this.wireCounter = wireCounter; }
+
+    /**
+     * Records that a chunk has been downloaded, and fires an event if one is due.
+     * May be called from several threads at once.
+     * @param bytes The size of the chunk.
+     */
+    void transferred(long bytes) {
+        long total = totalDataRead.addAndGet(bytes);
+        if (timer != null)
+            timer.firstByte();
+        if (flight != null)
+            flight.transferred(bytes, wireCounter == null ? -1 : wireCounter.getCount());
+        if (!listeners.hasIntermediateListeners())
+            return;
+
+        synchronized (this) {
+            long wire = getWireDataRead(total);
+            long now = System.nanoTime();
+            boolean intervalPassed = intervalNanos > 0 && now - lastDispatchTime >= intervalNanos;
+            boolean stepReached = progressStep > 0 && percentage(wire - lastDispatchedDataRead) >= progressStep;
+            if (intervalPassed || stepReached || (intervalNanos == 0 && progressStep == 0)) {
+                lastDispatchTime = now;
+                lastDispatchedDataRead = wire;
+                dispatch(total, wire, false);
+            }
+        }
+    }
+
+    /**
+     * Records a chunk of a download which is mirrored from the leader of a flight.
+     * @param bytes The size of the chunk.
+     * @param wireDataRead The amount of bytes the leader has received so far, if its response is decoded; -1 otherwise.
+     */
+    void transferred(long bytes, long wireDataRead) {
+        if (wireDataRead >= 0)
+            mirroredWireDataRead = wireDataRead;
+        transferred(bytes);
+    }
+
+    /**
+     * Fires the final event of the download, and records the download as successful with its timer.
+     * Listeners without a filter which already know about the final state aren't notified again.
+     */
+    void finish() {
+        fireFinal();
+        if (timer != null)
+            timer.succeeded(getTransferred());
+    }
+
+    /**
+     * Fires the final event of the download, but leaves recording its outcome to the caller.
+     * For downloads which aren't done once the body is in, e.g. files which still have to be committed.
+     */
+    void fireFinal() {
+        if (listeners.hasListeners()) {
+            synchronized (this) {
+                long total = totalDataRead.get();
+                long wire = getWireDataRead(total);
+                lastDispatchedDataRead = wire;
+                dispatch(total, wire, true);
+            }
+        }
+    }
+
+    /**
+     * Gets and returns the amount of bytes this download transferred itself, not counting those it resumed from.
+     * @return The amount of bytes transferred.
+     */
+    long getTransferred() { return totalDataRead.get() - initialDataRead; }
+
+    private long getWireDataRead(long total) {
+        if (wireCounter != null)
+            return wireCounter.getCount();
+        long mirrored = mirroredWireDataRead;
+        return mirrored < 0 ? total : mirrored;
+    }
+
+    private void dispatch(long total, long wire, boolean last) {
+        if (executor == null) {
+            fire(total, wire, last);
+            return;
+        }
+        pendingDataRead = total;
+        pendingWireDataRead = wire;
+        pendingFinal = last;
+        if (deliveryScheduled.compareAndSet(false, true))
+            executor.execute(this);
+    }
+
+    /**
+     * Delivers the latest progress. Runs on the event thread.
+     */
+    @Override
+    public void run() {
+        deliveryScheduled.set(false);
+        long total;
+        long wire;
+        boolean last;
+        synchronized (this) {
+            total = pendingDataRead;
+            wire = pendingWireDataRead;
+            last = pendingFinal;
+            // A run which was scheduled meanwhile mustn't fire it again
+            pendingFinal = false;
+        }
+        if (total != lastFiredDataRead || last)
+            fire(total, wire, last);
+    }
+
+    private void fire(long total, long wire, boolean last) {
+        boolean repeated = total == lastFiredDataRead;
+        lastFiredDataRead = total;
+        if (event == null)
+            event = new ReusableProgressEvent(client, downloadSource, downloadPath, remoteSize);
+        event.update(percentage(wire), total, wire, last);
+        listeners.fire(event, repeated);
+    }
+
+    private float percentage(long dataRead) {
+        return ((float)dataRead / remoteSize) * 100;
+    }
+
+    private static Executor getEventExecutor() {
+        ExecutorService executor = eventExecutor;
+        if (executor == null) {
+            synchronized (ProgressDispatcher.class) {
+                executor = eventExecutor;
+                if (executor == null) {
+                    eventExecutor = executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            Thread thread = new Thread(runnable, "JWebClient-events");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * The progress event fired by a dispatcher, which is updated in place.
+     */
+    private static final class ReusableProgressEvent extends DownloadProgressChangedEvent {
+
+        private static final long serialVersionUID = 1L;
+
+        ReusableProgressEvent(Object source, URL downloadSource, File downloadPath, long sourceSize) {
+            super(source, downloadSource, downloadPath, 0, sourceSize, 0);
+        }
+
+        void update(float progressPercentage, long fileSize, long wireSize, boolean finalEvent) {
+            this.progressPercentage = progressPercentage;
+            this.fileSize = fileSize;
+            this.wireSize = wireSize;
+            this.finalEvent = finalEvent;
+        }
+
+    }
+
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient;
+
+import eu.beatsleigher.jwebclient.io.OutputMode;
+import eu.beatsleigher.jwebclient.metrics.DownloadTimer;
+import eu.beatsleigher.jwebclient.transport.*;
+import java.io.*;
+import java.net.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Downloads a single file over several connections at once, using HTTP range requests.
+ *
+ * The file is split into equally sized byte ranges. Each range is fetched on its own connection
+ * and written straight to its offset in the target file.
+ * Unless the client's {@link OutputMode} is {@link OutputMode#CHANNEL}, the file is set to its final size first,
+ * and with {@link OutputMode#MAPPED} every segment writes through its own mapped windows.
+ * The progress of all segments is reported through the owning {@link JWebClient}.
+ * A segment which fails is retried on its own, from its last written byte, as the client's retry policy allows.
+ * Every range is requested with <code>If-Range</code>, and checked against the size found by the probe,
+ * so the segments can never be taken from different versions of the file.
+ * The segments of all downloads run on a single, shared pool of daemon threads.
+ * It isn't the client's {@link eu.beatsleigher.jwebclient.engine.DownloadEngine}, since the download itself may hold
+ * one of the engine's slots while it waits for its segments.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.4
+ */
+final class SegmentedDownload {
+
+    /**
+     * Files are never split into segments smaller than this (in bytes).
+     * For anything smaller, the extra requests cost more than they gain.
+     */
+    static final long MIN_SEGMENT_SIZE = 1024 * 1024;
+
+    private static volatile ExecutorService segmentExecutor;
+
+    private final JWebClient client;
+    private final URL dlSource;
+    private final File dlPath;
+    private final int segmentCount;
+    private String validator = null;
+
+    /**
+     * Default constructor.
+     * @param client The client on whose behalf the file is downloaded. Used to write the data and fire the events.
+     * @param dlSource The URL to download from.
+     * @param dlPath The file to download to.
+     * @param segmentCount The amount of segments to split the file into.
+     */
+    SegmentedDownload(JWebClient client, URL dlSource, File dlPath, int segmentCount) {
+        this.client = client;
+        this.dlSource = dlSource;
+        this.dlPath = dlPath;
+        this.segmentCount = segmentCount;
+    }
+
+    /**
+     * Sends a HEAD request to the download source to find out whether the server supports byte range requests.
+     * Servers which answer the HEAD request with an error status (e.g. <code>405 Method Not Allowed</code>) are taken
+     * not to support byte ranges; the file is then downloaded over a single connection, which reports the actual error, if any.
+     * The same goes for files which are identified by neither a strong <code>ETag</code> nor <code>Last-Modified</code>,
+     * as there would be no way to tell whether all segments come from the same version of the file.
+     * @param transport The transport to send the request through.
+     * @return The size of the remote file if the server accepts byte ranges and reports the size, -1 otherwise.
+     * @throws IOException If the request fails.
+     */
+    long probeRangeSupport(Transport transport) throws IOException {
+        Exchange exchange = transport.open(dlSource);
+        try {
+            exchange.setRequestMethod("HEAD");
+            exchange.getBody().close();
+            exchange.release();
+        } catch (HttpStatusException ex) {
+            exchange.abort();
+            return -1;
+        } catch (IOException | RuntimeException ex) {
+            exchange.abort();
+            throw ex;
+        }
+        if (!"bytes".equalsIgnoreCase(exchange.getHeaderField("Accept-Ranges")))
+            return -1;
+        String entityTag = exchange.getHeaderField("ETag");
+        // Weak entity tags must not be used with If-Range
+        validator = entityTag != null && !entityTag.startsWith("W/") ? entityTag : exchange.getHeaderField("Last-Modified");
+        if (validator == null)
+            return -1;
+        return exchange.getContentLength();
+    }
+
+    /**
+     * Downloads the file.
+     * If any of the segments fails, the others are cancelled and the first error is thrown.
+     * The download's outcome is left to the caller to record, once the file has been committed.
+     * @param remoteSize The size of the remote file, as reported by {@link #probeRangeSupport(Transport)}.
+     * @param timer The timer measuring the download. The connection of every segment is recorded with it.
+     * @return The amount of bytes downloaded.
+     * @throws IOException If one of the segments could not be downloaded.
+     */
+    long download(final long remoteSize, final DownloadTimer timer) throws IOException {
+        final ProgressDispatcher progress = client.createProgressDispatcher(dlPath, remoteSize, 0, timer);
+        final long segmentSize = (remoteSize + segmentCount - 1) / segmentCount;
+        ExecutorService executor = getSegmentExecutor();
+        List<Future<Long>> segments = new ArrayList<>();
+
+        final boolean mapped = client.getOutputMode() == OutputMode.MAPPED;
+        try (final FileChannel outChannel = client.openOutputChannel(mapped || client.getDigestAlgorithm() != null)) {
+            outChannel.truncate(0);
+            if (client.getOutputMode() != OutputMode.CHANNEL)
+                JWebClient.preallocate(outChannel, remoteSize);
+            for (long start = 0; start < remoteSize; start += segmentSize) {
+                final long first = start;
+                final long last = Math.min(start + segmentSize, remoteSize) - 1;
+                segments.add(executor.submit(new Callable<Long>() {
+                    @Override
+                    public Long call() throws IOException {
+                        return downloadSegment(outChannel, first, last, remoteSize, progress, mapped, timer);
+                    }
+                }));
+            }
+
+            for (Future<Long> segment : segments)
+                segment.get();
+            // The segments arrive out of order, so the file can only be digested once it's complete
+            if (client.getDigestAlgorithm() != null)
+                client.verifyFile(outChannel, remoteSize, null);
+            if (client.getFsyncPolicy().isSyncOnCompletion())
+                outChannel.force(true);
+            progress.fireFinal();
+            return progress.getTransferred();
+        } catch (ExecutionException ex) {
+            cancel(segments);
+            if (ex.getCause() instanceof IOException)
+                throw (IOException)ex.getCause();
+            throw new IOException("Segment download failed!", ex.getCause());
+        } catch (InterruptedException ex) {
+            cancel(segments);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the segments to finish!");
+        } catch (IOException | RuntimeException ex) {
+            cancel(segments);
+            throw ex;
+        }
+    }
+
+    private static void cancel(List<Future<Long>> segments) {
+        for (Future<Long> segment : segments)
+            segment.cancel(true);
+    }
+
+    private static ExecutorService getSegmentExecutor() {
+        ExecutorService executor = segmentExecutor;
+        if (executor == null) {
+            synchronized (SegmentedDownload.class) {
+                executor = segmentExecutor;
+                if (executor == null) {
+                    // Grows with the amount of segments running at once, and shrinks again once they're done
+                    segmentExecutor = executor = Executors.newCachedThreadPool(new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            Thread thread = new Thread(runnable, "JWebClient-segment");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Downloads a single segment, retrying it from the last byte written for as long as the client's retry policy allows.
+     * @return The size of the segment.
+     */
+    private long downloadSegment(final FileChannel outChannel, long first, final long last, final long remoteSize, 
+                                 final ProgressDispatcher progress, final boolean mapped, final DownloadTimer timer) throws IOException {
+        final SegmentCursor cursor = new SegmentCursor(first);
+        final FileSync fileSync = new FileSync(client.getFsyncPolicy(), cursor, first);
+        client.withRetries(timer, new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                downloadRange(outChannel, cursor, fileSync, last, remoteSize, progress, mapped, timer);
+                return null;
+            }
+        });
+        // The channel is forced once all segments are done
+        fileSync.flush();
+        return last - first + 1;
+    }
+
+    private void downloadRange(FileChannel outChannel, SegmentCursor cursor, FileSync fileSync, long last, long remoteSize, 
+                               ProgressDispatcher progress, boolean mapped, DownloadTimer timer) throws IOException {
+        long first = cursor.position;
+        Exchange exchange = client.getTransport().open(dlSource);
+        exchange.setRequestHeader("Range", "bytes=" + first + "-" + last);
+        exchange.setRequestHeader("If-Range", validator);
+
+        try {
+            int responseCode = exchange.getResponseCode();
+            timer.connected(exchange.getConnectTime());
+            // Error responses are thrown here, so the retry policy can judge them
+            InputStream body = exchange.getBody();
+            // Not worth retrying; the server won't have changed its mind, nor the file back
+            if (responseCode != HttpURLConnection.HTTP_PARTIAL)
+                throw new ProtocolException(String.format("Server ignored range %d-%d of %s, or the file has changed (HTTP %d)!",
+                        first, last, dlSource, responseCode));
+            String contentRange = exchange.getHeaderField("Content-Range");
+            if (!String.format("bytes %d-%d/%d", first, last, remoteSize).equals(contentRange))
+                throw new ProtocolException(String.format("Server sent %s instead of range %d-%d/%d of %s; the file has changed!",
+                        contentRange, first, last, remoteSize, dlSource));
+
+            try (ReadableByteChannel inChannel = Channels.newChannel(client.throttle(body))) {
+                client.transferToFile(inChannel, outChannel, first, progress, fileSync, null, mapped);
+            }
+            if (cursor.position != last + 1)
+                throw new EOFException(String.format("Range %d-%d of %s ended after %d bytes!", first, last, dlSource, cursor.position - first));
+            exchange.release();
+        } catch (IOException | RuntimeException ex) {
+            exchange.abort();
+            throw ex;
+        }
+    }
+
+    /**
+     * Keeps track of how far a segment has been written, so a retry can continue from there.
+     */
+    private static final class SegmentCursor implements TransferListener {
+
+        private long position;
+
+        SegmentCursor(long position) {
+            this.position = position;
+        }
+
+        @Override
+        public void chunkWritten(FileChannel outChannel, Flushable mappedWriter, long committed) {
+            position = committed;
+        }
+
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package eu.beatsleigher.jwebclient;
+
+import eu.beatsleigher.jwebclient.io.*;
+import eu.beatsleigher.jwebclient.metrics.DownloadTimer;
+import eu.beatsleigher.jwebclient.transport.*;
+import java.io.*;
+import java.net.*;
+import java.nio.*;
+import java.util.concurrent.*;
+
+/**
+ * Downloads a body into a {@link DownloadSink}, without a file in between.
+ *
+ * The body is read in chunks into a pooled buffer, sized like those of a file download, which is handed to the sink,
+ * and reported through the client's progress events, just like a file download.
+ * If the client's retry policy allows retries, the response isn't compressed, and an attempt which fails after 
+ * the sink got part of the body is continued with a range request from where it stopped, as long as the server
+ * identifies the body with an entity tag or a modification date. Otherwise it isn't retried, as the sink can't take the data back.
+ * Errors of the sink itself are never retried.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.1
+ */
+final class SinkDownload {
+
+    private final JWebClient client;
+    private final URL dlSource;
+    private final DownloadSink sink;
+    private final Digester digester;
+    private ProgressDispatcher progress = null;
+    private long remoteSize = -1;
+    private String validator = null;
+    private long written = 0;
+
+    /**
+     * Default constructor.
+     * @param client The client on whose behalf the body is downloaded. Used for the transport, the settings and the events.
+     * @param dlSource The URL to download from.
+     * @param sink The sink to write the body to.
+     */
+    SinkDownload(JWebClient client, URL dlSource, DownloadSink sink) {
+        this.client = client;
+        this.dlSource = dlSource;
+        this.sink = sink;
+        this.digester = client.getDigestAlgorithm() == null ? null : client.getDigestAlgorithm().newDigester();
+    }
+
+    /**
+     * Downloads the body.
+     * @param timer The timer measuring the download.
+     * @return The amount of bytes written to the sink.
+     * @throws IOException If the download failed, or the sink failed to take the body.
+     */
+    long download(final DownloadTimer timer) throws IOException {
+        Exchange exchange;
+        try {
+            exchange = client.withRetries(timer, new Callable<Exchange>() {
+                @Override
+                public Exchange call() throws IOException {
+                    return downloadRange(timer);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        if (digester != null)
+            client.verifyDigest(digester.finish(), exchange);
+        sink.finish();
+        progress.finish();
+        return written;
+    }
+
+    /**
+     * A single attempt, which continues from the last byte the sink got.
+     * @return The exchange the body was read from, which has already been released.
+     * @throws IOException If the attempt failed, and may be retried.
+     * @throws UncheckedIOException If the attempt failed, and must not be retried.
+     */
+    private Exchange downloadRange(DownloadTimer timer) throws IOException {
+        boolean resuming = written > 0;
+        if (resuming && validator == null)
+            throw new UncheckedIOException(new ProtocolException(String.format("Cannot continue %s after %d bytes: The server doesn't identify the body!",
+                    dlSource, written)));
+        // Only identity bodies can be continued where they stopped
+        Exchange exchange = resuming ? client.getTransport().open(dlSource) : client.openExchange(!client.getRetryPolicy().isRetrying());
+        if (resuming) {
+            exchange.setRequestHeader("Range", "bytes=" + written + "-");
+            exchange.setRequestHeader("If-Range", validator);
+        }
+
+        try {
+            if (resuming) {
+                String contentRange = exchange.getHeaderField("Content-Range");
+                if (exchange.getResponseCode() != HttpURLConnection.HTTP_PARTIAL || contentRange == null 
+                        || !contentRange.startsWith("bytes " + written + "-"))
+                    throw new UncheckedIOException(new ProtocolException(String.format("Cannot continue %s after %d bytes: The body has changed, or the server ignored the range (HTTP %d)!",
+                            dlSource, written, exchange.getResponseCode())));
+            } else {
+                remoteSize = exchange.getContentLength();
+                if (exchange.getContentEncoding() == null) {
+                    String entityTag = exchange.getHeaderField("ETag");
+                    // Weak entity tags must not be used with If-Range
+                    validator = entityTag != null && !entityTag.startsWith("W/") ? entityTag : exchange.getHeaderField("Last-Modified");
+                }
+            }
+            timer.connected(exchange.getConnectTime());
+            if (progress == null)
+                progress = client.createProgressDispatcher(null, remoteSize, 0, timer, null);
+
+            boolean sizeKnown = remoteSize > 0 && exchange.getContentEncoding() == null;
+            try (InputStream iStream = client.openResponseBody(exchange, progress)) {
+                transfer(iStream);
+            } catch (IOException ex) {
+                if (written > 0 && validator == null)
+                    throw new UncheckedIOException(ex);
+                throw ex;
+            }
+            if (sizeKnown && written < remoteSize)
+                throw new EOFException(String.format("Download of %s ended after %d of %d bytes!", dlSource, written, remoteSize));
+            exchange.release();
+            return exchange;
+        } catch (IOException | RuntimeException ex) {
+            exchange.abort();
+            throw ex;
+        }
+    }
+
+    /**
+     * Copies the body into the sink, chunk by chunk, through a pooled buffer.
+     * @param iStream The stream of the body.
+     * @throws IOException If reading the body fails.
+     * @throws UncheckedIOException If the sink fails.
+     */
+    private void transfer(InputStream iStream) throws IOException {
+        // The body only arrives as a stream, and streams read into arrays; a direct buffer would just add a copy
+        TransferBuffer transferBuffer = client.createTransferBuffer(false, remoteSize < 0 ? -1 : remoteSize - written);
+        int i = 0;
+
+        try {
+            while (i >= 0) {
+                ByteBuffer buffer = transferBuffer.get();
+                // Fill the buffer as far as possible, so the sink gets full chunks
+                while (buffer.hasRemaining() && (i = iStream.read(buffer.array(), buffer.position(), buffer.remaining())) >= 0)
+                    buffer.position(buffer.position() + i);
+
+                if (buffer.position() == 0)
+                    continue;
+                buffer.flip();
+                int chunk = buffer.remaining();
+                if (digester != null)
+                    digester.update(buffer);
+                try {
+                    sink.write(buffer);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                written += chunk;
+                buffer.clear();
+                progress.transferred(chunk);
+                transferBuffer.transferred(chunk);
+            }
+        } finally {
+            transferBuffer.release();
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient;
+
+import eu.beatsleigher.jwebclient.io.RateLimiter;
+import java.io.*;
+
+/**
+ * Holds back the reads from a stream according to one or more {@link RateLimiter}s.
+ *
+ * Sits right on top of the connection, so the limits apply to the bytes received, before any decoding.
+ * Reads are cut down to the limiters' chunk size, so no single read makes the download wait for long.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+final class ThrottledInputStream extends FilterInputStream {
+
+    private final RateLimiter[] limiters;
+
+    /**
+     * Default constructor.
+     * @param iStream The stream to read from.
+     * @param limiters The limiters to obey. Every read waits for the slowest of them.
+     */
+    ThrottledInputStream(InputStream iStream, RateLimiter... limiters) {
+        super(iStream);
+        this.limiters = limiters;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0)
+            throttle(1);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        for (RateLimiter limiter : limiters)
+            length = Math.min(length, limiter.getMaxChunkSize());
+        int i = in.read(buffer, offset, length);
+        if (i > 0)
+            throttle(i);
+        return i;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(n);
+        throttle(skipped);
+        return skipped;
+    }
+
+    private void throttle(long bytes) throws InterruptedIOException {
+        long wait = 0;
+        for (RateLimiter limiter : limiters)
+            wait = Math.max(wait, limiter.reserve(bytes));
+        RateLimiter.pause(wait);
+    }
+
+    @Override
+    public boolean markSupported() { return false; }
+
+    @Override
+    public void mark(int readLimit) { }
+
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("mark/reset not supported!");
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package eu.beatsleigher.jwebclient;
+
+import eu.beatsleigher.jwebclient.io.*;
+import java.nio.*;
+import java.util.concurrent.*;
+
+/**
+ * The buffer a single transfer reads its chunks into, leased from the {@link BufferPool}.
+ *
+ * A fixed buffer keeps the size it was created with. An adaptive one starts small, and measures the throughput
+ * of the transfer over samples of {@link #SAMPLE_NANOS}: as long as every sample is notably faster than the one before,
+ * the buffer is doubled, up to the size of the body and {@link BufferPool#MAX_POOLED_CAPACITY}, and only as far as the
+ * {@link MemoryBudget} allows. Once a larger buffer doesn't pay off, it goes back to the previous size and stays there.
+ * Sizes are always powers of two, so the pool can hand the buffers from one transfer to the next.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+final class TransferBuffer {
+
+    /**
+     * The smallest chunk size (in bytes) an adaptive buffer starts with, even for tiny bodies.
+     */
+    static final int MIN_CHUNK_SIZE = 4 * 1024;
+
+    /**
+     * The chunk size (in bytes) an adaptive buffer starts with.
+     */
+    static final int INITIAL_CHUNK_SIZE = 16 * 1024;
+
+    /**
+     * The time (in nanoseconds) over which the throughput is measured before the buffer is resized.
+     */
+    static final long SAMPLE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /**
+     * How much faster a sample must be than the one before for the buffer to keep growing.
+     */
+    static final double MIN_GAIN = 1.1;
+
+    private final BufferPool bufferPool;
+    private final MemoryBudget memoryBudget;
+    private final boolean direct;
+    private final int maxSize;
+    private ByteBuffer buffer;
+    private long reservedBytes;
+    private boolean growing;
+    private long sampleStart = -1;
+    private long sampleBytes = 0;
+    private double lastRate = 0;
+
+    private TransferBuffer(BufferPool bufferPool, MemoryBudget memoryBudget, boolean direct, int size, int maxSize) {
+        this.bufferPool = bufferPool;
+        this.memoryBudget = memoryBudget;
+        this.direct = direct;
+        this.maxSize = maxSize;
+        this.growing = size < maxSize;
+        this.buffer = direct ? bufferPool.lease(size) : bufferPool.leaseHeap(size);
+        this.reservedBytes = size;
+        // The first buffer is granted in any case, so no download is kept waiting
+        memoryBudget.reserve(size);
+    }
+
+    /**
+     * Creates a buffer which keeps its size.
+     * @param memoryBudget The budget the buffer is accounted for in.
+     * @param direct Whether to lease a direct buffer instead of a heap buffer.
+     * @param size The size of the buffer.
+     * @return The buffer.
+     */
+    static TransferBuffer fixed(MemoryBudget memoryBudget, boolean direct, int size) {
+        return new TransferBuffer(BufferPool.getSharedInstance(), memoryBudget, direct, size, size);
+    }
+
+    /**
+     * Creates a buffer which grows with the throughput of the transfer.
+     * @param memoryBudget The budget which limits the growth of the buffer.
+     * @param direct Whether to lease direct buffers instead of heap buffers.
+     * @param bodySize The amount of bytes left to transfer, or -1 if unknown. The buffer never grows much beyond it.
+     * @return The buffer.
+     */
+    static TransferBuffer adaptive(MemoryBudget memoryBudget, boolean direct, long bodySize) {
+        int maxSize = bodySize > 0 && bodySize < BufferPool.MAX_POOLED_CAPACITY
+                ? Math.max(MIN_CHUNK_SIZE, roundUp((int)bodySize)) : BufferPool.MAX_POOLED_CAPACITY;
+        return new TransferBuffer(BufferPool.getSharedInstance(), memoryBudget, direct, Math.min(INITIAL_CHUNK_SIZE, maxSize), maxSize);
+    }
+
+    private static int roundUp(int size) {
+        int rounded = Integer.highestOneBit(size);
+        return rounded == size ? size : rounded << 1;
+    }
+
+    /**
+     * Gets and returns the current buffer. May be a different one after each {@link #transferred(int)}.
+     * @return The buffer.
+     */
+    ByteBuffer get() { return buffer; }
+
+    /**
+     * Records that a chunk has been transferred, and resizes the buffer if it's due.
+     * The buffer must have been cleared; if it's resized, the new one is returned by {@link #get()}.
+     * @param bytes The size of the chunk.
+     */
+    void transferred(int bytes) {
+        if (!growing)
+            return;
+        long now = System.nanoTime();
+        // The first chunk includes waiting for the server, so the samples only start after it
+        if (sampleStart < 0) {
+            sampleStart = now;
+            return;
+        }
+        sampleBytes += bytes;
+        if (now - sampleStart < SAMPLE_NANOS)
+            return;
+
+        double rate = (double)sampleBytes / (now - sampleStart);
+        if (lastRate > 0 && rate < lastRate * MIN_GAIN) {
+            // The last step didn't pay off, so it's given back
+            growing = false;
+            resize(buffer.capacity() / 2);
+            return;
+        }
+        lastRate = rate;
+        sampleStart = now;
+        sampleBytes = 0;
+        int newSize = Math.min(buffer.capacity() * 2, maxSize);
+        if (!memoryBudget.tryReserve(newSize - reservedBytes)) {
+            growing = false;
+            return;
+        }
+        reservedBytes = newSize;
+        resize(newSize);
+        growing = newSize < maxSize;
+    }
+
+    private void resize(int size) {
+        bufferPool.release(buffer);
+        buffer = direct ? bufferPool.lease(size) : bufferPool.leaseHeap(size);
+        if (size < reservedBytes) {
+            memoryBudget.release(reservedBytes - size);
+            reservedBytes = size;
+        }
+    }
+
+    /**
+     * Returns the buffer to the pool and its memory to the budget. The buffer must not be used afterwards.
+     */
+    void release() {
+        bufferPool.release(buffer);
+        buffer = null;
+        memoryBudget.release(reservedBytes);
+        reservedBytes = 0;
+    }
+
+}
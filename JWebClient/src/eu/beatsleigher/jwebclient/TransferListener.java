@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient;
+
+import java.io.*;
+import java.nio.channels.*;
+
+/**
+ * Told about every chunk {@link JWebClient#transferToFile} has written, so it can checkpoint the download.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+interface TransferListener {
+
+    /**
+     * Called after a chunk was written to the file.
+     * @param outChannel The channel the download is written to.
+     * @param mappedWriter The writer of the memory mapped windows of the file, or null if the file isn't mapped.
+     * @param committed The position in the file up to which the data has been written.
+     * @throws IOException If the written data could not be checkpointed.
+     */
+    void chunkWritten(FileChannel outChannel, Flushable mappedWriter, long committed) throws IOException;
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.cache;
+
+import eu.beatsleigher.jwebclient.transport.Exchange;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * A response held by a {@link DownloadCache}.
+ *
+ * The body is either kept in memory or in a file of the cache's directory.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public final class CachedResponse {
+
+    private final String downloadSource;
+    private final String contentType;
+    private final long length;
+    private final byte[] body;
+    private final File bodyFile;
+    private volatile String entityTag;
+    private volatile String lastModified;
+    private volatile long expiresAt;
+
+    CachedResponse(String downloadSource, String contentType, String entityTag, String lastModified, long expiresAt,
+                   long length, byte[] body, File bodyFile) {
+        this.downloadSource = downloadSource;
+        this.contentType = contentType;
+        this.entityTag = entityTag;
+        this.lastModified = lastModified;
+        this.expiresAt = expiresAt;
+        this.length = length;
+        this.body = body;
+        this.bodyFile = bodyFile;
+    }
+
+    /**
+     * Gets and returns the URL the response was downloaded from.
+     * @return The URL as string.
+     */
+    public String getDownloadSource() { return downloadSource; }
+
+    /**
+     * Gets and returns the <code>Content-Type</code> of the response.
+     * @return The content type, or null if the server didn't send one.
+     */
+    public String getContentType() { return contentType; }
+
+    /**
+     * Gets and returns the <code>ETag</code> of the response.
+     * @return The entity tag, or null if the server didn't send one.
+     */
+    public String getEntityTag() { return entityTag; }
+
+    /**
+     * Gets and returns the <code>Last-Modified</code> date of the response.
+     * @return The date as sent by the server, or null if the server didn't send one.
+     */
+    public String getLastModified() { return lastModified; }
+
+    /**
+     * Gets and returns the point in time until which the response may be used without asking the server.
+     * @return The expiry time in milliseconds since the epoch. Zero if the response must always be revalidated.
+     */
+    public long getExpiresAt() { return expiresAt; }
+
+    /**
+     * Gets and returns whether the response may be used without asking the server.
+     * @return True if the response hasn't expired yet.
+     */
+    public boolean isFresh() { return System.currentTimeMillis() < expiresAt; }
+
+    /**
+     * Gets and returns the length of the body.
+     * @return The length in bytes.
+     */
+    public long getLength() { return length; }
+
+    /**
+     * Gets and returns whether the body is kept in memory.
+     * @return True if the body is in memory, false if it is in the cache's directory.
+     */
+    public boolean isInMemory() { return body != null; }
+
+    /**
+     * Reads the body into a new byte array.
+     * @return A copy of the body.
+     * @throws IOException If the body is stored on disk and could not be read, or is too large for an array.
+     */
+    public byte[] readBody() throws IOException {
+        if (body != null)
+            return body.clone();
+        if (length > Integer.MAX_VALUE - 8)
+            throw new IOException("The cached body does not fit into a byte array!");
+        return Files.readAllBytes(bodyFile.toPath());
+    }
+
+    /**
+     * Writes the body to the given file, replacing the file if it exists.
+     * @param target The file to write to.
+     * @throws IOException If the body could not be written.
+     */
+    public void copyTo(File target) throws IOException {
+        if (body != null)
+            Files.write(target.toPath(), body);
+        else
+            Files.copy(bodyFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    File getBodyFile() { return bodyFile; }
+
+    /**
+     * Adds the <code>If-None-Match</code> and <code>If-Modified-Since</code> headers to a request.
+     * @param exchange The exchange whose request hasn't been sent yet.
+     * @return True if the response has a validator, and the request was made conditional.
+     */
+    boolean addConditionalHeaders(Exchange exchange) {
+        if (entityTag != null)
+            exchange.setRequestHeader("If-None-Match", entityTag);
+        if (lastModified != null)
+            exchange.setRequestHeader("If-Modified-Since", lastModified);
+        return entityTag != null || lastModified != null;
+    }
+
+    /**
+     * Updates the validators and expiry time after the server confirmed the response is still valid.
+     * @param entityTag The new entity tag, or null to keep the current one.
+     * @param lastModified The new modification date, or null to keep the current one.
+     * @param expiresAt The new expiry time.
+     */
+    void revalidated(String entityTag, String lastModified, long expiresAt) {
+        if (entityTag != null)
+            this.entityTag = entityTag;
+        if (lastModified != null)
+            this.lastModified = lastModified;
+        this.expiresAt = expiresAt;
+    }
+
+    Properties toProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("source", downloadSource);
+        if (contentType != null)
+            properties.setProperty("contentType", contentType);
+        if (entityTag != null)
+            properties.setProperty("etag", entityTag);
+        if (lastModified != null)
+            properties.setProperty("lastModified", lastModified);
+        properties.setProperty("expiresAt", Long.toString(expiresAt));
+        properties.setProperty("length", Long.toString(length));
+        return properties;
+    }
+
+    static CachedResponse fromProperties(Properties properties, File bodyFile) {
+        return new CachedResponse(properties.getProperty("source"), properties.getProperty("contentType"),
+                properties.getProperty("etag"), properties.getProperty("lastModified"),
+                Long.parseLong(properties.getProperty("expiresAt", "0")), Long.parseLong(properties.getProperty("length")),
+                null, bodyFile);
+    }
+
+}
@@ -0,0 +1,437 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.cache;
+
+import eu.beatsleigher.jwebclient.transport.Exchange;
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * A cache for downloaded responses, which can be put in front of a {@link eu.beatsleigher.jwebclient.JWebClient}.
+ *
+ * Small bodies are kept in memory, larger ones in a directory on disk (if one is given). Both stores have a size limit
+ * and evict the least recently used responses when it is exceeded.
+ *
+ * A cached response is used without asking the server for as long as <code>Cache-Control: max-age</code>
+ * or <code>Expires</code> allow. After that, the server is asked with <code>If-None-Match</code>/<code>If-Modified-Since</code>,
+ * and if it answers with <code>304 Not Modified</code>, the cached response is used again.
+ * Responses with <code>Cache-Control: no-store</code>, and responses with neither an expiry time nor a validator, are not cached.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public class DownloadCache {
+
+    /**
+     * The default size limit (in bytes) of the memory store.
+     */
+    public static final long DEFAULT_MAX_MEMORY_SIZE = 32 * 1024 * 1024;
+
+    /**
+     * The default size (in bytes) up to which a body is kept in memory.
+     */
+    public static final long DEFAULT_MAX_MEMORY_ENTRY_SIZE = 256 * 1024;
+
+    private static final String BODY_SUFFIX = ".body";
+    private static final String META_SUFFIX = ".properties";
+
+    private final long maxMemorySize;
+    private final long maxMemoryEntrySize;
+    private final File directory;
+    private final long maxDiskSize;
+    private final LinkedHashMap<String, CachedResponse> memoryEntries;
+    private final LinkedHashMap<String, CachedResponse> diskEntries;
+    private long memorySize = 0;
+    private long diskSize = 0;
+    private final AtomicLong hitCount;
+    private final AtomicLong revalidationCount;
+    private final AtomicLong missCount;
+    private final AtomicLong evictionCount;
+
+    /**
+     * Creates a cache which only keeps responses in memory, with the default limits.
+     */
+    public DownloadCache() {
+        this(null, DEFAULT_MAX_MEMORY_SIZE, DEFAULT_MAX_MEMORY_ENTRY_SIZE, 0);
+    }
+
+    /**
+     * Creates a cache.
+     * @param maxMemorySize The maximum amount of bytes kept in memory.
+     * @param maxMemoryEntrySize Bodies up to this size are kept in memory; larger ones go to the directory.
+     * @param directory The directory to keep large bodies in, or null to not cache them at all.
+     * Responses already in the directory are picked up again.
+     * @param maxDiskSize The maximum amount of bytes kept in the directory.
+     * @throws IOException If the directory could not be created or read.
+     */
+    public DownloadCache(long maxMemorySize, long maxMemoryEntrySize, File directory, long maxDiskSize) throws IOException {
+        this(directory, maxMemorySize, maxMemoryEntrySize, maxDiskSize);
+        if (directory != null)
+            loadDirectory();
+    }
+
+    private DownloadCache(File directory, long maxMemorySize, long maxMemoryEntrySize, long maxDiskSize) {
+        if (maxMemorySize < 0 || maxMemoryEntrySize < 0 || maxDiskSize < 0)
+            throw new IllegalArgumentException("Cache sizes must not be negative!");
+        this.maxMemorySize = maxMemorySize;
+        this.maxMemoryEntrySize = Math.min(maxMemoryEntrySize, maxMemorySize);
+        this.directory = directory;
+        this.maxDiskSize = directory == null ? 0 : maxDiskSize;
+        // Access-ordered, so iteration starts at the least recently used response
+        this.memoryEntries = new LinkedHashMap<>(16, 0.75f, true);
+        this.diskEntries = new LinkedHashMap<>(16, 0.75f, true);
+        this.hitCount = new AtomicLong();
+        this.revalidationCount = new AtomicLong();
+        this.missCount = new AtomicLong();
+        this.evictionCount = new AtomicLong();
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Statistics">
+    /**
+     * Gets and returns the amount of downloads served from the cache without asking the server.
+     * @return The amount of fresh hits.
+     */
+    public long getHitCount() { return hitCount.get(); }
+
+    /**
+     * Gets and returns the amount of downloads served from the cache after the server answered <code>304 Not Modified</code>.
+     * @return The amount of successful revalidations.
+     */
+    public long getRevalidationCount() { return revalidationCount.get(); }
+
+    /**
+     * Gets and returns the amount of downloads which could not be served from the cache.
+     * @return The amount of misses.
+     */
+    public long getMissCount() { return missCount.get(); }
+
+    /**
+     * Gets and returns the amount of responses removed from the cache to make room for others.
+     * @return The amount of evictions.
+     */
+    public long getEvictionCount() { return evictionCount.get(); }
+
+    /**
+     * Gets and returns the amount of bytes currently kept in memory.
+     * @return The size of the memory store.
+     */
+    public synchronized long getMemorySize() { return memorySize; }
+
+    /**
+     * Gets and returns the amount of bytes currently kept on disk.
+     * @return The size of the disk store.
+     */
+    public synchronized long getDiskSize() { return diskSize; }
+    //</editor-fold>
+
+    /**
+     * Looks a URL up in the cache, and returns the cached response if it may be used without asking the server.
+     * @param url The URL to download.
+     * @return The fresh cached response, or null.
+     */
+    public CachedResponse getFresh(URL url) {
+        CachedResponse response = get(url.toString());
+        if (response != null && response.isFresh()) {
+            hitCount.incrementAndGet();
+            return response;
+        }
+        if (response == null)
+            missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Looks a URL up in the cache, and asks the server whether a stale cached response is still valid.
+     *
+     * If there is a cached response with a validator, the request is made conditional and sent.
+     * If the server answers with <code>304 Not Modified</code>, the cached response is refreshed and returned.
+     * Otherwise null is returned, and the caller reads the (already sent) response as usual.
+     * @param url The URL to download.
+     * @param exchange The exchange with the URL, whose request hasn't been sent yet.
+     * @return The revalidated cached response, or null if the response has to be downloaded.
+     * @throws IOException If the request fails.
+     */
+    public CachedResponse revalidate(URL url, Exchange exchange) throws IOException {
+        CachedResponse response = get(url.toString());
+        if (response == null)
+            return null; // Already counted by getFresh()
+        if (!response.addConditionalHeaders(exchange)) {
+            missCount.incrementAndGet();
+            return null;
+        }
+
+        if (exchange.getResponseCode() != HttpURLConnection.HTTP_NOT_MODIFIED) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        exchange.getBody().close();
+        response.revalidated(exchange.getHeaderField("ETag"), exchange.getHeaderField("Last-Modified"), getExpiresAt(exchange));
+        if (!response.isInMemory())
+            writeMetadata(response);
+        revalidationCount.incrementAndGet();
+        return response;
+    }
+
+    /**
+     * Stores a downloaded response, if it may be cached.
+     * @param url The URL that was downloaded.
+     * @param exchange The exchange the response was read from.
+     * @param body The body of the response. Copied if it is kept in memory.
+     */
+    public void store(URL url, Exchange exchange, byte[] body) {
+        store(url, exchange, exchange.getContentType(), body, true);
+    }
+
+    /**
+     * Stores a downloaded text response, if it may be cached.
+     * The text is stored encoded in UTF-8, whatever charset it was sent in.
+     * @param url The URL that was downloaded.
+     * @param exchange The exchange the response was read from.
+     * @param text The decoded body of the response.
+     */
+    public void store(URL url, Exchange exchange, String text) {
+        String contentType = exchange.getContentType();
+        String mediaType = contentType == null ? "text/plain" : contentType.split(";")[0].trim();
+        store(url, exchange, mediaType + "; charset=UTF-8", text.getBytes(StandardCharsets.UTF_8), false);
+    }
+
+    private void store(URL url, Exchange exchange, String contentType, byte[] body, boolean copy) {
+        long expiresAt = getExpiresAt(exchange);
+        if (!isCacheable(exchange, expiresAt))
+            return;
+        if (body.length <= maxMemoryEntrySize) {
+            putInMemory(new CachedResponse(url.toString(), contentType, exchange.getHeaderField("ETag"),
+                    exchange.getHeaderField("Last-Modified"), expiresAt, body.length, copy ? body.clone() : body, null));
+            return;
+        }
+        if (directory == null || body.length > maxDiskSize)
+            return;
+        try {
+            File tempFile = File.createTempFile("jwebclient", ".tmp", directory);
+            Files.write(tempFile.toPath(), body);
+            putOnDisk(url, exchange, contentType, expiresAt, tempFile);
+        } catch (IOException ex) {
+            // Not being able to cache something is no reason to fail the download
+        }
+    }
+
+    /**
+     * Stores a response which was downloaded to a file, if it may be cached.
+     * The file is copied; the caller remains free to do with it whatever it likes.
+     * @param url The URL that was downloaded.
+     * @param exchange The exchange the response was read from.
+     * @param file The file the body of the response was written to.
+     */
+    public void store(URL url, Exchange exchange, File file) {
+        long expiresAt = getExpiresAt(exchange);
+        if (!isCacheable(exchange, expiresAt))
+            return;
+        try {
+            if (file.length() <= maxMemoryEntrySize) {
+                store(url, exchange, exchange.getContentType(), Files.readAllBytes(file.toPath()), false);
+                return;
+            }
+            if (directory == null || file.length() > maxDiskSize)
+                return;
+            File tempFile = File.createTempFile("jwebclient", ".tmp", directory);
+            Files.copy(file.toPath(), tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            putOnDisk(url, exchange, exchange.getContentType(), expiresAt, tempFile);
+        } catch (IOException ex) {
+            // Not being able to cache something is no reason to fail the download
+        }
+    }
+
+    /**
+     * Removes all responses from the cache.
+     */
+    public synchronized void clear() {
+        memoryEntries.clear();
+        memorySize = 0;
+        for (String key : new ArrayList<>(diskEntries.keySet()))
+            removeFromDisk(key);
+    }
+
+    private synchronized CachedResponse get(String url) {
+        CachedResponse response = memoryEntries.get(url);
+        return response != null ? response : diskEntries.get(url);
+    }
+
+    private synchronized void putInMemory(CachedResponse response) {
+        CachedResponse previous = memoryEntries.put(response.getDownloadSource(), response);
+        if (previous != null)
+            memorySize -= previous.getLength();
+        if (diskEntries.containsKey(response.getDownloadSource()))
+            removeFromDisk(response.getDownloadSource());
+        memorySize += response.getLength();
+
+        Iterator<CachedResponse> iterator = memoryEntries.values().iterator();
+        while (memorySize > maxMemorySize && iterator.hasNext()) {
+            CachedResponse eldest = iterator.next();
+            iterator.remove();
+            memorySize -= eldest.getLength();
+            evictionCount.incrementAndGet();
+        }
+    }
+
+    private void putOnDisk(URL url, Exchange exchange, String contentType, long expiresAt, File tempFile) throws IOException {
+        String key = getKey(url.toString());
+        File bodyFile = new File(directory, key + BODY_SUFFIX);
+        CachedResponse response = new CachedResponse(url.toString(), contentType, exchange.getHeaderField("ETag"),
+                exchange.getHeaderField("Last-Modified"), expiresAt, tempFile.length(), null, bodyFile);
+
+        synchronized (this) {
+            if (diskEntries.containsKey(url.toString()))
+                removeFromDisk(url.toString());
+            CachedResponse previous = memoryEntries.remove(url.toString());
+            if (previous != null)
+                memorySize -= previous.getLength();
+
+            Files.move(tempFile.toPath(), bodyFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writeMetadata(response);
+            diskEntries.put(url.toString(), response);
+            diskSize += response.getLength();
+
+            Iterator<String> iterator = new ArrayList<>(diskEntries.keySet()).iterator();
+            while (diskSize > maxDiskSize && iterator.hasNext()) {
+                removeFromDisk(iterator.next());
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    private synchronized void removeFromDisk(String url) {
+        CachedResponse response = diskEntries.remove(url);
+        if (response == null)
+            return;
+        diskSize -= response.getLength();
+        String key = getKey(url);
+        new File(directory, key + META_SUFFIX).delete();
+        response.getBodyFile().delete();
+    }
+
+    private void writeMetadata(CachedResponse response) throws IOException {
+        File metaFile = new File(directory, getKey(response.getDownloadSource()) + META_SUFFIX);
+        try (OutputStream oStream = new FileOutputStream(metaFile)) {
+            response.toProperties().store(oStream, "JWebClient cache entry");
+        }
+    }
+
+    /**
+     * Picks up the responses a previous cache left in the directory.
+     * They are ordered by the modification time of their metadata, as a stand-in for their last use.
+     */
+    private void loadDirectory() throws IOException {
+        Files.createDirectories(directory.toPath());
+        File[] metaFiles = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(META_SUFFIX);
+            }
+        });
+        Arrays.sort(metaFiles, new Comparator<File>() {
+            @Override
+            public int compare(File first, File second) {
+                return Long.compare(first.lastModified(), second.lastModified());
+            }
+        });
+
+        for (File metaFile : metaFiles) {
+            String name = metaFile.getName();
+            File bodyFile = new File(directory, name.substring(0, name.length() - META_SUFFIX.length()) + BODY_SUFFIX);
+            Properties properties = new Properties();
+            try (InputStream iStream = new FileInputStream(metaFile)) {
+                properties.load(iStream);
+                CachedResponse response = CachedResponse.fromProperties(properties, bodyFile);
+                if (!bodyFile.isFile() || bodyFile.length() != response.getLength())
+                    throw new IOException("Cache entry is incomplete!");
+                diskEntries.put(response.getDownloadSource(), response);
+                diskSize += response.getLength();
+            } catch (IOException | RuntimeException ex) {
+                metaFile.delete();
+                bodyFile.delete();
+            }
+        }
+    }
+
+    private static boolean isCacheable(Exchange exchange, long expiresAt) {
+        try {
+            if (exchange.getResponseCode() != HttpURLConnection.HTTP_OK)
+                return false;
+        } catch (IOException ex) {
+            return false;
+        }
+        String cacheControl = exchange.getHeaderField("Cache-Control");
+        if (cacheControl != null && cacheControl.toLowerCase(Locale.ROOT).contains("no-store"))
+            return false;
+        return expiresAt > System.currentTimeMillis()
+                || exchange.getHeaderField("ETag") != null || exchange.getHeaderField("Last-Modified") != null;
+    }
+
+    /**
+     * Works out until when a response may be used without asking the server.
+     * <code>Cache-Control</code> takes precedence over <code>Expires</code>.
+     */
+    private static long getExpiresAt(Exchange exchange) {
+        long now = System.currentTimeMillis();
+        String cacheControl = exchange.getHeaderField("Cache-Control");
+        if (cacheControl != null) {
+            for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+                directive = directive.trim();
+                if (directive.equals("no-cache") || directive.equals("no-store"))
+                    return 0;
+                if (directive.startsWith("max-age=")) {
+                    try {
+                        long maxAge = Long.parseLong(directive.substring(8).replace("\"", "").trim());
+                        long age = Math.max(0, exchange.getHeaderFieldLong("Age", 0));
+                        return now + Math.max(0, maxAge - age) * 1000;
+                    } catch (NumberFormatException ex) {
+                        return 0;
+                    }
+                }
+            }
+        }
+
+        long expires = exchange.getHeaderFieldDate("Expires", 0);
+        if (expires <= 0)
+            return 0;
+        // Measure against the server's clock, in case ours is off
+        long date = exchange.getHeaderFieldDate("Date", 0);
+        return date > 0 ? now + (expires - date) : expires;
+    }
+
+    private static String getKey(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder(digest.length * 2);
+            for (byte b : digest)
+                key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return key.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is missing from this runtime!", ex);
+        }
+    }
+
+}
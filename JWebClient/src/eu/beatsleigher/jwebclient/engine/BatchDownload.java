@@ -0,0 +1,325 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.engine;
+
+import eu.beatsleigher.jwebclient.JWebClient;
+import eu.beatsleigher.jwebclient.events.*;
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Downloads a whole batch of files.
+ *
+ * Add the (URL, file) pairs with {@link #add(URL, File, int)}, register the listeners and call {@link #start()}.
+ * The downloads are queued by priority and run on a {@link DownloadEngine},
+ * with no more than a given amount of downloads at once, and no more than a given amount per host.
+ * A download whose host is busy doesn't hold up the downloads from other hosts.
+ *
+ * The registered listeners receive the usual events of every single download.
+ * The progress of the batch as a whole is available through {@link #getStatistics()}.
+ * Subclasses may set up the client of every download through {@link #configure(JWebClient)}.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.2
+ */
+public class BatchDownload {
+
+    /**
+     * The priority used by {@link #add(URL, File)}.
+     */
+    public static final int DEFAULT_PRIORITY = 0;
+
+    private final DownloadEngine engine;
+    private final int maxConcurrentDownloads;
+    private final int maxDownloadsPerHost;
+    private final PriorityQueue<Item> pendingItems;
+    private final Map<String, Deque<Item>> parkedItems;
+    private final Map<String, Integer> runningPerHost;
+    private final List<DownloadProgressChangedEventListener> downloadProgressChangedEventHandlerList;
+    private final List<DownloadFileCompletedEventListener> downloadFileCompletedEventHandlerList;
+    private final CompletableFuture<BatchStatistics> completion;
+    private final AtomicInteger completedCount;
+    private final AtomicInteger failedCount;
+    private final AtomicLong bytesDownloaded;
+    private int runningCount = 0;
+    private int totalCount = 0;
+    private long sequence = 0;
+    private volatile long startTime = 0;
+    private volatile long endTime = 0;
+
+    /**
+     * Creates a batch which runs on the default engine, using its limits.
+     */
+    public BatchDownload() {
+        this(DownloadEngine.getDefault());
+    }
+
+    /**
+     * Creates a batch which runs on the given engine, using its limits.
+     * @param engine The engine to run the downloads on.
+     */
+    public BatchDownload(DownloadEngine engine) {
+        this(engine, engine.getMaxConcurrentDownloads(), engine.getMaxDownloadsPerHost());
+    }
+
+    /**
+     * Creates a batch which runs on the given engine.
+     * The engine's own limits still apply on top of the batch's limits.
+     * @param engine The engine to run the downloads on.
+     * @param maxConcurrentDownloads The maximum amount of downloads of this batch running at the same time.
+     * @param maxDownloadsPerHost The maximum amount of downloads of this batch from a single host running at the same time.
+     */
+    public BatchDownload(DownloadEngine engine, int maxConcurrentDownloads, int maxDownloadsPerHost) {
+        if (engine == null)
+            throw new IllegalArgumentException("engine must not be null!");
+        if (maxConcurrentDownloads <= 0 || maxDownloadsPerHost <= 0)
+            throw new IllegalArgumentException("The download limits must be greater than zero!");
+        this.engine = engine;
+        this.maxConcurrentDownloads = maxConcurrentDownloads;
+        this.maxDownloadsPerHost = maxDownloadsPerHost;
+        this.pendingItems = new PriorityQueue<>();
+        this.parkedItems = new HashMap<>();
+        this.runningPerHost = new HashMap<>();
+        this.downloadProgressChangedEventHandlerList = new CopyOnWriteArrayList<>();
+        this.downloadFileCompletedEventHandlerList = new CopyOnWriteArrayList<>();
+        this.completion = new CompletableFuture<>();
+        this.completedCount = new AtomicInteger();
+        this.failedCount = new AtomicInteger();
+        this.bytesDownloaded = new AtomicLong();
+    }
+
+    /**
+     * Adds a download with the {@link #DEFAULT_PRIORITY default priority} to the batch.
+     * @param source The URL to download from.
+     * @param target The file to download to.
+     * @return A future which completes with the target file once this download has finished.
+     */
+    public CompletableFuture<File> add(URL source, File target) {
+        return add(source, target, DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Adds a download to the batch.
+     * Downloads with a higher priority are started first; downloads with the same priority are started in the order they were added.
+     * @param source The URL to download from.
+     * @param target The file to download to.
+     * @param priority The priority of the download.
+     * @return A future which completes with the target file once this download has finished.
+     */
+    public synchronized CompletableFuture<File> add(URL source, File target, int priority) {
+        if (startTime != 0)
+            throw new IllegalStateException("Downloads cannot be added to a batch which has already been started!");
+        Item item = new Item(source, target, priority, sequence++);
+        pendingItems.add(item);
+        totalCount++;
+        return item.future;
+    }
+
+    /**
+     * Adds all downloads in the given map to the batch, with the default priority.
+     * @param downloads The URLs to download from, mapped to the files to download to.
+     */
+    public void addAll(Map<URL, File> downloads) {
+        for (Map.Entry<URL, File> download : downloads.entrySet())
+            add(download.getKey(), download.getValue());
+    }
+
+    /**
+     * Registers a listener which is notified whenever the progress of one of the downloads has changed.
+     * @param listener The listener.
+     */
+    public void addDownloadProgressChangedEventListener(DownloadProgressChangedEventListener listener) {
+        downloadProgressChangedEventHandlerList.add(listener);
+    }
+
+    /**
+     * Registers a listener which is notified whenever one of the downloads has finished.
+     * @param listener The listener.
+     */
+    public void addDownloadFileCompletedEventListener(DownloadFileCompletedEventListener listener) {
+        downloadFileCompletedEventHandlerList.add(listener);
+    }
+
+    /**
+     * Starts the batch.
+     * @return A future which completes with the final statistics once every download has finished, successfully or not.
+     * Failures of single downloads are reported through the futures returned by {@link #add(URL, File, int)}.
+     */
+    public CompletableFuture<BatchStatistics> start() {
+        synchronized (this) {
+            if (startTime != 0)
+                throw new IllegalStateException("The batch has already been started!");
+            startTime = System.nanoTime();
+            if (totalCount == 0) {
+                endTime = startTime;
+                completion.complete(getStatistics());
+            }
+        }
+        dispatch();
+        return completion;
+    }
+
+    /**
+     * Gets and returns a snapshot of the progress of the batch.
+     * @return The batch's current statistics.
+     */
+    public BatchStatistics getStatistics() {
+        long start = startTime;
+        long end = endTime;
+        long elapsed = start == 0 ? 0 : (end == 0 ? System.nanoTime() : end) - start;
+        return new BatchStatistics(totalCount, completedCount.get(), failedCount.get(), bytesDownloaded.get(), elapsed);
+    }
+
+    /**
+     * Sets up the client of a single download, right before the download starts.
+     * Does nothing by default.
+     * @param client The client, whose download source and path are already set.
+     */
+    protected void configure(JWebClient client) {}
+
+    /**
+     * Starts as many queued downloads as the limits allow.
+     */
+    private void dispatch() {
+        List<Item> startableItems = new ArrayList<>();
+        synchronized (this) {
+            while (runningCount < maxConcurrentDownloads && !pendingItems.isEmpty()) {
+                Item item = pendingItems.poll();
+                Integer running = runningPerHost.get(item.host);
+                if (running != null && running >= maxDownloadsPerHost) {
+                    // Put it aside until a download from the same host has finished
+                    Deque<Item> parked = parkedItems.get(item.host);
+                    if (parked == null)
+                        parkedItems.put(item.host, parked = new ArrayDeque<>());
+                    parked.add(item);
+                    continue;
+                }
+                runningPerHost.put(item.host, running == null ? 1 : running + 1);
+                runningCount++;
+                startableItems.add(item);
+            }
+        }
+
+        // Submitted outside of the lock, as a download may finish before submit() returns
+        for (final Item item : startableItems)
+            engine.submit(item.source, item).whenComplete((file, ex) -> finished(item, ex));
+    }
+
+    private void finished(Item item, Throwable ex) {
+        synchronized (this) {
+            runningCount--;
+            int running = runningPerHost.get(item.host) - 1;
+            if (running == 0)
+                runningPerHost.remove(item.host);
+            else
+                runningPerHost.put(item.host, running);
+
+            Deque<Item> parked = parkedItems.get(item.host);
+            if (parked != null) {
+                pendingItems.add(parked.poll());
+                if (parked.isEmpty())
+                    parkedItems.remove(item.host);
+            }
+        }
+
+        // The item's own dependents run before the batch can complete
+        int finishedCount;
+        if (ex == null) {
+            item.future.complete(item.target);
+            finishedCount = completedCount.incrementAndGet() + failedCount.get();
+        } else {
+            item.future.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            finishedCount = failedCount.incrementAndGet() + completedCount.get();
+        }
+        if (finishedCount == totalCount) {
+            endTime = System.nanoTime();
+            completion.complete(getStatistics());
+        }
+        dispatch();
+    }
+
+    /**
+     * A single download of the batch.
+     */
+    private final class Item implements Callable<File>, Comparable<Item> {
+
+        final URL source;
+        final File target;
+        final String host;
+        final int priority;
+        final long sequence;
+        final CompletableFuture<File> future;
+
+        Item(URL source, File target, int priority, long sequence) {
+            this.source = source;
+            this.target = target;
+            this.host = source.getHost() == null ? "" : source.getHost().toLowerCase(Locale.ROOT);
+            this.priority = priority;
+            this.sequence = sequence;
+            this.future = new CompletableFuture<>();
+        }
+
+        @Override
+        public File call() throws IOException {
+            BatchClient client = new BatchClient(this);
+            configure(client);
+            client.downloadFile();
+            return target;
+        }
+
+        @Override
+        public int compareTo(Item other) {
+            if (priority != other.priority)
+                return priority > other.priority ? -1 : 1;
+            return Long.compare(sequence, other.sequence);
+        }
+
+    }
+
+    /**
+     * The client used for a single download of the batch.
+     * Forwards all events to the batch's listeners and counts the downloaded bytes.
+     */
+    private final class BatchClient extends JWebClient {
+
+        private long bytesReported = 0;
+
+        BatchClient(Item item) {
+            super(item.source, item.target);
+            addDownloadProgressChangedEventListener(new DownloadProgressChangedEventListener() {
+                @Override
+                public void onDownloadProgressChanged(DownloadProgressChangedEvent evt) {
+                    bytesDownloaded.addAndGet(evt.getFileSize() - bytesReported);
+                    bytesReported = evt.getFileSize();
+                }
+            });
+            for (DownloadProgressChangedEventListener listener : downloadProgressChangedEventHandlerList)
+                addDownloadProgressChangedEventListener(listener);
+            for (DownloadFileCompletedEventListener listener : downloadFileCompletedEventHandlerList)
+                addDownloadFileCompletedEventListener(listener);
+        }
+
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.engine;
+
+/**
+ * A snapshot of the progress of a {@link BatchDownload}.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public final class BatchStatistics {
+
+    private final int totalCount;
+    private final int completedCount;
+    private final int failedCount;
+    private final long bytesDownloaded;
+    private final long elapsedNanos;
+
+    /**
+     * Default constructor.
+     * @param totalCount The amount of downloads in the batch.
+     * @param completedCount The amount of downloads which completed successfully.
+     * @param failedCount The amount of downloads which failed.
+     * @param bytesDownloaded The amount of bytes downloaded by all downloads of the batch.
+     * @param elapsedNanos The time since the batch was started, or its total run time if it has finished.
+     */
+    public BatchStatistics(int totalCount, int completedCount, int failedCount, long bytesDownloaded, long elapsedNanos) {
+        this.totalCount = totalCount;
+        this.completedCount = completedCount;
+        this.failedCount = failedCount;
+        this.bytesDownloaded = bytesDownloaded;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets and returns the amount of downloads in the batch.
+     * @return The total amount of downloads.
+     */
+    public int getTotalCount() { return totalCount; }
+
+    /**
+     * Gets and returns the amount of downloads which completed successfully.
+     * @return The amount of successful downloads.
+     */
+    public int getCompletedCount() { return completedCount; }
+
+    /**
+     * Gets and returns the amount of downloads which failed.
+     * @return The amount of failed downloads.
+     */
+    public int getFailedCount() { return failedCount; }
+
+    /**
+     * Gets and returns the amount of downloads which haven't finished yet.
+     * @return The amount of queued and running downloads.
+     */
+    public int getPendingCount() { return totalCount - completedCount - failedCount; }
+
+    /**
+     * Gets and returns whether all downloads of the batch have finished, successfully or not.
+     * @return True if the batch has finished.
+     */
+    public boolean isFinished() { return getPendingCount() == 0; }
+
+    /**
+     * Gets and returns the amount of bytes downloaded by all downloads of the batch.
+     * @return The amount of downloaded bytes.
+     */
+    public long getBytesDownloaded() { return bytesDownloaded; }
+
+    /**
+     * Gets and returns the time since the batch was started, or its total run time if it has finished.
+     * @return The elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /**
+     * Gets and returns the average throughput of the batch.
+     * @return The amount of bytes downloaded per second.
+     */
+    public double getBytesPerSecond() {
+        return elapsedNanos <= 0 ? 0 : bytesDownloaded / (elapsedNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d downloads completed, %d failed, %d bytes (%.1f KiB/s)",
+                completedCount, totalCount, failedCount, bytesDownloaded, getBytesPerSecond() / 1024);
+    }
+
+}
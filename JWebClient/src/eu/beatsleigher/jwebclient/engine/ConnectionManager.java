@@ -0,0 +1,434 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.engine;
+
+import eu.beatsleigher.jwebclient.transport.*;
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * The ConnectionManager is the default {@link Transport} of {@link eu.beatsleigher.jwebclient.JWebClient}.
+ * It hands out {@link HttpURLConnection HTTP/1.1 connections}, and makes sure their sockets are kept alive for the next request to the same host.
+ *
+ * The sockets themselves are pooled by the JDK's keep-alive cache, which hands a socket back out
+ * if the previous response on it was read to the end and its stream closed &mdash; but not if the connection was
+ * {@link HttpURLConnection#disconnect() disconnected}. The manager takes care of that: exchanges are
+ * {@link Exchange#release() released} after their body was read, unread bodies are
+ * {@link Exchange#releaseUnread() drained}, and only broken connections are {@link Exchange#abort() aborted}.
+ * On top of that, the manager limits how many connections to one host may be in use at once,
+ * and keeps count of how many sockets were created and reused.
+ *
+ * The keep-alive cache is shared by the whole VM and reads its settings once, when the first connection is made.
+ * The first manager therefore sets the <code>http.maxConnections</code> and <code>http.keepAlive.time.server</code>
+ * system properties to its idle limits, unless the application set them already.
+ * Since the cache can't be looked into, the idle and reuse counts are worked out by the manager following the same rules;
+ * a server closing an idle connection early goes unnoticed.
+ * If keep-alive has been switched off with <code>http.keepAlive=false</code>, no connection is counted as idle;
+ * neither is one whose response said it would be closed (<code>Connection: close</code>, or HTTP/1.0 without keep-alive),
+ * or whose body only ended when the connection was closed.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.1
+ */
+public class ConnectionManager implements Transport {
+
+    /**
+     * The default maximum amount of connections to the same host in use at the same time.
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 8;
+
+    /**
+     * The default maximum amount of idle connections kept alive per host.
+     */
+    public static final int DEFAULT_MAX_IDLE_PER_HOST = 8;
+
+    /**
+     * The default time (in milliseconds) an idle connection is kept alive.
+     */
+    public static final long DEFAULT_IDLE_TIMEOUT = 5000;
+
+    private static volatile ConnectionManager defaultInstance;
+    private static final AtomicBoolean keepAliveConfigured = new AtomicBoolean();
+
+    private final int maxConnectionsPerHost;
+    private final int maxIdlePerHost;
+    private final long idleTimeout;
+    private final boolean keepAlive;
+    private final ConcurrentMap<String, HostPool> hostPools;
+    private final AtomicInteger leasedCount;
+    private final AtomicLong createdCount;
+    private final AtomicLong reusedCount;
+    private final AtomicLong abortedCount;
+
+    /**
+     * Creates a manager with the default limits.
+     */
+    public ConnectionManager() {
+        this(DEFAULT_MAX_CONNECTIONS_PER_HOST, DEFAULT_MAX_IDLE_PER_HOST, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Creates a manager.
+     * @param maxConnectionsPerHost The maximum amount of connections to the same host in use at the same time.
+     * Further requests wait until a connection is released.
+     * @param maxIdlePerHost The maximum amount of idle connections kept alive per host.
+     * @param idleTimeout The time (in milliseconds) an idle connection is kept alive.
+     */
+    public ConnectionManager(int maxConnectionsPerHost, int maxIdlePerHost, long idleTimeout) {
+        if (maxConnectionsPerHost <= 0)
+            throw new IllegalArgumentException("maxConnectionsPerHost must be greater than zero!");
+        if (maxIdlePerHost < 0 || idleTimeout < 0)
+            throw new IllegalArgumentException("The idle limits must not be negative!");
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.maxIdlePerHost = maxIdlePerHost;
+        this.idleTimeout = idleTimeout;
+        this.keepAlive = !"false".equalsIgnoreCase(System.getProperty("http.keepAlive"));
+        this.hostPools = new ConcurrentHashMap<>();
+        this.leasedCount = new AtomicInteger();
+        this.createdCount = new AtomicLong();
+        this.reusedCount = new AtomicLong();
+        this.abortedCount = new AtomicLong();
+        configureKeepAlive(maxIdlePerHost, idleTimeout);
+    }
+
+    /**
+     * Gets and returns the manager used by all clients which haven't been given one explicitly.
+     * The manager is created on first use.
+     * @return The default connection manager.
+     */
+    public static ConnectionManager getDefault() {
+        ConnectionManager manager = defaultInstance;
+        if (manager == null) {
+            synchronized (ConnectionManager.class) {
+                manager = defaultInstance;
+                if (manager == null)
+                    defaultInstance = manager = new ConnectionManager();
+            }
+        }
+        return manager;
+    }
+
+    /**
+     * Replaces the default manager.
+     * @param manager The new default manager.
+     */
+    public static void setDefault(ConnectionManager manager) {
+        if (manager == null)
+            throw new IllegalArgumentException("manager must not be null!");
+        defaultInstance = manager;
+    }
+
+    private static void configureKeepAlive(int maxIdlePerHost, long idleTimeout) {
+        if (!keepAliveConfigured.compareAndSet(false, true))
+            return;
+        try {
+            if (System.getProperty("http.maxConnections") == null)
+                System.setProperty("http.maxConnections", Integer.toString(Math.max(1, maxIdlePerHost)));
+            if (System.getProperty("http.keepAlive.time.server") == null)
+                System.setProperty("http.keepAlive.time.server", Long.toString(Math.max(1, idleTimeout / 1000)));
+        } catch (SecurityException ex) {
+            // Then the JDK's defaults will have to do
+        }
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Properties">
+    /**
+     * Gets and returns the maximum amount of connections to the same host in use at the same time.
+     * @return The per-host connection limit.
+     */
+    public int getMaxConnectionsPerHost() { return maxConnectionsPerHost; }
+
+    /**
+     * Gets and returns the maximum amount of idle connections kept alive per host.
+     * @return The per-host idle limit.
+     */
+    public int getMaxIdlePerHost() { return maxIdlePerHost; }
+
+    /**
+     * Gets and returns the time an idle connection is kept alive.
+     * @return The idle timeout in milliseconds.
+     */
+    public long getIdleTimeout() { return idleTimeout; }
+
+    /**
+     * Gets and returns a snapshot of the connections handed out by this manager.
+     * @return The current statistics.
+     */
+    public ConnectionStatistics getStatistics() {
+        long now = System.currentTimeMillis();
+        int idle = 0;
+        for (HostPool hostPool : hostPools.values())
+            idle += hostPool.getIdleCount(now);
+        return new ConnectionStatistics(leasedCount.get(), idle, createdCount.get(), reusedCount.get(), abortedCount.get());
+    }
+    //</editor-fold>
+
+    /**
+     * Opens a connection to the given URL, waiting for a free slot if the host's limit has been reached.
+     * @param url The URL to connect to.
+     * @return The exchange around the unconnected connection.
+     * @throws IOException If the connection could not be opened, or the thread was interrupted while waiting.
+     */
+    @Override
+    public Exchange open(URL url) throws IOException {
+        HostPool hostPool = getHostPool(url);
+        try {
+            hostPool.permits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection to " + url.getHost() + "!");
+        }
+
+        try {
+            HttpURLConnection httpConnect = (HttpURLConnection)url.openConnection();
+            leasedCount.incrementAndGet();
+            if (hostPool.takeIdle(System.currentTimeMillis()))
+                reusedCount.incrementAndGet();
+            else
+                createdCount.incrementAndGet();
+            return new UrlConnectionExchange(url, httpConnect, hostPool);
+        } catch (IOException | RuntimeException ex) {
+            hostPool.permits.release();
+            throw ex;
+        }
+    }
+
+    private HostPool getHostPool(URL url) {
+        int port = url.getPort() < 0 ? url.getDefaultPort() : url.getPort();
+        String key = url.getProtocol() + "://" + (url.getHost() == null ? "" : url.getHost().toLowerCase(Locale.ROOT)) + ":" + port;
+        HostPool hostPool = hostPools.get(key);
+        if (hostPool == null) {
+            HostPool newHostPool = new HostPool(maxConnectionsPerHost);
+            hostPool = hostPools.putIfAbsent(key, newHostPool);
+            if (hostPool == null)
+                hostPool = newHostPool;
+        }
+        return hostPool;
+    }
+
+    /**
+     * An exchange over an {@link HttpURLConnection}.
+     */
+    private final class UrlConnectionExchange extends Exchange {
+
+        private final HttpURLConnection httpConnect;
+        private final HostPool hostPool;
+        private final AtomicBoolean released;
+        private volatile long connectTime = -1;
+
+        UrlConnectionExchange(URL url, HttpURLConnection httpConnect, HostPool hostPool) {
+            super(url);
+            this.httpConnect = httpConnect;
+            this.hostPool = hostPool;
+            this.released = new AtomicBoolean();
+        }
+
+        @Override
+        public long getConnectTime() { return connectTime; }
+
+        /**
+         * Connects explicitly before the response is first asked for, so the time it takes can be measured.
+         * Errors are left for the response methods to report.
+         */
+        private void connect() {
+            if (connectTime >= 0)
+                return;
+            long start = System.nanoTime();
+            try {
+                httpConnect.connect();
+            } catch (IOException ex) {
+                return;
+            }
+            connectTime = System.nanoTime() - start;
+        }
+
+        @Override
+        public void setRequestMethod(String method) throws IOException { httpConnect.setRequestMethod(method); }
+
+        @Override
+        public void setRequestHeader(String name, String value) { httpConnect.setRequestProperty(name, value); }
+
+        @Override
+        public int getResponseCode() throws IOException {
+            connect();
+            return httpConnect.getResponseCode();
+        }
+
+        @Override
+        public String getHeaderField(String name) {
+            connect();
+            return httpConnect.getHeaderField(name);
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            connect();
+            int responseCode = httpConnect.getResponseCode();
+            if (responseCode >= HttpURLConnection.HTTP_BAD_REQUEST)
+                throw createStatusException(responseCode);
+            return wrapBody(httpConnect.getInputStream());
+        }
+
+        @Override
+        public long getContentLength() {
+            connect();
+            return httpConnect.getContentLengthLong();
+        }
+
+        @Override
+        public long getHeaderFieldLong(String name, long defaultValue) {
+            connect();
+            return httpConnect.getHeaderFieldLong(name, defaultValue);
+        }
+
+        @Override
+        public long getHeaderFieldDate(String name, long defaultValue) {
+            connect();
+            return httpConnect.getHeaderFieldDate(name, defaultValue);
+        }
+
+        @Override
+        public void release() {
+            if (!released.compareAndSet(false, true))
+                return;
+            if (isKeptAlive())
+                hostPool.putIdle(System.currentTimeMillis());
+            returnLease();
+        }
+
+        /**
+         * Decides whether the JDK keeps the socket alive after this response, following the rules of its keep-alive cache.
+         * @return False if the server closes the connection after the response, or the body was delimited by closing it.
+         */
+        private boolean isKeptAlive() {
+            String connection = httpConnect.getHeaderField("Connection");
+            if (hasToken(connection, "close"))
+                return false;
+            String statusLine = httpConnect.getHeaderField(0);
+            if (statusLine != null && statusLine.startsWith("HTTP/1.0") && !hasToken(connection, "keep-alive"))
+                return false;
+            if ("HEAD".equals(httpConnect.getRequestMethod()))
+                return true;
+            int responseCode;
+            try {
+                responseCode = httpConnect.getResponseCode();
+            } catch (IOException ex) {
+                return false;
+            }
+            if (responseCode == HttpURLConnection.HTTP_NO_CONTENT || responseCode == HttpURLConnection.HTTP_NOT_MODIFIED)
+                return true;
+            // Without a length, the body is only delimited by chunking or by the end of the connection
+            return httpConnect.getContentLengthLong() >= 0 || hasToken(httpConnect.getHeaderField("Transfer-Encoding"), "chunked");
+        }
+
+        @Override
+        public void releaseUnread() {
+            if (released.get())
+                return;
+            try {
+                InputStream iStream;
+                try {
+                    iStream = httpConnect.getInputStream();
+                } catch (IOException ex) {
+                    // Error responses are read from the error stream
+                    iStream = httpConnect.getErrorStream();
+                }
+                if (iStream != null && !drain(iStream)) {
+                    abort();
+                    return;
+                }
+                release();
+            } catch (IOException ex) {
+                abort();
+            }
+        }
+
+        @Override
+        public void abort() {
+            markAborted();
+            if (!released.compareAndSet(false, true))
+                return;
+            httpConnect.disconnect();
+            abortedCount.incrementAndGet();
+            returnLease();
+        }
+
+        private void returnLease() {
+            leasedCount.decrementAndGet();
+            hostPool.permits.release();
+        }
+
+    }
+
+    private static boolean hasToken(String header, String token) {
+        if (header == null)
+            return false;
+        for (String value : header.split(","))
+            if (value.trim().equalsIgnoreCase(token))
+                return true;
+        return false;
+    }
+
+    /**
+     * The connections to a single host.
+     * Keeps the times at which idle connections were released, most recent last.
+     */
+    private final class HostPool {
+
+        private final Semaphore permits;
+        private final ArrayDeque<Long> idleSince;
+
+        HostPool(int maxConnections) {
+            this.permits = new Semaphore(maxConnections, true);
+            this.idleSince = new ArrayDeque<>();
+        }
+
+        synchronized boolean takeIdle(long now) {
+            expire(now);
+            // Like the JDK's cache, hand out the most recently used connection
+            return idleSince.pollLast() != null;
+        }
+
+        synchronized void putIdle(long now) {
+            expire(now);
+            if (!keepAlive || maxIdlePerHost == 0)
+                return;
+            if (idleSince.size() >= maxIdlePerHost)
+                idleSince.pollFirst();
+            idleSince.addLast(now);
+        }
+
+        synchronized int getIdleCount(long now) {
+            expire(now);
+            return idleSince.size();
+        }
+
+        private void expire(long now) {
+            while (!idleSince.isEmpty() && now - idleSince.peekFirst() >= idleTimeout)
+                idleSince.pollFirst();
+        }
+
+    }
+
+}
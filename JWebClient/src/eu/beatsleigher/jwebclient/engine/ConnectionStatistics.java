@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.engine;
+
+/**
+ * A snapshot of the connections handed out by a {@link ConnectionManager}.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public final class ConnectionStatistics {
+
+    private final int leasedCount;
+    private final int idleCount;
+    private final long createdCount;
+    private final long reusedCount;
+    private final long abortedCount;
+
+    /**
+     * Default constructor.
+     * @param leasedCount The amount of connections currently in use.
+     * @param idleCount The amount of connections kept alive for reuse.
+     * @param createdCount The amount of connections which needed a new socket.
+     * @param reusedCount The amount of connections which could reuse an idle socket.
+     * @param abortedCount The amount of connections which were closed instead of being kept alive.
+     */
+    public ConnectionStatistics(int leasedCount, int idleCount, long createdCount, long reusedCount, long abortedCount) {
+        this.leasedCount = leasedCount;
+        this.idleCount = idleCount;
+        this.createdCount = createdCount;
+        this.reusedCount = reusedCount;
+        this.abortedCount = abortedCount;
+    }
+
+    /**
+     * Gets and returns the amount of connections currently in use.
+     * @return The amount of leased connections.
+     */
+    public int getLeasedCount() { return leasedCount; }
+
+    /**
+     * Gets and returns the amount of connections kept alive for reuse.
+     * @return The amount of idle connections.
+     */
+    public int getIdleCount() { return idleCount; }
+
+    /**
+     * Gets and returns the amount of connections which needed a new socket.
+     * @return The amount of created connections.
+     */
+    public long getCreatedCount() { return createdCount; }
+
+    /**
+     * Gets and returns the amount of connections which could reuse an idle socket.
+     * @return The amount of reused connections.
+     */
+    public long getReusedCount() { return reusedCount; }
+
+    /**
+     * Gets and returns the amount of connections which were closed instead of being kept alive.
+     * @return The amount of aborted connections.
+     */
+    public long getAbortedCount() { return abortedCount; }
+
+    /**
+     * Gets and returns the share of connections which could reuse an idle socket.
+     * @return The reuse ratio between 0 and 1, or 0 if no connection has been opened yet.
+     */
+    public double getReuseRatio() {
+        long total = createdCount + reusedCount;
+        return total == 0 ? 0 : (double)reusedCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d leased, %d idle, %d created, %d reused, %d aborted",
+                leasedCount, idleCount, createdCount, reusedCount, abortedCount);
+    }
+
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.engine;
+
+import eu.beatsleigher.jwebclient.interfaces.Disposeable;
+import java.io.*;
+import java.lang.reflect.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * The DownloadEngine runs the asynchronous downloads of {@link eu.beatsleigher.jwebclient.JWebClient}.
+ *
+ * All downloads are executed on a single {@link ExecutorService}. By default, that's an executor which starts a virtual thread
+ * per download if the runtime supports virtual threads, or a fixed pool of daemon threads otherwise.
+ * On top of that, the engine limits how many downloads may run at once, in total and per host.
+ * Downloads over the limit wait for a free slot instead of opening yet another connection.
+ * Waiting downloads don't occupy a thread: they are parked per host, and handed to the executor once a download finishes.
+ * A download first takes a slot for its host and only then a global one, so a backlog for one host never keeps
+ * the downloads from other hosts waiting.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.1
+ */
+public class DownloadEngine implements Disposeable {
+
+    /**
+     * The default maximum amount of downloads running at the same time.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_DOWNLOADS = 64;
+
+    /**
+     * The default maximum amount of downloads from the same host running at the same time.
+     */
+    public static final int DEFAULT_MAX_DOWNLOADS_PER_HOST = 8;
+
+    private static volatile DownloadEngine defaultInstance;
+
+    private final ExecutorService executor;
+    private final Map<String, Integer> runningPerHost;
+    private final Map<String, Deque<Task<?>>> parkedTasks;
+    private final Deque<Task<?>> readyTasks;
+    private final int maxConcurrentDownloads;
+    private final int maxDownloadsPerHost;
+    private int runningCount = 0;
+
+    /**
+     * Creates an engine with the default executor and limits.
+     */
+    public DownloadEngine() {
+        this(createDefaultExecutor(DEFAULT_MAX_CONCURRENT_DOWNLOADS), DEFAULT_MAX_CONCURRENT_DOWNLOADS, DEFAULT_MAX_DOWNLOADS_PER_HOST);
+    }
+
+    /**
+     * Creates an engine which runs its downloads on the given executor.
+     * @param executor The executor to run the downloads on. The engine takes ownership of it and shuts it down when disposed.
+     * @param maxConcurrentDownloads The maximum amount of downloads running at the same time.
+     * @param maxDownloadsPerHost The maximum amount of downloads from a single host running at the same time.
+     */
+    public DownloadEngine(ExecutorService executor, int maxConcurrentDownloads, int maxDownloadsPerHost) {
+        if (executor == null)
+            throw new IllegalArgumentException("executor must not be null!");
+        if (maxConcurrentDownloads <= 0 || maxDownloadsPerHost <= 0)
+            throw new IllegalArgumentException("The download limits must be greater than zero!");
+        this.executor = executor;
+        this.runningPerHost = new HashMap<>();
+        this.parkedTasks = new HashMap<>();
+        this.readyTasks = new ArrayDeque<>();
+        this.maxConcurrentDownloads = maxConcurrentDownloads;
+        this.maxDownloadsPerHost = maxDownloadsPerHost;
+    }
+
+    /**
+     * Gets and returns the engine used by all clients which haven't been given one explicitly.
+     * The engine is created on first use.
+     * @return The default download engine.
+     */
+    public static DownloadEngine getDefault() {
+        DownloadEngine engine = defaultInstance;
+        if (engine == null) {
+            synchronized (DownloadEngine.class) {
+                engine = defaultInstance;
+                if (engine == null)
+                    defaultInstance = engine = new DownloadEngine();
+            }
+        }
+        return engine;
+    }
+
+    /**
+     * Replaces the default engine. The previous default engine is <b>not</b> disposed.
+     * @param engine The new default engine.
+     */
+    public static void setDefault(DownloadEngine engine) {
+        if (engine == null)
+            throw new IllegalArgumentException("engine must not be null!");
+        defaultInstance = engine;
+    }
+
+    /**
+     * Creates the executor used by {@link #DownloadEngine()}.
+     * Uses a virtual thread per task where the runtime provides them; otherwise a fixed pool of daemon threads.
+     * @param poolSize The size of the thread pool, if virtual threads are not available.
+     * @return The new executor.
+     */
+    public static ExecutorService createDefaultExecutor(int poolSize) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService)factory.invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException ex) {
+            // No virtual threads on this runtime (or only as a disabled preview feature)
+        }
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(poolSize, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "JWebClient-download-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Gets and returns the maximum amount of downloads running at the same time.
+     * @return The global download limit.
+     */
+    public int getMaxConcurrentDownloads() { return maxConcurrentDownloads; }
+
+    /**
+     * Gets and returns the maximum amount of downloads from a single host running at the same time.
+     * @return The per-host download limit.
+     */
+    public int getMaxDownloadsPerHost() { return maxDownloadsPerHost; }
+
+    /**
+     * Runs a download on this engine.
+     * The download waits until both a slot for its host and a global slot are available, without taking up a thread meanwhile.
+     * @param <T> The result type of the download.
+     * @param source The URL that is downloaded. Used to determine the host.
+     * @param download The download itself.
+     * @return A future which completes with the result of the download, or exceptionally with the exception it threw.
+     */
+    public <T> CompletableFuture<T> submit(URL source, Callable<T> download) {
+        String host = source == null || source.getHost() == null ? "" : source.getHost().toLowerCase(Locale.ROOT);
+        Task<T> task = new Task<>(host, download);
+        synchronized (this) {
+            int running = runningPerHost.getOrDefault(host, 0);
+            if (running >= maxDownloadsPerHost) {
+                // Put it aside until a download from the same host has finished
+                parkedTasks.computeIfAbsent(host, key -> new ArrayDeque<>()).addLast(task);
+                return task.future;
+            }
+            runningPerHost.put(host, running + 1);
+            if (runningCount >= maxConcurrentDownloads) {
+                readyTasks.addLast(task);
+                return task.future;
+            }
+            runningCount++;
+        }
+        execute(task);
+        return task.future;
+    }
+
+    private void execute(Task<?> task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException ex) {
+            task.future.completeExceptionally(ex);
+            finished(task);
+        }
+    }
+
+    /**
+     * Gives back the slots of a download which has finished (or was never run), and starts the downloads waiting for them.
+     * @param task The download which has finished.
+     */
+    private void finished(Task<?> task) {
+        Task<?> next;
+        synchronized (this) {
+            runningCount--;
+            Deque<Task<?>> parked = parkedTasks.get(task.host);
+            if (parked != null && !parked.isEmpty()) {
+                // The host's slot goes straight to its next download, which waits for a global slot like any other
+                readyTasks.addLast(parked.pollFirst());
+                if (parked.isEmpty())
+                    parkedTasks.remove(task.host);
+            } else {
+                int running = runningPerHost.get(task.host) - 1;
+                if (running == 0)
+                    runningPerHost.remove(task.host);
+                else
+                    runningPerHost.put(task.host, running);
+            }
+            next = readyTasks.pollFirst();
+            if (next != null)
+                runningCount++;
+        }
+        if (next != null)
+            execute(next);
+    }
+
+    /**
+     * Shuts the executor down. Running downloads are allowed to finish, new downloads are rejected.
+     */
+    @Override
+    public void dispose() {
+        executor.shutdown();
+    }
+
+    /**
+     * A download which has been submitted to the engine, and the future it completes.
+     */
+    private final class Task<T> implements Runnable {
+
+        private final String host;
+        private final Callable<T> download;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Task(String host, Callable<T> download) {
+            this.host = host;
+            this.download = download;
+        }
+
+        @Override
+        public void run() {
+            try {
+                // Unless it was cancelled while waiting for a slot
+                if (!future.isDone())
+                    future.complete(download.call());
+            } catch (Throwable ex) {
+                future.completeExceptionally(ex);
+            } finally {
+                finished(this);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.engine;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * A single download shared through a {@link SingleFlight}.
+ *
+ * The leader reports the progress of the download as it goes and finally {@link #complete(Object) completes}
+ * or {@link #fail(Throwable) fails} the flight; the followers {@link #addObserver(Observer) observe} the progress
+ * and {@link #await() wait} for the result.
+ * If the leader retries, every attempt is reported as started again.
+ * The observers are called on the leader's thread, but outside the flight's lock; an observer which throws is dropped,
+ * so it can neither fail the leader's download nor keep the other followers from hearing about it.
+ *
+ * @param <T> The type of the result.
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.1
+ */
+public final class Flight<T> {
+
+    private final SingleFlight singleFlight;
+    private final String key;
+    private final AtomicBoolean led;
+    private final CompletableFuture<T> result;
+    private final List<Observer> observers;
+    private boolean started = false;
+    private long remoteSize = -1;
+    private long initialDataRead = 0;
+    private long totalDataRead = 0;
+    private long wireDataRead = -1;
+
+    Flight(SingleFlight singleFlight, String key) {
+        this.singleFlight = singleFlight;
+        this.key = key;
+        this.led = new AtomicBoolean();
+        this.result = new CompletableFuture<>();
+        this.observers = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Gets and returns the key the flight was joined with.
+     * @return The key of the flight.
+     */
+    public String getKey() { return key; }
+
+    /**
+     * Claims the lead of the flight. Every client which joined the flight calls this exactly once.
+     * @return True for the first caller, which must download and land the flight; false for everyone else, who follow it.
+     */
+    public boolean lead() {
+        if (led.compareAndSet(false, true))
+            return true;
+        singleFlight.followed();
+        return false;
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Leader">
+    /**
+     * Reports that an attempt at the download has received its response.
+     * @param remoteSize The size of the remote file, or -1 if unknown.
+     * @param initialDataRead The amount of bytes the attempt started with, e.g. when resuming.
+     */
+    public void started(long remoteSize, long initialDataRead) {
+        Iterator<Observer> snapshot;
+        synchronized (this) {
+            this.started = true;
+            this.remoteSize = remoteSize;
+            this.initialDataRead = initialDataRead;
+            this.totalDataRead = initialDataRead;
+            this.wireDataRead = -1;
+            snapshot = observers.iterator();
+        }
+        while (snapshot.hasNext()) {
+            Observer observer = snapshot.next();
+            try {
+                observer.started(remoteSize, initialDataRead);
+            } catch (RuntimeException ex) {
+                observers.remove(observer);
+            }
+        }
+    }
+
+    /**
+     * Reports that a chunk of the download has arrived. May be called from several threads at once.
+     * @param bytes The size of the chunk.
+     * @param wireDataRead The amount of bytes received so far, if the response is decoded; -1 otherwise.
+     */
+    public void transferred(long bytes, long wireDataRead) {
+        Iterator<Observer> snapshot;
+        synchronized (this) {
+            this.totalDataRead += bytes;
+            if (wireDataRead >= 0)
+                this.wireDataRead = wireDataRead;
+            // Observers added after this point have already been told about these bytes
+            snapshot = observers.iterator();
+        }
+        while (snapshot.hasNext()) {
+            Observer observer = snapshot.next();
+            try {
+                observer.transferred(bytes, wireDataRead);
+            } catch (RuntimeException ex) {
+                observers.remove(observer);
+            }
+        }
+    }
+
+    /**
+     * Lands the flight with the result of the download. Ignored if the flight has already landed.
+     * @param result The result.
+     */
+    public void complete(T result) {
+        singleFlight.land(this);
+        this.result.complete(result);
+    }
+
+    /**
+     * Lands the flight with the error which ended the download. Ignored if the flight has already landed.
+     * @param error The error. Thrown to every follower.
+     */
+    public void fail(Throwable error) {
+        singleFlight.land(this);
+        this.result.completeExceptionally(error);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Followers">
+    /**
+     * Adds an observer of the progress of the download.
+     * If the current attempt has already started, the observer is told so right away, and about the bytes received so far.
+     * If it throws while doing so, the exception is passed on to the caller, and the observer isn't added.
+     * @param observer The observer to add.
+     */
+    public synchronized void addObserver(Observer observer) {
+        if (observer == null)
+            throw new IllegalArgumentException("observer must not be null!");
+        if (started) {
+            observer.started(remoteSize, initialDataRead);
+            if (totalDataRead > initialDataRead)
+                observer.transferred(totalDataRead - initialDataRead, wireDataRead);
+        }
+        observers.add(observer);
+    }
+
+    /**
+     * Waits for the flight to land.
+     * @return The result of the download.
+     * @throws IOException The error which ended the download, or an {@link InterruptedIOException} if the wait was interrupted.
+     */
+    public T await() throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the download of " + key + "!");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException)
+                throw (IOException)cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException)cause;
+            if (cause instanceof Error)
+                throw (Error)cause;
+            throw new IOException("Download of " + key + " failed!", cause);
+        }
+    }
+    //</editor-fold>
+
+    /**
+     * Follows the progress of a flight. Called on the leader's thread, so it should be quick.
+     * The calls for a single attempt may come from several threads at once.
+     */
+    public interface Observer {
+
+        /**
+         * Called when an attempt at the download has received its response.
+         * @param remoteSize The size of the remote file, or -1 if unknown.
+         * @param initialDataRead The amount of bytes the attempt started with.
+         */
+        void started(long remoteSize, long initialDataRead);
+
+        /**
+         * Called when a chunk of the download has arrived.
+         * @param bytes The size of the chunk.
+         * @param wireDataRead The amount of bytes received so far, if the response is decoded; -1 otherwise.
+         */
+        void transferred(long bytes, long wireDataRead);
+
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.engine;
+
+import eu.beatsleigher.jwebclient.io.DigestAlgorithm;
+import java.io.*;
+import java.net.*;
+import java.util.*;
+
+/**
+ * The list of files a {@link MirrorDownload} keeps in sync.
+ *
+ * Entries can be added one by one, or {@link #read(Reader, URL) read} from a text file with one entry per line:
+ * <pre>
+ * # path        url                    size    entity tag   digest
+ * docs/a.pdf    files/a.pdf            104857  "5f3c-19999"  SHA-256=7d865e959b2466918c9863afca942d0fb89d7c9ac0c99bafc3749504ded97730
+ * lib/b.jar     https://cdn.example/b  -       -             -
+ * </pre>
+ * Fields are separated by whitespace; unknown ones are given as <code>-</code> and may be left out at the end of the line.
+ * Relative URLs are resolved against the URL the manifest was read from. The digest may be hex or base64 encoded.
+ * Lines which are empty or start with <code>#</code> are skipped.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public class Manifest {
+
+    private final Map<String, ManifestEntry> entries;
+
+    /**
+     * Creates an empty manifest.
+     */
+    public Manifest() {
+        this.entries = new LinkedHashMap<>();
+    }
+
+    /**
+     * Reads a manifest.
+     * @param reader The text of the manifest. Read to the end, but not closed.
+     * @param baseUrl The URL to resolve relative URLs against, usually the one the manifest was downloaded from. May be null
+     * if all URLs are absolute.
+     * @return The manifest.
+     * @throws IOException If the manifest could not be read, or contains a malformed line.
+     */
+    public static Manifest read(Reader reader, URL baseUrl) throws IOException {
+        Manifest manifest = new Manifest();
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = bufferedReader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+            try {
+                manifest.add(parseEntry(line.split("\\s+"), baseUrl));
+            } catch (IllegalArgumentException | MalformedURLException ex) {
+                // Also thrown for malformed sizes and paths
+                throw new IOException("Malformed manifest line " + lineNumber + ": " + ex.getMessage(), ex);
+            }
+        }
+        return manifest;
+    }
+
+    private static ManifestEntry parseEntry(String[] fields, URL baseUrl) throws MalformedURLException {
+        if (fields.length < 2 || fields.length > 5)
+            throw new IllegalArgumentException("Expected a path, a URL, and optionally a size, an entity tag and a digest!");
+        URL source = baseUrl == null ? new URL(fields[1]) : new URL(baseUrl, fields[1]);
+        String size = getField(fields, 2);
+        String entityTag = getField(fields, 3);
+        String digest = getField(fields, 4);
+
+        DigestAlgorithm digestAlgorithm = null;
+        if (digest != null) {
+            int i = digest.indexOf('=');
+            digestAlgorithm = i > 0 ? DigestAlgorithm.forName(digest.substring(0, i)) : null;
+            if (digestAlgorithm == null)
+                throw new IllegalArgumentException("Unknown digest: " + digest + "!");
+            digest = digest.substring(i + 1);
+        }
+        return new ManifestEntry(fields[0], source, size == null ? -1 : Long.parseLong(size), entityTag, digestAlgorithm, digest);
+    }
+
+    private static String getField(String[] fields, int index) {
+        return index >= fields.length || fields[index].equals("-") ? null : fields[index];
+    }
+
+    /**
+     * Adds an entry to the manifest, replacing any entry with the same path.
+     * @param entry The entry to add.
+     */
+    public void add(ManifestEntry entry) {
+        if (entry == null)
+            throw new IllegalArgumentException("entry must not be null!");
+        entries.put(entry.getPath(), entry);
+    }
+
+    /**
+     * Gets and returns the entry with the given path.
+     * @param path The relative path of the file.
+     * @return The entry, or null if the manifest doesn't contain the file.
+     */
+    public ManifestEntry get(String path) { return entries.get(path); }
+
+    /**
+     * Gets and returns all entries, in the order they were added.
+     * @return The unmodifiable list of entries.
+     */
+    public List<ManifestEntry> getEntries() { return Collections.unmodifiableList(new ArrayList<>(entries.values())); }
+
+    /**
+     * Gets and returns the amount of entries.
+     * @return The size of the manifest.
+     */
+    public int size() { return entries.size(); }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.engine;
+
+import eu.beatsleigher.jwebclient.io.DigestAlgorithm;
+import java.net.*;
+
+/**
+ * A single file of a {@link Manifest}: where it's downloaded from, where it goes, and what is known about its version.
+ *
+ * The size, entity tag and digest are all optional, but at least one of them is needed
+ * for a {@link MirrorDownload} to tell whether the file has changed since it was last downloaded.
+ * Entries are immutable.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public final class ManifestEntry {
+
+    private final String path;
+    private final URL source;
+    private final long size;
+    private final String entityTag;
+    private final DigestAlgorithm digestAlgorithm;
+    private final String digest;
+
+    /**
+     * Creates an entry which only knows where the file is.
+     * @param path The path of the file, relative to the root of the mirror, with <code>/</code> as separator.
+     * @param source The URL to download the file from.
+     */
+    public ManifestEntry(String path, URL source) {
+        this(path, source, -1, null, null, null);
+    }
+
+    /**
+     * Creates an entry.
+     * @param path The path of the file, relative to the root of the mirror, with <code>/</code> as separator.
+     * @param source The URL to download the file from.
+     * @param size The size of the file in bytes, or -1 if unknown.
+     * @param entityTag The entity tag of the file, or null if unknown.
+     * @param digestAlgorithm The algorithm of the digest, or null if no digest is known.
+     * @param digest The digest of the file, hex or base64 encoded; downloads are verified against it. Null if unknown.
+     */
+    public ManifestEntry(String path, URL source, long size, String entityTag, DigestAlgorithm digestAlgorithm, String digest) {
+        if (path == null || source == null)
+            throw new IllegalArgumentException("path and source must not be null!");
+        if ((digestAlgorithm == null) != (digest == null))
+            throw new IllegalArgumentException("digestAlgorithm and digest must be given together!");
+        if (!isRelative(path))
+            throw new IllegalArgumentException("The path must be relative, and must not leave the mirror: " + path + "!");
+        this.path = path;
+        this.source = source;
+        this.size = size < 0 ? -1 : size;
+        this.entityTag = entityTag;
+        this.digestAlgorithm = digestAlgorithm;
+        this.digest = digest;
+    }
+
+    private static boolean isRelative(String path) {
+        if (path.isEmpty() || path.startsWith("/") || path.indexOf('\\') >= 0 || path.indexOf(':') >= 0)
+            return false;
+        for (String segment : path.split("/"))
+            if (segment.isEmpty() || segment.equals(".") || segment.equals(".."))
+                return false;
+        return true;
+    }
+
+    /**
+     * Gets and returns the path of the file, relative to the root of the mirror.
+     * @return The relative path, with <code>/</code> as separator.
+     */
+    public String getPath() { return path; }
+
+    /**
+     * Gets and returns the URL to download the file from.
+     * @return The source of the file.
+     */
+    public URL getSource() { return source; }
+
+    /**
+     * Gets and returns the size of the file.
+     * @return The size in bytes, or -1 if unknown.
+     */
+    public long getSize() { return size; }
+
+    /**
+     * Gets and returns the entity tag of the file.
+     * @return The entity tag, or null if unknown.
+     */
+    public String getEntityTag() { return entityTag; }
+
+    /**
+     * Gets and returns the algorithm of the digest.
+     * @return The digest algorithm, or null if no digest is known.
+     */
+    public DigestAlgorithm getDigestAlgorithm() { return digestAlgorithm; }
+
+    /**
+     * Gets and returns the digest of the file.
+     * @return The hex or base64 encoded digest, or null if unknown.
+     */
+    public String getDigest() { return digest; }
+
+    /**
+     * Gets and returns whether anything is known about the version of the file.
+     * @return True if the size, the entity tag or the digest is known.
+     */
+    public boolean isVersioned() { return size >= 0 || entityTag != null || digest != null; }
+
+    @Override
+    public String toString() {
+        return path + " <- " + source;
+    }
+
+}
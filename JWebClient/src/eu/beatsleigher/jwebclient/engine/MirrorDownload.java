@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.engine;
+
+import eu.beatsleigher.jwebclient.JWebClient;
+import eu.beatsleigher.jwebclient.events.*;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Keeps a local directory in sync with a {@link Manifest}.
+ *
+ * Each run compares the manifest with the mirror's index, which records the version of every file it has downloaded.
+ * A file is skipped without asking the server if its entry hasn't changed since, and its local copy hasn't been
+ * touched (same size and modification time). Everything else is downloaded as a {@link BatchDownload},
+ * in parallel and within the limits of the engine.
+ * Files are downloaded with atomic output, so a failed download leaves the previous version in place,
+ * and verified against the digest of their entry, if it has one. The index is saved once all downloads have finished.
+ *
+ * The registered listeners receive the usual events of every file which is downloaded; skipped files fire no events.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.1
+ */
+public class MirrorDownload {
+
+    private final Manifest manifest;
+    private final File root;
+    private final MirrorBatch batch;
+    private final Map<File, ManifestEntry> pendingEntries;
+    private final AtomicInteger skippedCount;
+    private final AtomicInteger prunedCount;
+    private boolean pruning = false;
+    private boolean started = false;
+
+    /**
+     * Creates a mirror which downloads on the default engine.
+     * @param manifest The files to mirror.
+     * @param root The directory to mirror them to.
+     */
+    public MirrorDownload(Manifest manifest, File root) {
+        this(manifest, root, DownloadEngine.getDefault());
+    }
+
+    /**
+     * Creates a mirror which downloads on the given engine, using its limits.
+     * @param manifest The files to mirror.
+     * @param root The directory to mirror them to.
+     * @param engine The engine to run the downloads on.
+     */
+    public MirrorDownload(Manifest manifest, File root, DownloadEngine engine) {
+        if (manifest == null || root == null)
+            throw new IllegalArgumentException("manifest and root must not be null!");
+        this.manifest = manifest;
+        this.root = root;
+        this.batch = new MirrorBatch(engine);
+        this.pendingEntries = new HashMap<>();
+        this.skippedCount = new AtomicInteger();
+        this.prunedCount = new AtomicInteger();
+    }
+
+    /**
+     * Registers a listener which is notified whenever the progress of one of the downloads has changed.
+     * @param listener The listener.
+     */
+    public void addDownloadProgressChangedEventListener(DownloadProgressChangedEventListener listener) {
+        batch.addDownloadProgressChangedEventListener(listener);
+    }
+
+    /**
+     * Registers a listener which is notified whenever one of the downloads has finished.
+     * @param listener The listener.
+     */
+    public void addDownloadFileCompletedEventListener(DownloadFileCompletedEventListener listener) {
+        batch.addDownloadFileCompletedEventListener(listener);
+    }
+
+    /**
+     * Gets and returns whether files which are no longer in the manifest are deleted.
+     * @return True if the mirror is pruned.
+     */
+    public synchronized boolean isPruning() { return pruning; }
+
+    /**
+     * Sets whether files which are no longer in the manifest are deleted.
+     * Only files which were downloaded by a previous run are deleted; anything else in the directory is left alone.
+     * @param pruning True to prune the mirror.
+     */
+    public synchronized void setPruning(boolean pruning) { this.pruning = pruning; }
+
+    /**
+     * Gets and returns the amount of files which were up to date, and skipped.
+     * @return The amount of skipped files.
+     */
+    public int getSkippedCount() { return skippedCount.get(); }
+
+    /**
+     * Gets and returns the amount of files which were deleted, because they are no longer in the manifest.
+     * @return The amount of pruned files.
+     */
+    public int getPrunedCount() { return prunedCount.get(); }
+
+    /**
+     * Gets and returns a snapshot of the progress of the downloads. Skipped files are not counted.
+     * @return The statistics of the downloads.
+     */
+    public BatchStatistics getStatistics() { return batch.getStatistics(); }
+
+    /**
+     * Sets up the client of a single download, right before the download starts.
+     * Subclasses may change further settings, e.g. the retry policy; they should call this implementation first.
+     * @param client The client.
+     * @param entry The manifest entry of the file which is downloaded.
+     */
+    protected void configure(JWebClient client, ManifestEntry entry) {
+        client.setAtomicOutput(true);
+        if (entry.getDigest() != null) {
+            client.setDigestAlgorithm(entry.getDigestAlgorithm());
+            client.setExpectedDigest(entry.getDigest());
+        }
+    }
+
+    /**
+     * Starts the run: prunes the mirror if enabled, skips the files which are up to date, and downloads the rest.
+     * @return A future which completes with the statistics of the downloads once they have all finished, successfully or not,
+     * and the index has been saved; or exceptionally if the index could not be saved.
+     */
+    public CompletableFuture<BatchStatistics> start() {
+        synchronized (this) {
+            if (started)
+                throw new IllegalStateException("The mirror has already been started!");
+            started = true;
+        }
+
+        final MirrorIndex index = new MirrorIndex(root);
+        List<CompletableFuture<Void>> indexed = new ArrayList<>();
+        if (isPruning())
+            prune(index);
+        for (final ManifestEntry entry : manifest.getEntries()) {
+            File target = getFile(entry);
+            if (index.isUpToDate(entry, target)) {
+                skippedCount.incrementAndGet();
+                continue;
+            }
+            // A failure here is reported by the download
+            target.getParentFile().mkdirs();
+            pendingEntries.put(target, entry);
+            indexed.add(batch.add(entry.getSource(), target).handle((file, ex) -> {
+                if (ex == null)
+                    index.put(entry, file);
+                return null;
+            }));
+        }
+
+        final CompletableFuture<BatchStatistics> completion = new CompletableFuture<>();
+        // Only save the index once every download has been recorded in it
+        CompletableFuture<Void> allIndexed = CompletableFuture.allOf(indexed.toArray(new CompletableFuture<?>[0]));
+        batch.start().thenCombine(allIndexed, (statistics, ignored) -> statistics).whenComplete((statistics, ex) -> {
+            try {
+                index.save();
+                if (ex != null)
+                    completion.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+                else
+                    completion.complete(statistics);
+            } catch (IOException saveEx) {
+                completion.completeExceptionally(saveEx);
+            }
+        });
+        return completion;
+    }
+
+    /**
+     * Deletes the files the index knows about, but the manifest doesn't.
+     */
+    private void prune(MirrorIndex index) {
+        for (String path : index.getPaths()) {
+            if (manifest.get(path) != null)
+                continue;
+            File file = getFile(path);
+            if (!file.exists() || file.delete()) {
+                index.remove(path);
+                prunedCount.incrementAndGet();
+            }
+        }
+    }
+
+    private File getFile(ManifestEntry entry) { return getFile(entry.getPath()); }
+
+    private File getFile(String path) { return new File(root, path.replace('/', File.separatorChar)); }
+
+    /**
+     * The batch which runs the downloads, set up by the mirror.
+     */
+    private final class MirrorBatch extends BatchDownload {
+
+        MirrorBatch(DownloadEngine engine) {
+            super(engine);
+        }
+
+        @Override
+        protected void configure(JWebClient client) {
+            MirrorDownload.this.configure(client, pendingEntries.get(client.getDownloadPath()));
+        }
+
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.engine;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * The on-disk state of a {@link MirrorDownload}: for every file it has downloaded, the version of the file according
+ * to the manifest, and the size and modification time the local file had right after the download.
+ *
+ * A file whose manifest entry still matches, and whose local copy still has the recorded size and modification time,
+ * is up to date without asking the server.
+ * The index is a small binary file in the root of the mirror. It's replaced atomically when saved,
+ * so a crash leaves either the old or the new index behind. An index which can't be read is treated as empty.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+final class MirrorIndex {
+
+    /**
+     * The name of the index file in the root of the mirror.
+     */
+    static final String INDEX_FILE_NAME = ".jwebclient-mirror";
+
+    private static final int MAGIC = 0x4A574D49; // JWMI
+    private static final int VERSION = 1;
+
+    private final File indexFile;
+    private final Map<String, Record> records;
+
+    /**
+     * Loads the index of a mirror, if there is one.
+     * @param root The root of the mirror.
+     */
+    MirrorIndex(File root) {
+        this.indexFile = new File(root, INDEX_FILE_NAME);
+        this.records = new HashMap<>();
+        if (!indexFile.isFile())
+            return;
+        try (DataInputStream iStream = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (iStream.readInt() != MAGIC || iStream.readInt() != VERSION)
+                return;
+            for (int i = iStream.readInt(); i > 0; i--) {
+                String path = iStream.readUTF();
+                records.put(path, new Record(iStream.readUTF(), iStream.readLong(), readOptionalUTF(iStream),
+                        readOptionalUTF(iStream), iStream.readLong(), iStream.readLong()));
+            }
+        } catch (IOException ex) {
+            // Then every file is downloaded again, which rebuilds the index
+            records.clear();
+        }
+    }
+
+    private static String readOptionalUTF(DataInputStream iStream) throws IOException {
+        return iStream.readBoolean() ? iStream.readUTF() : null;
+    }
+
+    private static void writeOptionalUTF(DataOutputStream oStream, String value) throws IOException {
+        oStream.writeBoolean(value != null);
+        if (value != null)
+            oStream.writeUTF(value);
+    }
+
+    /**
+     * Checks whether the local copy of a file is the version described by its manifest entry.
+     * @param entry The manifest entry of the file.
+     * @param file The local copy of the file.
+     * @return True if the file doesn't need to be downloaded.
+     */
+    synchronized boolean isUpToDate(ManifestEntry entry, File file) {
+        Record record = records.get(entry.getPath());
+        if (record == null || !entry.isVersioned() || !record.describes(entry))
+            return false;
+        return file.isFile() && file.length() == record.localSize && file.lastModified() == record.lastModified;
+    }
+
+    /**
+     * Records that a file has been downloaded.
+     * @param entry The manifest entry of the file.
+     * @param file The local copy of the file, as it was just written.
+     */
+    synchronized void put(ManifestEntry entry, File file) {
+        records.put(entry.getPath(), new Record(entry.getSource().toExternalForm(), entry.getSize(), entry.getEntityTag(),
+                getDigest(entry), file.length(), file.lastModified()));
+    }
+
+    /**
+     * Forgets a file.
+     * @param path The relative path of the file.
+     */
+    synchronized void remove(String path) {
+        records.remove(path);
+    }
+
+    /**
+     * Gets and returns the paths of all files in the index.
+     * @return A copy of the set of relative paths.
+     */
+    synchronized Set<String> getPaths() { return new HashSet<>(records.keySet()); }
+
+    /**
+     * Writes the index to its file, replacing the previous one.
+     * @throws IOException If the index could not be written.
+     */
+    synchronized void save() throws IOException {
+        File tempFile = new File(indexFile.getPath() + ".tmp");
+        try (DataOutputStream oStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            oStream.writeInt(MAGIC);
+            oStream.writeInt(VERSION);
+            oStream.writeInt(records.size());
+            for (Map.Entry<String, Record> entry : records.entrySet()) {
+                Record record = entry.getValue();
+                oStream.writeUTF(entry.getKey());
+                oStream.writeUTF(record.source);
+                oStream.writeLong(record.size);
+                writeOptionalUTF(oStream, record.entityTag);
+                writeOptionalUTF(oStream, record.digest);
+                oStream.writeLong(record.localSize);
+                oStream.writeLong(record.lastModified);
+            }
+        }
+        try {
+            Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String getDigest(ManifestEntry entry) {
+        return entry.getDigest() == null ? null : entry.getDigestAlgorithm().getName() + "=" + entry.getDigest();
+    }
+
+    /**
+     * What the index knows about a single file.
+     */
+    private static final class Record {
+
+        final String source;
+        final long size;
+        final String entityTag;
+        final String digest;
+        final long localSize;
+        final long lastModified;
+
+        Record(String source, long size, String entityTag, String digest, long localSize, long lastModified) {
+            this.source = source;
+            this.size = size;
+            this.entityTag = entityTag;
+            this.digest = digest;
+            this.localSize = localSize;
+            this.lastModified = lastModified;
+        }
+
+        boolean describes(ManifestEntry entry) {
+            return source.equals(entry.getSource().toExternalForm()) && size == entry.getSize()
+                    && Objects.equals(entityTag, entry.getEntityTag()) && Objects.equals(digest, getDigest(entry));
+        }
+
+    }
+
+}
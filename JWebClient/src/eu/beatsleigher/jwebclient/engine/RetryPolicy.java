@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.engine;
+
+import eu.beatsleigher.jwebclient.transport.HttpStatusException;
+import java.io.*;
+import java.net.*;
+import java.util.concurrent.*;
+
+/**
+ * Decides whether and when a failed download is tried again.
+ *
+ * Only failures known to be temporary are retried: broken connections ({@link SocketException}), timeouts
+ * ({@link SocketTimeoutException}), bodies which ended too early ({@link EOFException}), and the server errors
+ * <code>408</code>, <code>429</code> and <code>5xx</code> (except <code>501</code> and <code>505</code>).
+ * Anything else, like a missing file, an unknown host, a file whose digest doesn't match, a full disk
+ * or a response the client cannot handle, fails right away.
+ * The wait before each retry doubles, starting at the initial backoff, up to the maximum backoff.
+ * Half of every wait is random (jitter), so clients which failed together don't all come back at once.
+ * A <code>Retry-After</code> sent by the server is honoured, as long as it fits into the maximum elapsed time.
+ *
+ * A policy may also ask for hedged requests: if the response is slower to arrive than the given percentile
+ * of the time to first byte measured for the host so far, a second request is sent, and the slower one is dropped.
+ *
+ * Policies are immutable.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.2
+ */
+public final class RetryPolicy {
+
+    /**
+     * Never retries. The default of every client.
+     */
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0, 0);
+
+    /**
+     * Up to four attempts, waiting from 250 milliseconds up to ten seconds in between, for at most a minute.
+     */
+    public static final RetryPolicy DEFAULT = new RetryPolicy(4, 250, 10000, 60000);
+
+    /**
+     * The amount of downloads from a host which must have been measured before requests to it are hedged.
+     */
+    public static final int MIN_HEDGE_SAMPLES = 20;
+
+    private final int maxAttempts;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final long maxElapsedTime;
+    private final double hedgePercentile;
+
+    /**
+     * Creates a policy without hedged requests.
+     * @param maxAttempts The maximum amount of attempts, including the first one. One means no retries.
+     * @param initialBackoff The time (in milliseconds) to wait before the first retry.
+     * @param maxBackoff The longest time (in milliseconds) to wait before any retry.
+     * @param maxElapsedTime The time (in milliseconds) after the first attempt started, beyond which no retry is started.
+     */
+    public RetryPolicy(int maxAttempts, long initialBackoff, long maxBackoff, long maxElapsedTime) {
+        this(maxAttempts, initialBackoff, maxBackoff, maxElapsedTime, 0);
+    }
+
+    /**
+     * Default constructor.
+     * @param maxAttempts The maximum amount of attempts, including the first one. One means no retries.
+     * @param initialBackoff The time (in milliseconds) to wait before the first retry.
+     * @param maxBackoff The longest time (in milliseconds) to wait before any retry.
+     * @param maxElapsedTime The time (in milliseconds) after the first attempt started, beyond which no retry is started.
+     * @param hedgePercentile The percentile of the time to first byte after which a second request is sent, or zero to never hedge.
+     */
+    public RetryPolicy(int maxAttempts, long initialBackoff, long maxBackoff, long maxElapsedTime, double hedgePercentile) {
+        if (maxAttempts < 1)
+            throw new IllegalArgumentException("There must be at least one attempt!");
+        if (initialBackoff < 0 || maxBackoff < initialBackoff || maxElapsedTime < 0)
+            throw new IllegalArgumentException("Backoff times must not be negative, and the maximum not smaller than the initial one!");
+        if (hedgePercentile < 0 || hedgePercentile >= 100)
+            throw new IllegalArgumentException("Hedge percentile must be between 0 and 100!");
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.maxElapsedTime = maxElapsedTime;
+        this.hedgePercentile = hedgePercentile;
+    }
+
+    /**
+     * Creates a copy of this policy which hedges requests.
+     * @param hedgePercentile The percentile of the time to first byte after which a second request is sent, e.g. 95.
+     * @return The new policy.
+     */
+    public RetryPolicy withHedging(double hedgePercentile) {
+        return new RetryPolicy(maxAttempts, initialBackoff, maxBackoff, maxElapsedTime, hedgePercentile);
+    }
+
+    /**
+     * Gets and returns the maximum amount of attempts, including the first one.
+     * @return The maximum amount of attempts.
+     */
+    public int getMaxAttempts() { return maxAttempts; }
+
+    /**
+     * Gets and returns the time to wait before the first retry.
+     * @return The initial backoff in milliseconds.
+     */
+    public long getInitialBackoff() { return initialBackoff; }
+
+    /**
+     * Gets and returns the longest time to wait before any retry.
+     * @return The maximum backoff in milliseconds.
+     */
+    public long getMaxBackoff() { return maxBackoff; }
+
+    /**
+     * Gets and returns the time after the first attempt started, beyond which no retry is started.
+     * @return The maximum elapsed time in milliseconds.
+     */
+    public long getMaxElapsedTime() { return maxElapsedTime; }
+
+    /**
+     * Gets and returns the percentile of the time to first byte after which a second request is sent.
+     * @return The percentile, or zero if requests aren't hedged.
+     */
+    public double getHedgePercentile() { return hedgePercentile; }
+
+    /**
+     * Gets and returns whether the policy allows any retries.
+     * @return True if there may be more than one attempt.
+     */
+    public boolean isRetrying() { return maxAttempts > 1; }
+
+    /**
+     * Gets and returns whether a failure is worth another attempt.
+     * @param ex The exception the attempt failed with.
+     * @return True if the failure is known to be temporary.
+     */
+    public boolean isRetryable(IOException ex) {
+        if (ex instanceof HttpStatusException) {
+            int statusCode = ((HttpStatusException)ex).getStatusCode();
+            return statusCode == HttpURLConnection.HTTP_CLIENT_TIMEOUT || statusCode == 429
+                    || (statusCode >= 500 && statusCode != HttpURLConnection.HTTP_NOT_IMPLEMENTED && statusCode != HttpURLConnection.HTTP_VERSION);
+        }
+        // Anything else, e.g. a file system error, is a problem which won't go away by itself
+        return ex instanceof SocketException || ex instanceof SocketTimeoutException || ex instanceof EOFException;
+    }
+
+    /**
+     * Decides whether a failed attempt is retried, and how long to wait before.
+     * @param ex The exception the attempt failed with.
+     * @param failedAttempts The amount of attempts which have failed so far, including this one.
+     * @param elapsedTime The time (in milliseconds) since the first attempt started.
+     * @return The time to wait in milliseconds, or -1 if the download should fail.
+     */
+    public long getRetryDelay(IOException ex, int failedAttempts, long elapsedTime) {
+        if (failedAttempts >= maxAttempts || !isRetryable(ex))
+            return -1;
+
+        long backoff = initialBackoff << Math.min(failedAttempts - 1, 30);
+        if (backoff < 0 || backoff > maxBackoff)
+            backoff = maxBackoff;
+        long delay = backoff / 2 + (backoff > 1 ? ThreadLocalRandom.current().nextLong(backoff - backoff / 2) : 0);
+        if (ex instanceof HttpStatusException)
+            delay = Math.max(delay, ((HttpStatusException)ex).getRetryAfter());
+        return elapsedTime + delay > maxElapsedTime ? -1 : delay;
+    }
+
+    /**
+     * Waits for the given time before a retry.
+     * @param delay The time to wait in milliseconds.
+     * @throws InterruptedIOException If the thread was interrupted while waiting.
+     */
+    public static void pause(long delay) throws InterruptedIOException {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry!");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d attempts, backoff %d-%d ms, at most %d ms%s", maxAttempts, initialBackoff, maxBackoff, maxElapsedTime,
+                hedgePercentile > 0 ? ", hedged at p" + hedgePercentile : "");
+    }
+
+}
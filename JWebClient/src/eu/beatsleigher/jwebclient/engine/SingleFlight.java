@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.engine;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Makes concurrent downloads of the same thing share a single request.
+ *
+ * Clients which are given the same coordinator {@link #join(String) join} a flight, keyed on what they download.
+ * The first one to join leads the flight and actually downloads; those joining while it's in flight follow it,
+ * and receive its result (or its error) once it lands, along with their own progress events on the way.
+ * A flight is removed as soon as it has landed, so a later download starts a new one: this only merges downloads
+ * which overlap, it doesn't cache anything.
+ *
+ * Downloaded files are copied to the path of every follower, or, if the coordinator links files,
+ * hard-linked where the file system allows it. Linked files share their data, so linking is only safe if the files
+ * are replaced rather than rewritten in place, e.g. because every client uses atomic output.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public class SingleFlight {
+
+    private static volatile SingleFlight defaultInstance;
+
+    private final ConcurrentMap<String, Flight<?>> flights;
+    private final boolean linkingFiles;
+    private final AtomicLong followerCount;
+
+    /**
+     * Creates a coordinator which copies downloaded files to the followers.
+     */
+    public SingleFlight() {
+        this(false);
+    }
+
+    /**
+     * Creates a coordinator.
+     * @param linkingFiles Whether downloaded files are hard-linked to the followers, instead of copied.
+     */
+    public SingleFlight(boolean linkingFiles) {
+        this.flights = new ConcurrentHashMap<>();
+        this.linkingFiles = linkingFiles;
+        this.followerCount = new AtomicLong();
+    }
+
+    /**
+     * Gets and returns a coordinator shared by everyone who asks for it.
+     * It copies downloaded files. The coordinator is created on first use.
+     * @return The default coordinator.
+     */
+    public static SingleFlight getDefault() {
+        SingleFlight singleFlight = defaultInstance;
+        if (singleFlight == null) {
+            synchronized (SingleFlight.class) {
+                singleFlight = defaultInstance;
+                if (singleFlight == null)
+                    defaultInstance = singleFlight = new SingleFlight();
+            }
+        }
+        return singleFlight;
+    }
+
+    /**
+     * Gets and returns whether downloaded files are hard-linked to the followers.
+     * @return True if files are linked, false if they are copied.
+     */
+    public boolean isLinkingFiles() { return linkingFiles; }
+
+    /**
+     * Gets and returns the amount of flights currently in the air.
+     * @return The amount of flights.
+     */
+    public int getFlightCount() { return flights.size(); }
+
+    /**
+     * Gets and returns the amount of downloads so far which followed another one, instead of sending their own request.
+     * @return The amount of followers.
+     */
+    public long getFollowerCount() { return followerCount.get(); }
+
+    /**
+     * Joins the flight with the given key, or starts a new one if there's none in the air.
+     * Call {@link Flight#lead()} on the result to find out whether to lead or follow it.
+     * @param <T> The type of the result of the flight.
+     * @param key What is downloaded, i.e. the URL and everything else which makes a difference to the result.
+     * @return The flight.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Flight<T> join(String key) {
+        if (key == null)
+            throw new IllegalArgumentException("key must not be null!");
+        Flight<?> flight = flights.get(key);
+        if (flight == null) {
+            Flight<T> newFlight = new Flight<>(this, key);
+            flight = flights.putIfAbsent(key, newFlight);
+            if (flight == null)
+                return newFlight;
+        }
+        return (Flight<T>)flight;
+    }
+
+    /**
+     * Removes a flight which has landed, so the next download with its key starts a new one.
+     */
+    void land(Flight<?> flight) {
+        flights.remove(flight.getKey(), flight);
+    }
+
+    /**
+     * Counts a download which followed a flight.
+     */
+    void followed() {
+        followerCount.incrementAndGet();
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.events;
+
+import java.net.*;
+import java.util.*;
+
+/**
+ * Event class.
+ * 
+ * This class represents an event which is fired when a download of raw data has completed.
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public class DownloadDataCompletedEvent extends EventObject {
+    
+    private static final long serialVersionUID = 1L;
+    
+    protected final URL downloadSource;
+    protected final byte[] downloadedData;
+
+    /**
+     * Default constructor.
+     * @param source The calling object.
+     * @param downloadSource The URL from which the data was downloaded.
+     * @param downloadedData The downloaded data. Null if the download failed.
+     */
+    public DownloadDataCompletedEvent(Object source, URL downloadSource, byte[] downloadedData) {
+        super(source);
+        this.downloadSource = downloadSource;
+        this.downloadedData = downloadedData;
+    }
+    
+    /**
+     * Gets and returns the URL from which the data was downloaded.
+     * @return {@link URL} object containing the web address
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public URL getDownloadSource() { return downloadSource; }
+    
+    /**
+     * Gets and returns the downloaded data.
+     * The array is not copied; it is the same array the client returns from getDownloadedData().
+     * @return The downloaded data as byte-array. Null if the download failed.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public byte[] getDownloadedData() { return downloadedData; }
+    
+}
@@ -27,15 +27,24 @@ import java.util.*;
  * Event class.
  * 
  * This class represents an event which is fired when the progress of an ongoing event has changed.
+ * 
+ * To keep the download loop free of allocations, JWebClient fires the same event object over and over during a download,
+ * updating its values in between. Listeners must therefore not hold on to the event itself; 
+ * copy the values you need instead.
+ * 
+ * If the server compressed the response, {@link #getFileSize()} counts the decompressed bytes,
+ * while {@link #getWireSize()} counts the bytes actually received; the source size and percentage refer to the latter.
  * @author Beatsleigher
  */
 public class DownloadProgressChangedEvent extends EventObject {
     
-    protected final URL downloadSource;
-    protected final File downloadPath;
-    protected final float progressPercentage;
-    protected final long sourceSize;
-    protected final long fileSize;
+    protected URL downloadSource;
+    protected File downloadPath;
+    protected float progressPercentage;
+    protected long sourceSize;
+    protected long fileSize;
+    protected long wireSize;
+    protected boolean finalEvent;
 
     /**
      * Default constructor.
@@ -55,6 +64,23 @@ public class DownloadProgressChangedEvent extends EventObject {
         this.progressPercentage = progressPercentage;
         this.sourceSize = sourceSize;
         this.fileSize = fileSize;
+        this.wireSize = fileSize;
+    }
+    
+    /**
+     * Constructor for compressed downloads.
+     * @param source The calling object.
+     * @param downloadSource The URL from which data is downloaded from.
+     * @param downloadPath The path on the local machine where the file is downloaded to.
+     * @param progressPercentage The current progress of the download.
+     * @param sourceSize The size of the remote file, as sent over the network.
+     * @param fileSize The size of the local file.
+     * @param wireSize The amount of bytes received over the network.
+     */
+    public DownloadProgressChangedEvent(Object source, URL downloadSource, File downloadPath, 
+                                        float progressPercentage, long sourceSize, long fileSize, long wireSize) {
+        this(source, downloadSource, downloadPath, progressPercentage, sourceSize, fileSize);
+        this.wireSize = wireSize;
     }
     
     /**
@@ -100,4 +126,25 @@ public class DownloadProgressChangedEvent extends EventObject {
      */
     public long getFileSize() { return fileSize; }
     
+    /**
+     * Gets and returns the amount of bytes received over the network.
+     * This only differs from {@link #getFileSize()} if the server compressed the response.
+     * @return A 64-bit signed integer containing the amount of bytes received.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public long getWireSize() { return wireSize; }
+    
+    /**
+     * Gets and returns whether this is the last progress event of the download, fired once it has finished.
+     * Listeners without a filter aren't told about the final event if they've already been told about the same progress,
+     * so the last event they see might not be marked as final.
+     * @return True for the final event.
+     * @author Beatsleigher
+     * @since 17-10-2026
+     * @version 1.0
+     */
+    public boolean isFinal() { return finalEvent; }
+    
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.events;
+
+/**
+ * Decides which events a listener gets to see.
+ *
+ * A listener registered with a filter is only notified of the events the filter accepts.
+ * Filters are asked from the thread which fires the events, so they should be quick and must not block.
+ *
+ * @param <E> The type of the events.
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public interface EventFilter<E> {
+
+    /**
+     * Accepts only the {@link DownloadProgressChangedEvent#isFinal() final} progress event of every download.
+     * While all progress listeners of a client use this filter, its downloads don't dispatch any progress events at all
+     * until they've finished.
+     */
+    public static final EventFilter<DownloadProgressChangedEvent> FINAL_PROGRESS = new EventFilter<DownloadProgressChangedEvent>() {
+        @Override
+        public boolean accept(DownloadProgressChangedEvent evt) {
+            return evt.isFinal();
+        }
+
+        @Override
+        public boolean isFinalOnly() {
+            return true;
+        }
+    };
+
+    /**
+     * Decides whether the listener is notified of an event.
+     * @param evt The event.
+     * @return True to notify the listener.
+     */
+    public boolean accept(E evt);
+
+    /**
+     * Gets and returns whether this filter rejects every progress event but the final one.
+     * Progress listeners with such a filter don't cost anything while a download runs.
+     * @return False, unless overridden.
+     */
+    public default boolean isFinalOnly() { return false; }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.io;
+
+import java.nio.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A very small pool of {@link ByteBuffer} objects.
+ *
+ * Direct buffers are expensive to allocate and are only freed when the garbage collector gets around to it,
+ * so the download methods lease them from here and give them back when they're done.
+ * Heap buffers are pooled as well, so repeated small downloads don't keep allocating scratch arrays.
+ * Buffers are kept per kind and capacity; only a limited number of buffers per capacity are retained,
+ * and buffers larger than {@link #MAX_POOLED_CAPACITY} are never retained.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.1
+ */
+public final class BufferPool {
+
+    /**
+     * The default size (in bytes) of the buffers used for downloading.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The default number of buffers retained per capacity.
+     */
+    public static final int DEFAULT_MAX_POOLED_BUFFERS = 16;
+
+    /**
+     * The largest buffer (in bytes) the pool holds on to.
+     */
+    public static final int MAX_POOLED_CAPACITY = 4 * 1024 * 1024;
+
+    private static final BufferPool sharedInstance = new BufferPool(DEFAULT_MAX_POOLED_BUFFERS);
+
+    private final ConcurrentMap<Integer, Queue<ByteBuffer>> pooledBuffers;
+    private final ConcurrentMap<Integer, Queue<ByteBuffer>> pooledHeapBuffers;
+    private final int maxPooledBuffers;
+
+    /**
+     * Default constructor.
+     * @param maxPooledBuffers The maximum amount of buffers retained per capacity.
+     */
+    public BufferPool(int maxPooledBuffers) {
+        if (maxPooledBuffers < 0)
+            throw new IllegalArgumentException("maxPooledBuffers must not be negative!");
+        this.pooledBuffers = new ConcurrentHashMap<>();
+        this.pooledHeapBuffers = new ConcurrentHashMap<>();
+        this.maxPooledBuffers = maxPooledBuffers;
+    }
+
+    /**
+     * Gets and returns the pool shared by all {@link eu.beatsleigher.jwebclient.JWebClient} instances.
+     * @return The shared buffer pool.
+     */
+    public static BufferPool getSharedInstance() { return sharedInstance; }
+
+    /**
+     * Leases a cleared direct buffer with the given capacity.
+     * If no pooled buffer is available, a new one is allocated.
+     * @param capacity The capacity (in bytes) of the requested buffer.
+     * @return A cleared direct {@link ByteBuffer}.
+     */
+    public ByteBuffer lease(int capacity) {
+        ByteBuffer buffer = poll(pooledBuffers, capacity);
+        return buffer == null ? ByteBuffer.allocateDirect(capacity) : buffer;
+    }
+
+    /**
+     * Leases a cleared heap buffer with the given capacity.
+     * The buffer is backed by an accessible array, starting at offset zero.
+     * If no pooled buffer is available, a new one is allocated.
+     * @param capacity The capacity (in bytes) of the requested buffer.
+     * @return A cleared heap {@link ByteBuffer}.
+     */
+    public ByteBuffer leaseHeap(int capacity) {
+        ByteBuffer buffer = poll(pooledHeapBuffers, capacity);
+        return buffer == null ? ByteBuffer.allocate(capacity) : buffer;
+    }
+
+    private static ByteBuffer poll(ConcurrentMap<Integer, Queue<ByteBuffer>> buffers, int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be greater than zero!");
+        Queue<ByteBuffer> queue = buffers.get(capacity);
+        ByteBuffer buffer = queue == null ? null : queue.poll();
+        if (buffer != null)
+            buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool.
+     * The buffer must not be used by the caller after it has been released.
+     * @param buffer The buffer to give back. Read-only buffers, slices, oversized buffers and null are ignored.
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || buffer.isReadOnly() || buffer.capacity() > MAX_POOLED_CAPACITY)
+            return;
+        if (!buffer.isDirect() && (!buffer.hasArray() || buffer.arrayOffset() != 0))
+            return;
+        ConcurrentMap<Integer, Queue<ByteBuffer>> buffers = buffer.isDirect() ? pooledBuffers : pooledHeapBuffers;
+        Queue<ByteBuffer> queue = buffers.get(buffer.capacity());
+        if (queue == null) {
+            Queue<ByteBuffer> newQueue = new ConcurrentLinkedQueue<>();
+            queue = buffers.putIfAbsent(buffer.capacity(), newQueue);
+            if (queue == null)
+                queue = newQueue;
+        }
+        // The size check is racy, but the worst that can happen is that we keep a buffer or two too many.
+        if (queue.size() < maxPooledBuffers)
+            queue.offer(buffer);
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.io;
+
+import java.security.*;
+
+/**
+ * The algorithms a download can be digested with while it's being written.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public enum DigestAlgorithm {
+
+    /**
+     * SHA-256. The one to use unless the server only publishes something else.
+     */
+    SHA_256("SHA-256"),
+
+    /**
+     * MD5. Only good for detecting accidental damage, but still what <code>Content-MD5</code> and many mirrors publish.
+     */
+    MD5("MD5"),
+
+    /**
+     * CRC-32C (Castagnoli). Not a cryptographic hash, but computed by the CPU at several gigabytes per second.
+     */
+    CRC32C("CRC32C");
+
+    private final String name;
+
+    private DigestAlgorithm(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets and returns the name of the algorithm, as used in the HTTP <code>Digest</code> header.
+     * @return The name of the algorithm.
+     */
+    public String getName() { return name; }
+
+    /**
+     * Creates a new, empty digester for this algorithm.
+     * @return The digester.
+     */
+    public Digester newDigester() {
+        // Spelled out, as the constant hides the class
+        if (this == CRC32C)
+            return new Digester(this, new java.util.zip.CRC32C());
+        try {
+            return new Digester(this, MessageDigest.getInstance(name));
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256 and MD5
+            throw new IllegalStateException(name + " is not supported!", ex);
+        }
+    }
+
+    /**
+     * Finds the value for this algorithm in an HTTP <code>Digest</code> header,
+     * e.g. <code>SHA-256=X48E9qOokqqrvdts8nOJRJN3OWDUoyWxBf7kbu9DBPE=, MD5=...</code>.
+     * @param digestHeader The value of the header. May be null.
+     * @return The (base64 encoded) digest, or null if the header doesn't contain one for this algorithm.
+     */
+    public String findIn(String digestHeader) {
+        if (digestHeader == null)
+            return null;
+        for (String instance : digestHeader.split(",")) {
+            int i = instance.indexOf('=');
+            if (i > 0 && instance.substring(0, i).trim().equalsIgnoreCase(name))
+                return instance.substring(i + 1).trim();
+        }
+        return null;
+    }
+
+    /**
+     * Gets the algorithm with the given name.
+     * @param name The name of the algorithm, as returned by {@link #getName()}. Not case-sensitive.
+     * @return The algorithm, or null if it isn't supported.
+     */
+    public static DigestAlgorithm forName(String name) {
+        for (DigestAlgorithm algorithm : values())
+            if (algorithm.name.equalsIgnoreCase(name))
+                return algorithm;
+        return null;
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.io;
+
+import java.io.*;
+import java.net.*;
+
+/**
+ * Thrown if the digest of a downloaded file differs from the one expected, or the one the server sent.
+ * The file is left as it was downloaded.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public class DigestMismatchException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final URL url;
+    private final String expected;
+    private final DownloadDigest actual;
+
+    /**
+     * Default constructor.
+     * @param url The URL the file was downloaded from.
+     * @param expected The digest the file should have had.
+     * @param actual The digest the file has.
+     */
+    public DigestMismatchException(URL url, String expected, DownloadDigest actual) {
+        super(String.format("%s digest of %s is %s, expected %s!", actual.getAlgorithm().getName(), url, actual.toHex(), expected));
+        this.url = url;
+        this.expected = expected;
+        this.actual = actual;
+    }
+
+    /**
+     * Gets and returns the URL the file was downloaded from.
+     * @return The URL of the download.
+     */
+    public URL getUrl() { return url; }
+
+    /**
+     * Gets and returns the digest the file should have had.
+     * @return The expected digest, as given or sent by the server.
+     */
+    public String getExpected() { return expected; }
+
+    /**
+     * Gets and returns the digest the file has.
+     * @return The actual digest.
+     */
+    public DownloadDigest getActual() { return actual; }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.io;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.security.*;
+import java.util.zip.*;
+
+/**
+ * Computes the digest of a download from the chunks it is written in, so the file needn't be read again afterwards.
+ * Not thread-safe; the chunks must be fed in the order in which they appear in the file.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public final class Digester {
+
+    private final DigestAlgorithm algorithm;
+    private final MessageDigest messageDigest;
+    private final Checksum checksum;
+    private long length = 0;
+
+    Digester(DigestAlgorithm algorithm, MessageDigest messageDigest) {
+        this.algorithm = algorithm;
+        this.messageDigest = messageDigest;
+        this.checksum = null;
+    }
+
+    Digester(DigestAlgorithm algorithm, Checksum checksum) {
+        this.algorithm = algorithm;
+        this.messageDigest = null;
+        this.checksum = checksum;
+    }
+
+    /**
+     * Gets and returns the algorithm of this digester.
+     * @return The digest algorithm.
+     */
+    public DigestAlgorithm getAlgorithm() { return algorithm; }
+
+    /**
+     * Gets and returns the amount of bytes digested so far.
+     * @return The digested length in bytes.
+     */
+    public long getLength() { return length; }
+
+    /**
+     * Adds the remaining bytes of a buffer to the digest. The position of the buffer is left where it was.
+     * @param buffer The buffer holding the next chunk.
+     */
+    public void update(ByteBuffer buffer) {
+        int position = buffer.position();
+        length += buffer.remaining();
+        if (messageDigest != null)
+            messageDigest.update(buffer);
+        else
+            checksum.update(buffer);
+        buffer.position(position);
+    }
+
+    /**
+     * Adds a region of a file to the digest, e.g. the part of a download which was written by a previous attempt.
+     * @param channel The channel of the file.
+     * @param position The position of the first byte to digest.
+     * @param count The amount of bytes to digest.
+     * @throws IOException If the file could not be read, or is shorter than the region.
+     */
+    public void update(FileChannel channel, long position, long count) throws IOException {
+        BufferPool bufferPool = BufferPool.getSharedInstance();
+        ByteBuffer buffer = bufferPool.lease(BufferPool.DEFAULT_BUFFER_SIZE);
+        long end = position + count;
+        try {
+            while (position < end) {
+                buffer.clear();
+                buffer.limit((int)Math.min(buffer.capacity(), end - position));
+                int i = channel.read(buffer, position);
+                if (i < 0)
+                    throw new EOFException(String.format("File ended at %d, before %d bytes could be digested!", position, count));
+                buffer.flip();
+                update(buffer);
+                position += i;
+            }
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * Completes the digest. The digester must not be used afterwards.
+     * @return The digest of everything that was fed to this digester.
+     */
+    public DownloadDigest finish() {
+        if (messageDigest != null)
+            return new DownloadDigest(algorithm, messageDigest.digest(), length);
+        long value = checksum.getValue();
+        return new DownloadDigest(algorithm, new byte[] { (byte)(value >>> 24), (byte)(value >>> 16), (byte)(value >>> 8), (byte)value }, length);
+    }
+
+}
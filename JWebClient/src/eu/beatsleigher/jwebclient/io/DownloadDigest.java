@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.io;
+
+import java.security.*;
+import java.util.*;
+
+/**
+ * The digest of a downloaded file.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public final class DownloadDigest {
+
+    private final DigestAlgorithm algorithm;
+    private final byte[] value;
+    private final long length;
+
+    /**
+     * Default constructor.
+     * @param algorithm The algorithm the digest was computed with.
+     * @param value The digest.
+     * @param length The amount of bytes digested.
+     */
+    public DownloadDigest(DigestAlgorithm algorithm, byte[] value, long length) {
+        if (algorithm == null || value == null)
+            throw new IllegalArgumentException("algorithm and value must not be null!");
+        this.algorithm = algorithm;
+        this.value = value.clone();
+        this.length = length;
+    }
+
+    /**
+     * Gets and returns the algorithm the digest was computed with.
+     * @return The digest algorithm.
+     */
+    public DigestAlgorithm getAlgorithm() { return algorithm; }
+
+    /**
+     * Gets and returns the digest.
+     * @return A copy of the digest bytes.
+     */
+    public byte[] getValue() { return value.clone(); }
+
+    /**
+     * Gets and returns the amount of bytes digested.
+     * @return The length of the digested file.
+     */
+    public long getLength() { return length; }
+
+    /**
+     * Gets and returns the digest as lower-case hexadecimal digits, as printed by <code>sha256sum</code> and the like.
+     * @return The hexadecimal digest.
+     */
+    public String toHex() {
+        StringBuilder hex = new StringBuilder(value.length * 2);
+        for (byte b : value)
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return hex.toString();
+    }
+
+    /**
+     * Gets and returns the digest encoded in base64, as used in HTTP headers.
+     * @return The base64 encoded digest.
+     */
+    public String toBase64() { return Base64.getEncoder().encodeToString(value); }
+
+    /**
+     * Checks whether the digest equals an expected value.
+     * @param expected The expected digest, either in hexadecimal digits (any case) or encoded in base64.
+     * @return True if the digests are equal. False if they differ, or the expected value can't be decoded.
+     */
+    public boolean matches(String expected) {
+        if (expected == null)
+            return false;
+        expected = expected.trim();
+        byte[] expectedValue;
+        if (expected.length() == value.length * 2 && expected.matches("[0-9a-fA-F]+")) {
+            expectedValue = new byte[value.length];
+            for (int i = 0; i < value.length; i++)
+                expectedValue[i] = (byte)Integer.parseInt(expected.substring(i * 2, i * 2 + 2), 16);
+        } else {
+            try {
+                expectedValue = Base64.getDecoder().decode(expected);
+            } catch (IllegalArgumentException ex) {
+                return false;
+            }
+        }
+        return MessageDigest.isEqual(value, expectedValue);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof DownloadDigest))
+            return false;
+        DownloadDigest other = (DownloadDigest)obj;
+        return algorithm == other.algorithm && Arrays.equals(value, other.value);
+    }
+
+    @Override
+    public int hashCode() { return algorithm.hashCode() * 31 + Arrays.hashCode(value); }
+
+    @Override
+    public String toString() { return algorithm.getName() + "=" + toHex(); }
+
+}
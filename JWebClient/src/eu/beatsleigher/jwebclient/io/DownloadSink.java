@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package eu.beatsleigher.jwebclient.io;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+/**
+ * Takes the body of a download as it arrives, instead of a file.
+ *
+ * A download into a sink (see {@link eu.beatsleigher.jwebclient.JWebClient#downloadTo(DownloadSink)})
+ * hands every chunk it reads straight to {@link #write(ByteBuffer)}, so a body can be uploaded elsewhere,
+ * or piped into a decoder, without being written to the disk first.
+ * The chunks are read into the same pooled buffer again and again, so the sink must be done with a chunk
+ * once it returns from {@link #write(ByteBuffer)}; a sink which needs to keep the data must copy it.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface DownloadSink {
+
+    /**
+     * Takes the next chunk of the body.
+     * @param chunk The chunk, between its position and its limit. Only valid until this method returns.
+     * @throws IOException If the chunk could not be written. The download is aborted and not retried.
+     */
+    void write(ByteBuffer chunk) throws IOException;
+
+    /**
+     * Called once the whole body has been written (and, if a digest was asked for, verified).
+     * Not called if the download fails. Does nothing by default.
+     * @throws IOException If the sink could not be completed.
+     */
+    default void finish() throws IOException {}
+
+    /**
+     * Creates a sink which writes to a stream. The stream is flushed once the download is complete, but never closed.
+     * @param oStream The stream to write to.
+     * @return The sink.
+     */
+    static DownloadSink of(final OutputStream oStream) {
+        if (oStream == null)
+            throw new IllegalArgumentException("oStream must not be null!");
+        return new DownloadSink() {
+            @Override
+            public void write(ByteBuffer chunk) throws IOException {
+                // The client reads into heap buffers, so this is never copied
+                if (chunk.hasArray()) {
+                    oStream.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+                    chunk.position(chunk.limit());
+                    return;
+                }
+                byte[] data = new byte[chunk.remaining()];
+                chunk.get(data);
+                oStream.write(data);
+            }
+
+            @Override
+            public void finish() throws IOException {
+                oStream.flush();
+            }
+        };
+    }
+
+    /**
+     * Creates a sink which writes to a channel. The channel must be in blocking mode, and is never closed.
+     * @param channel The channel to write to.
+     * @return The sink.
+     */
+    static DownloadSink of(final WritableByteChannel channel) {
+        if (channel == null)
+            throw new IllegalArgumentException("channel must not be null!");
+        return new DownloadSink() {
+            @Override
+            public void write(ByteBuffer chunk) throws IOException {
+                while (chunk.hasRemaining())
+                    channel.write(chunk);
+            }
+        };
+    }
+
+}
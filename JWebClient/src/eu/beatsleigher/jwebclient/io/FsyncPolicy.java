@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.io;
+
+/**
+ * Decides when a downloaded file is forced to the disk (<code>fsync</code>).
+ *
+ * Until then, the written data may only be in the operating system's cache, and is lost if the system crashes;
+ * forcing it out costs throughput, in particular on spinning disks.
+ * Resumable downloads additionally force the file every time their journal is updated, whatever the policy.
+ * Policies are immutable.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public final class FsyncPolicy {
+
+    /**
+     * Never forces the file; the operating system writes it back when it sees fit. The default.
+     */
+    public static final FsyncPolicy NONE = new FsyncPolicy(false, 0);
+
+    /**
+     * Forces the file once it's complete, before it is moved into place and the download is reported as done.
+     */
+    public static final FsyncPolicy ON_COMPLETION = new FsyncPolicy(true, 0);
+
+    private final boolean syncOnCompletion;
+    private final long interval;
+
+    private FsyncPolicy(boolean syncOnCompletion, long interval) {
+        this.syncOnCompletion = syncOnCompletion;
+        this.interval = interval;
+    }
+
+    /**
+     * Creates a policy which forces the file every time the given amount of data has been written, and once it's complete.
+     * This bounds both the data lost in a crash and the amount of dirty pages which pile up during large downloads.
+     * @param interval The amount of bytes after which the file is forced.
+     * @return The new policy.
+     */
+    public static FsyncPolicy every(long interval) {
+        if (interval <= 0)
+            throw new IllegalArgumentException("Interval must be greater than zero!");
+        return new FsyncPolicy(true, interval);
+    }
+
+    /**
+     * Gets and returns whether the file is forced once it's complete.
+     * @return True if the file is forced on completion.
+     */
+    public boolean isSyncOnCompletion() { return syncOnCompletion; }
+
+    /**
+     * Gets and returns the amount of bytes after which the file is forced while it's written.
+     * @return The interval in bytes, or zero if the file isn't forced while it's written.
+     */
+    public long getInterval() { return interval; }
+
+    @Override
+    public String toString() {
+        return interval > 0 ? "every " + interval + " bytes" : syncOnCompletion ? "on completion" : "none";
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.io;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+/**
+ * Writes to a file through windows of it mapped into memory.
+ *
+ * Only the part of the file that exists is mapped, so the file should be set to its final size first.
+ * Writes beyond the end of the file go through the channel instead.
+ * A writer is not thread safe, but several writers may write to different parts of the same file at once,
+ * without sharing a lock.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public final class MappedFileWriter implements Flushable {
+
+    /**
+     * The default size (in bytes) of the part of the file that is mapped at once.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 16 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final int windowSize;
+    private MappedByteBuffer window = null;
+    private long windowStart = 0;
+
+    /**
+     * Creates a writer with windows of {@link #DEFAULT_WINDOW_SIZE} bytes.
+     * @param channel The channel of the file. Must be open for reading and writing.
+     */
+    public MappedFileWriter(FileChannel channel) {
+        this(channel, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Default constructor.
+     * @param channel The channel of the file. Must be open for reading and writing.
+     * @param windowSize The size (in bytes) of the part of the file that is mapped at once.
+     */
+    public MappedFileWriter(FileChannel channel, int windowSize) {
+        if (channel == null)
+            throw new IllegalArgumentException("Channel must not be null!");
+        if (windowSize <= 0)
+            throw new IllegalArgumentException("Window size must be greater than zero!");
+        this.channel = channel;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Writes all remaining bytes of a buffer to the file.
+     * @param source The bytes to write. Its position is moved to its limit.
+     * @param position The position in the file to write the bytes to.
+     * @throws IOException If the file could not be mapped or written.
+     */
+    public void write(ByteBuffer source, long position) throws IOException {
+        while (source.hasRemaining()) {
+            if (!mapWindow(position)) {
+                while (source.hasRemaining())
+                    position += channel.write(source, position);
+                return;
+            }
+
+            window.position((int)(position - windowStart));
+            int count = Math.min(source.remaining(), window.remaining());
+            ByteBuffer chunk = source.duplicate();
+            chunk.limit(chunk.position() + count);
+            window.put(chunk);
+            source.position(source.position() + count);
+            position += count;
+        }
+    }
+
+    /**
+     * Makes sure the window containing the given position is mapped.
+     * @param position The position in the file.
+     * @return False if the position is beyond the end of the file.
+     * @throws IOException If the file could not be mapped.
+     */
+    private boolean mapWindow(long position) throws IOException {
+        if (window != null && position >= windowStart && position < windowStart + window.capacity())
+            return true;
+
+        long size = channel.size();
+        if (position >= size)
+            return false;
+        // The previous window is unmapped once it's garbage collected; its pages are written back by the OS
+        windowStart = position - position % windowSize;
+        window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, Math.min(windowSize, size - windowStart));
+        return true;
+    }
+
+    /**
+     * Writes the current window back to the disk.
+     * Together with {@link FileChannel#force(boolean)}, this makes everything written so far durable.
+     */
+    @Override
+    public void flush() {
+        if (window != null)
+            window.force();
+    }
+
+}
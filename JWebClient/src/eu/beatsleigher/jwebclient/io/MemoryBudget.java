@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package eu.beatsleigher.jwebclient.io;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * An amount of memory which the transfer buffers of concurrent downloads share.
+ *
+ * Downloads which size their buffers adaptively start with a small buffer, which is always granted,
+ * and only get a larger one as long as the budget has room for it. A budget shared by many downloads
+ * thus caps the memory they hold at once, however fast each of them is. 
+ * Reserving and releasing memory is lock-free.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public final class MemoryBudget {
+
+    /**
+     * The limit (in bytes) of the default budget.
+     */
+    public static final long DEFAULT_LIMIT = 64 * 1024 * 1024;
+
+    private static final MemoryBudget defaultInstance = new MemoryBudget(DEFAULT_LIMIT);
+
+    private final AtomicLong reserved;
+    private volatile long limit;
+
+    /**
+     * Default constructor.
+     * @param limit The amount of memory (in bytes) the buffers may take up together.
+     */
+    public MemoryBudget(long limit) {
+        if (limit < 0)
+            throw new IllegalArgumentException("The limit must not be negative!");
+        this.reserved = new AtomicLong();
+        this.limit = limit;
+    }
+
+    /**
+     * Gets and returns the budget shared by all clients which haven't been given a budget of their own.
+     * @return The default budget.
+     */
+    public static MemoryBudget getDefault() { return defaultInstance; }
+
+    /**
+     * Gets and returns the limit.
+     * @return The amount of memory (in bytes) the buffers may take up together.
+     */
+    public long getLimit() { return limit; }
+
+    /**
+     * Sets the limit. Buffers which have already been granted are kept; only further growth is held back by a lower limit.
+     * @param limit The amount of memory (in bytes) the buffers may take up together.
+     */
+    public void setLimit(long limit) {
+        if (limit < 0)
+            throw new IllegalArgumentException("The limit must not be negative!");
+        this.limit = limit;
+    }
+
+    /**
+     * Gets and returns the amount of memory currently reserved.
+     * May exceed the limit, as the initial buffers are always granted.
+     * @return The reserved memory in bytes.
+     */
+    public long getReserved() { return reserved.get(); }
+
+    /**
+     * Reserves memory, whether the budget has room for it or not.
+     * Meant for the smallest buffer a download can work with, which it mustn't be kept waiting for.
+     * @param bytes The amount of memory to reserve.
+     */
+    public void reserve(long bytes) {
+        reserved.addAndGet(bytes);
+    }
+
+    /**
+     * Reserves memory, if the budget has room for it.
+     * @param bytes The amount of memory to reserve.
+     * @return True if the memory was reserved, false if it would exceed the limit.
+     */
+    public boolean tryReserve(long bytes) {
+        long current;
+        do {
+            current = reserved.get();
+            if (current + bytes > limit)
+                return false;
+        } while (!reserved.compareAndSet(current, current + bytes));
+        return true;
+    }
+
+    /**
+     * Gives back memory which was reserved with {@link #reserve(long)} or {@link #tryReserve(long)}.
+     * @param bytes The amount of memory to give back.
+     */
+    public void release(long bytes) {
+        reserved.addAndGet(-bytes);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d of %d bytes reserved", reserved.get(), limit);
+    }
+
+}
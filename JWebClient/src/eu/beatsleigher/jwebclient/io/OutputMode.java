@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.io;
+
+/**
+ * The ways a downloaded file can be written to the disk.
+ *
+ * The modes other than {@link #CHANNEL} only apply when the size of the file is known up front,
+ * i.e. the server sent a <code>Content-Length</code> for an uncompressed response;
+ * otherwise the file is written as with {@link #CHANNEL}.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public enum OutputMode {
+
+    /**
+     * The file grows as the data arrives, written chunk by chunk with positional writes through a file channel.
+     */
+    CHANNEL,
+
+    /**
+     * The file is set to its final size before the first byte arrives, and then filled with positional writes.
+     * Readers see the final size right away, and the file system can allocate the file in one go.
+     * If the download fails, the file is cut back to the bytes actually written.
+     */
+    PREALLOCATED,
+
+    /**
+     * As {@link #PREALLOCATED}, but the data is copied into windows of the file mapped into memory
+     * (see {@link MappedFileWriter}), which saves a system call per chunk.
+     */
+    MAPPED
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.io;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+/**
+ * Limits the rate at which bytes are read, token bucket style.
+ *
+ * Every reader reserves the bytes it has read and waits until the bucket has caught up with them.
+ * Reservations are served in the order they're made, so downloads sharing a limiter take turns,
+ * and each one gets an equal share of the rate as long as they read in equal chunks.
+ * A limiter which has been idle lets up to {@link #BURST_NANOS} worth of bytes through at once.
+ * An unlimited limiter costs no more than reading a volatile field.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public final class RateLimiter {
+
+    /**
+     * The amount of time (in nanoseconds) an idle limiter saves up for.
+     */
+    public static final long BURST_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * The smallest amount of bytes {@link #getMaxChunkSize()} ever returns.
+     */
+    public static final int MIN_CHUNK_SIZE = 1024;
+
+    private static final RateLimiter globalInstance = new RateLimiter(0);
+
+    private volatile long bytesPerSecond;
+    private long nextFreeNanos;
+
+    /**
+     * Default constructor.
+     * @param bytesPerSecond The rate in bytes per second, or zero for no limit.
+     */
+    public RateLimiter(long bytesPerSecond) {
+        if (bytesPerSecond < 0)
+            throw new IllegalArgumentException("Rate must not be negative!");
+        this.bytesPerSecond = bytesPerSecond;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * Gets and returns the limiter shared by all downloads of all clients.
+     * It doesn't limit anything until a rate is {@link #setBytesPerSecond(long) set}.
+     * @return The global limiter.
+     */
+    public static RateLimiter getGlobal() { return globalInstance; }
+
+    /**
+     * Gets and returns the rate.
+     * @return The rate in bytes per second, or zero if there is no limit.
+     */
+    public long getBytesPerSecond() { return bytesPerSecond; }
+
+    /**
+     * Sets the rate. Downloads which are already running pick up the new rate with their next chunk.
+     * @param bytesPerSecond The rate in bytes per second, or zero for no limit.
+     */
+    public synchronized void setBytesPerSecond(long bytesPerSecond) {
+        if (bytesPerSecond < 0)
+            throw new IllegalArgumentException("Rate must not be negative!");
+        // Bytes reserved at the old rate are forgiven, so a new rate applies right away
+        nextFreeNanos = Math.min(nextFreeNanos, System.nanoTime());
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Gets and returns whether the limiter currently limits anything.
+     * @return True if a rate is set.
+     */
+    public boolean isLimiting() { return bytesPerSecond > 0; }
+
+    /**
+     * Gets and returns the largest amount of bytes that should be read at once,
+     * so that the waits in between stay short (about a tenth of a second) and the rate is applied smoothly.
+     * @return The chunk size in bytes, or {@link Integer#MAX_VALUE} if there is no limit.
+     */
+    public int getMaxChunkSize() {
+        long rate = bytesPerSecond;
+        if (rate == 0)
+            return Integer.MAX_VALUE;
+        return (int)Math.max(MIN_CHUNK_SIZE, Math.min(Integer.MAX_VALUE, rate / 10));
+    }
+
+    /**
+     * Reserves the given amount of bytes, without waiting.
+     * @param bytes The amount of bytes read.
+     * @return The time (in nanoseconds) the caller has to wait before reading on; zero if it may go on right away.
+     */
+    public long reserve(long bytes) {
+        long rate = bytesPerSecond;
+        if (rate == 0 || bytes <= 0)
+            return 0;
+
+        long now = System.nanoTime();
+        synchronized (this) {
+            // Unused time is saved up, but only so much
+            if (nextFreeNanos < now - BURST_NANOS)
+                nextFreeNanos = now - BURST_NANOS;
+            long wait = Math.max(0, nextFreeNanos - now);
+            nextFreeNanos += (long)(bytes * 1e9 / rate);
+            return wait;
+        }
+    }
+
+    /**
+     * Reserves the given amount of bytes, and waits if the rate has been exceeded.
+     * @param bytes The amount of bytes read.
+     * @throws InterruptedIOException If the thread was interrupted while waiting.
+     */
+    public void acquire(long bytes) throws InterruptedIOException {
+        pause(reserve(bytes));
+    }
+
+    /**
+     * Waits for the given amount of time, as returned by {@link #reserve(long)}.
+     * @param nanos The time to wait in nanoseconds.
+     * @throws InterruptedIOException If the thread was interrupted while waiting.
+     */
+    public static void pause(long nanos) throws InterruptedIOException {
+        if (nanos <= 0)
+            return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the rate limit!");
+        }
+    }
+
+    @Override
+    public String toString() {
+        long rate = bytesPerSecond;
+        return rate == 0 ? "unlimited" : rate + " bytes/s";
+    }
+
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.metrics;
+
+import java.lang.management.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+import javax.management.*;
+
+/**
+ * Collects the measurements of downloads, per host and for all hosts together.
+ *
+ * Every client records its downloads in a registry, the {@link #getDefault() default one} unless it was given its own.
+ * The metrics can be read from the {@link MetricSet}s, followed as they come in through a {@link DownloadMetricsListener},
+ * or published over JMX with {@link #registerMBeans(String)}.
+ * Downloads served from a cache without a response body are not recorded,
+ * nor are clients which merely follow another client's download of the same resource.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.1
+ */
+public final class DownloadMetrics {
+
+    /**
+     * The JMX domain the MBeans are registered in.
+     */
+    public static final String JMX_DOMAIN = "eu.beatsleigher.jwebclient";
+
+    private static volatile DownloadMetrics defaultInstance;
+
+    private final MetricSet total;
+    private final ConcurrentMap<String, MetricSet> hosts;
+    private final List<DownloadMetricsListener> listeners;
+    private volatile String mbeanName = null;
+
+    /**
+     * Default constructor.
+     */
+    public DownloadMetrics() {
+        this.total = new MetricSet("");
+        this.hosts = new ConcurrentHashMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Gets and returns the registry used by all clients which haven't been given one explicitly.
+     * The registry is created on first use.
+     * @return The default registry.
+     */
+    public static DownloadMetrics getDefault() {
+        DownloadMetrics metrics = defaultInstance;
+        if (metrics == null) {
+            synchronized (DownloadMetrics.class) {
+                metrics = defaultInstance;
+                if (metrics == null)
+                    defaultInstance = metrics = new DownloadMetrics();
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Replaces the default registry. The previous default registry keeps its MBeans, if it registered any.
+     * @param metrics The new default registry.
+     */
+    public static void setDefault(DownloadMetrics metrics) {
+        if (metrics == null)
+            throw new IllegalArgumentException("metrics must not be null!");
+        defaultInstance = metrics;
+    }
+
+    /**
+     * Starts measuring a download.
+     * @param downloadSource The URL that is downloaded.
+     * @return The timer of the download.
+     */
+    public DownloadTimer start(URL downloadSource) {
+        return new DownloadTimer(this, downloadSource, getHostName(downloadSource));
+    }
+
+    /**
+     * Gets and returns the metrics of all downloads.
+     * @return The metrics of all hosts together.
+     */
+    public MetricSet getTotal() { return total; }
+
+    /**
+     * Gets and returns the metrics of the downloads from a single host.
+     * @param host The host name.
+     * @return The metrics of the host, or null if nothing was downloaded from it yet.
+     */
+    public MetricSet getHost(String host) { return host == null ? null : hosts.get(host.toLowerCase(Locale.ROOT)); }
+
+    /**
+     * Gets and returns the hosts something was downloaded from.
+     * @return The host names, sorted.
+     */
+    public Set<String> getHosts() { return new TreeSet<>(hosts.keySet()); }
+
+    /**
+     * Adds a listener which is told about every download once it has ended.
+     * @param listener The listener.
+     */
+    public void addListener(DownloadMetricsListener listener) {
+        if (listener == null)
+            throw new IllegalArgumentException("listener must not be null!");
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     * @param listener The listener.
+     * @return True if the listener had been added before.
+     */
+    public boolean removeListener(DownloadMetricsListener listener) { return listeners.remove(listener); }
+
+    /**
+     * Forgets everything recorded so far, for all hosts.
+     */
+    public void reset() {
+        total.reset();
+        for (MetricSet host : hosts.values())
+            host.reset();
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="JMX">
+    /**
+     * Registers the metrics with the platform MBean server.
+     * The metrics of all hosts are registered as <code>eu.beatsleigher.jwebclient:type=DownloadMetrics,name=&lt;name&gt;</code>,
+     * those of each host with an additional <code>host</code> key, as soon as the first download from the host was recorded.
+     * @param name The name the metrics are registered under.
+     * @throws JMException If the MBeans could not be registered, e.g. because the name is already taken.
+     */
+    public synchronized void registerMBeans(String name) throws JMException {
+        if (name == null || name.isEmpty())
+            throw new IllegalArgumentException("Name must not be empty!");
+        if (mbeanName != null)
+            throw new IllegalStateException("The metrics are already registered as " + mbeanName + "!");
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(total, getObjectName(name, null));
+        mbeanName = name;
+        for (MetricSet host : hosts.values())
+            registerHost(host);
+    }
+
+    /**
+     * Removes the MBeans registered by {@link #registerMBeans(String)}.
+     */
+    public synchronized void unregisterMBeans() {
+        if (mbeanName == null)
+            return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(getObjectName(mbeanName, null));
+            for (String host : hosts.keySet()) {
+                ObjectName objectName = getObjectName(mbeanName, host);
+                if (server.isRegistered(objectName))
+                    server.unregisterMBean(objectName);
+            }
+        } catch (JMException ex) {
+            // Someone else unregistered them already
+        } finally {
+            mbeanName = null;
+        }
+    }
+
+    private synchronized void registerHost(MetricSet host) {
+        if (mbeanName == null)
+            return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(host, getObjectName(mbeanName, host.getName()));
+        } catch (JMException ex) {
+            // The metrics are still recorded, they're just not visible over JMX
+        }
+    }
+
+    private static ObjectName getObjectName(String name, String host) throws MalformedObjectNameException {
+        Hashtable<String, String> properties = new Hashtable<>();
+        properties.put("type", "DownloadMetrics");
+        properties.put("name", ObjectName.quote(name));
+        if (host != null)
+            properties.put("host", ObjectName.quote(host));
+        return new ObjectName(JMX_DOMAIN, properties);
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Recording">
+    void record(DownloadRecord record) {
+        total.record(record);
+        getOrCreateHost(record.getHost()).record(record);
+        for (DownloadMetricsListener listener : listeners)
+            listener.onDownloadRecorded(record);
+    }
+
+    void recordConnect(String host, long nanos) {
+        total.recordConnect(nanos);
+        getOrCreateHost(host).recordConnect(nanos);
+    }
+
+    void recordRetry(String host) {
+        total.recordRetry();
+        getOrCreateHost(host).recordRetry();
+    }
+
+    private MetricSet getOrCreateHost(String host) {
+        MetricSet metrics = hosts.get(host);
+        if (metrics == null) {
+            MetricSet newMetrics = new MetricSet(host);
+            metrics = hosts.putIfAbsent(host, newMetrics);
+            if (metrics == null) {
+                metrics = newMetrics;
+                registerHost(metrics);
+            }
+        }
+        return metrics;
+    }
+
+    private static String getHostName(URL source) {
+        return source == null || source.getHost() == null ? "" : source.getHost().toLowerCase(Locale.ROOT);
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.metrics;
+
+/**
+ * Listener interface for {@link DownloadMetrics}.
+ * Provides (a) method(s) which will be called when a download has been measured.
+ * 
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public interface DownloadMetricsListener {
+
+    /**
+     * Gets called on the downloading thread when a download has succeeded or failed.
+     * Should return quickly, as the download isn't over until it does.
+     * @param record The measurements of the download.
+     */
+    public void onDownloadRecorded(DownloadRecord record);
+
+}
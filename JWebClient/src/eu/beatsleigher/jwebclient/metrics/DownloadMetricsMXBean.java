@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.metrics;
+
+import java.util.*;
+
+/**
+ * The management interface of a {@link MetricSet}, as registered by {@link DownloadMetrics#registerMBeans(String)}.
+ * Times are in nanoseconds, throughput is in bytes per second.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public interface DownloadMetricsMXBean {
+
+    /**
+     * Gets and returns the amount of downloads which succeeded.
+     * @return The amount of successful downloads.
+     */
+    public long getSuccessCount();
+
+    /**
+     * Gets and returns the amount of downloads which failed.
+     * @return The amount of failed downloads.
+     */
+    public long getFailureCount();
+
+    /**
+     * Gets and returns the amount of times a download was retried.
+     * @return The amount of retries.
+     */
+    public long getRetryCount();
+
+    /**
+     * Gets and returns the amount of bytes downloaded by all successful downloads.
+     * @return The amount of bytes.
+     */
+    public long getBytesTransferred();
+
+    /**
+     * Gets and returns the amount of failed downloads per type of error.
+     * @return The counts, by the fully qualified class name of the error.
+     */
+    public Map<String, Long> getErrorCounts();
+
+    /**
+     * Gets and returns the distribution of the time it took to establish a connection.
+     * @return The connect times.
+     */
+    public HistogramSnapshot getConnectTime();
+
+    /**
+     * Gets and returns the distribution of the time until the first byte of a body arrived.
+     * @return The times to first byte.
+     */
+    public HistogramSnapshot getTimeToFirstByte();
+
+    /**
+     * Gets and returns the distribution of the duration of the successful downloads.
+     * @return The durations.
+     */
+    public HistogramSnapshot getDuration();
+
+    /**
+     * Gets and returns the distribution of the average speed of the successful downloads.
+     * @return The throughputs.
+     */
+    public HistogramSnapshot getThroughput();
+
+    /**
+     * Forgets everything recorded so far.
+     */
+    public void reset();
+
+}
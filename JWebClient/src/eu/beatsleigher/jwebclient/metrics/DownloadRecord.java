@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.metrics;
+
+import java.net.*;
+
+/**
+ * The measurements of a single download, as handed to a {@link DownloadMetricsListener}.
+ * All times are in nanoseconds.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public final class DownloadRecord {
+
+    private final URL downloadSource;
+    private final String host;
+    private final long bytesTransferred;
+    private final long connectTime;
+    private final long timeToFirstByte;
+    private final long duration;
+    private final int retryCount;
+    private final Throwable error;
+
+    /**
+     * Default constructor.
+     * @param downloadSource The URL that was downloaded.
+     * @param host The host the URL belongs to.
+     * @param bytesTransferred The amount of bytes downloaded.
+     * @param connectTime The time it took to establish the (first) connection, or -1 if unknown.
+     * @param timeToFirstByte The time from the start of the download until the first byte of the body arrived, or -1 if none did.
+     * @param duration The time from the start until the end of the download.
+     * @param retryCount The amount of times the download was retried.
+     * @param error The error which ended the download, or null if it succeeded.
+     */
+    public DownloadRecord(URL downloadSource, String host, long bytesTransferred, long connectTime, long timeToFirstByte,
+                          long duration, int retryCount, Throwable error) {
+        this.downloadSource = downloadSource;
+        this.host = host;
+        this.bytesTransferred = bytesTransferred;
+        this.connectTime = connectTime;
+        this.timeToFirstByte = timeToFirstByte;
+        this.duration = duration;
+        this.retryCount = retryCount;
+        this.error = error;
+    }
+
+    /**
+     * Gets and returns the URL that was downloaded.
+     * @return The download source.
+     */
+    public URL getDownloadSource() { return downloadSource; }
+
+    /**
+     * Gets and returns the host the URL belongs to.
+     * @return The host name, in lower case.
+     */
+    public String getHost() { return host; }
+
+    /**
+     * Gets and returns the amount of bytes downloaded. For compressed responses, this is the decoded size.
+     * Failed downloads report zero.
+     * @return The amount of bytes.
+     */
+    public long getBytesTransferred() { return bytesTransferred; }
+
+    /**
+     * Gets and returns the time it took to establish the (first) connection of the download.
+     * Close to zero if an idle connection could be reused.
+     * @return The connect time in nanoseconds, or -1 if the transport doesn't report it.
+     */
+    public long getConnectTime() { return connectTime; }
+
+    /**
+     * Gets and returns the time from the start of the download until the first byte of the body arrived.
+     * @return The time to first byte in nanoseconds, or -1 if no byte arrived.
+     */
+    public long getTimeToFirstByte() { return timeToFirstByte; }
+
+    /**
+     * Gets and returns the time from the start until the end of the download.
+     * @return The duration in nanoseconds.
+     */
+    public long getDuration() { return duration; }
+
+    /**
+     * Gets and returns the average speed of the download.
+     * @return The throughput in bytes per second, or zero if the download took no measurable time.
+     */
+    public long getThroughput() { return duration <= 0 ? 0 : (long)(bytesTransferred * 1e9 / duration); }
+
+    /**
+     * Gets and returns the amount of times the download was retried.
+     * @return The amount of retries.
+     */
+    public int getRetryCount() { return retryCount; }
+
+    /**
+     * Gets and returns the error which ended the download.
+     * @return The error, or null if the download succeeded.
+     */
+    public Throwable getError() { return error; }
+
+    /**
+     * Gets and returns whether the download succeeded.
+     * @return True if the download succeeded.
+     */
+    public boolean isSuccessful() { return error == null; }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d bytes in %.1f ms (connect %.1f ms, first byte %.1f ms, %d retries)%s",
+                downloadSource, bytesTransferred, duration / 1e6, connectTime / 1e6, timeToFirstByte / 1e6, retryCount,
+                error == null ? "" : ", failed: " + error);
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.metrics;
+
+import java.net.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Measures a single download, and hands the measurements to its {@link DownloadMetrics} once the download has ended.
+ *
+ * The timer starts when it's created. Only the first call to {@link #succeeded(long)}, {@link #failed(Throwable)} or {@link #discard()} counts;
+ * a timer which is discarded (or never ended) isn't recorded at all.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.1
+ */
+public final class DownloadTimer {
+
+    private final DownloadMetrics metrics;
+    private final URL downloadSource;
+    private final String host;
+    private final long startNanos;
+    private final AtomicBoolean ended;
+    private final AtomicInteger retryCount;
+    private volatile long firstByteNanos = 0;
+    private volatile long connectTime = -1;
+
+    DownloadTimer(DownloadMetrics metrics, URL downloadSource, String host) {
+        this.metrics = metrics;
+        this.downloadSource = downloadSource;
+        this.host = host;
+        this.startNanos = System.nanoTime();
+        this.ended = new AtomicBoolean();
+        this.retryCount = new AtomicInteger();
+    }
+
+    /**
+     * Records how long it took to establish a connection for the download.
+     * Every connection is counted in the connect time histogram; the first one is reported in the {@link DownloadRecord}.
+     * @param connectTime The connect time in nanoseconds, or -1 if unknown; then nothing is recorded.
+     */
+    public void connected(long connectTime) {
+        if (connectTime < 0)
+            return;
+        metrics.recordConnect(host, connectTime);
+        if (this.connectTime < 0)
+            this.connectTime = connectTime;
+    }
+
+    /**
+     * Records that a chunk of the body has arrived. Only the first call has any effect.
+     * Cheap enough to be called for every chunk.
+     */
+    public void firstByte() {
+        if (firstByteNanos == 0)
+            firstByteNanos = System.nanoTime();
+    }
+
+    /**
+     * Records that the download is being retried.
+     */
+    public void retried() {
+        retryCount.incrementAndGet();
+        metrics.recordRetry(host);
+    }
+
+    /**
+     * Ends the download successfully.
+     * @param bytesTransferred The amount of bytes downloaded.
+     */
+    public void succeeded(long bytesTransferred) {
+        end(bytesTransferred, null);
+    }
+
+    /**
+     * Ends the download with an error.
+     * @param error The error which ended the download.
+     */
+    public void failed(Throwable error) {
+        end(0, error == null ? new IllegalStateException("Unknown error") : error);
+    }
+
+    /**
+     * Ends the timer without recording the download, because it didn't transfer a body,
+     * e.g. because it was served from a cache.
+     */
+    public void discard() {
+        ended.set(true);
+    }
+
+    private void end(long bytesTransferred, Throwable error) {
+        if (!ended.compareAndSet(false, true))
+            return;
+        long now = System.nanoTime();
+        long firstByte = firstByteNanos;
+        metrics.record(new DownloadRecord(downloadSource, host, bytesTransferred, connectTime,
+                firstByte == 0 ? -1 : firstByte - startNanos, now - startNanos, retryCount.get(), error));
+    }
+
+}
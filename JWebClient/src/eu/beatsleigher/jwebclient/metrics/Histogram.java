@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.metrics;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * A histogram of non-negative long values, in the style of an HDR histogram.
+ *
+ * Values are counted in buckets whose width grows with the value: every power of two is split into
+ * {@value #SUB_BUCKET_COUNT} equally wide buckets, so any value is reported within about 3% of what was recorded,
+ * over the whole range of a long, in a fixed amount of memory.
+ * Recording a value is lock-free and doesn't allocate; several threads may record at once.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public final class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /**
+     * The amount of buckets every power of two is split into.
+     */
+    public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong totalCount;
+    private final AtomicLong sum;
+    private final AtomicLong min;
+    private final AtomicLong max;
+
+    /**
+     * Default constructor.
+     */
+    public Histogram() {
+        this.counts = new AtomicLongArray(BUCKET_COUNT);
+        this.totalCount = new AtomicLong();
+        this.sum = new AtomicLong();
+        this.min = new AtomicLong(Long.MAX_VALUE);
+        this.max = new AtomicLong(Long.MIN_VALUE);
+    }
+
+    /**
+     * Records a value.
+     * @param value The value. Negative values are recorded as zero.
+     */
+    public void record(long value) {
+        if (value < 0)
+            value = 0;
+        counts.incrementAndGet(bucketOf(value));
+        totalCount.incrementAndGet();
+        sum.addAndGet(value);
+
+        long current;
+        while (value < (current = min.get()) && !min.compareAndSet(current, value));
+        while (value > (current = max.get()) && !max.compareAndSet(current, value));
+    }
+
+    /**
+     * Takes a snapshot of the values recorded so far.
+     * Values recorded while the snapshot is taken may or may not be part of it.
+     * @return The snapshot.
+     */
+    public HistogramSnapshot snapshot() {
+        long[] bucketCounts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+            count += bucketCounts[i] = counts.get(i);
+        if (count == 0)
+            return new HistogramSnapshot(bucketCounts, 0, 0, 0, 0);
+        return new HistogramSnapshot(bucketCounts, count, min.get(), max.get(), sum.get());
+    }
+
+    /**
+     * Forgets all values recorded so far.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++)
+            counts.set(i, 0);
+        totalCount.set(0);
+        sum.set(0);
+        min.set(Long.MAX_VALUE);
+        max.set(Long.MIN_VALUE);
+    }
+
+    /**
+     * Gets and returns the amount of values recorded so far.
+     * @return The amount of values.
+     */
+    public long getCount() { return totalCount.get(); }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKET_COUNT)
+            return (int)value;
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int)(value >>> shift) & (SUB_BUCKET_COUNT - 1);
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * Gets and returns the largest value counted in the given bucket.
+     * @param bucket The index of the bucket.
+     * @return The upper bound of the bucket.
+     */
+    static long highestValueOf(int bucket) {
+        int shift = bucket / SUB_BUCKET_COUNT - 1;
+        if (shift < 0)
+            return bucket;
+        long lowest = (long)(SUB_BUCKET_COUNT + bucket % SUB_BUCKET_COUNT) << shift;
+        return lowest + ((1L << shift) - 1);
+    }
+
+}
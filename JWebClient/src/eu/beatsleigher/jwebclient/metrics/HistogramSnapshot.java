@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.metrics;
+
+/**
+ * A snapshot of a {@link Histogram}.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public final class HistogramSnapshot {
+
+    private final long[] bucketCounts;
+    private final long count;
+    private final long min;
+    private final long max;
+    private final long sum;
+
+    HistogramSnapshot(long[] bucketCounts, long count, long min, long max, long sum) {
+        this.bucketCounts = bucketCounts;
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.sum = sum;
+    }
+
+    /**
+     * Gets and returns the amount of recorded values.
+     * @return The amount of values.
+     */
+    public long getCount() { return count; }
+
+    /**
+     * Gets and returns the smallest recorded value.
+     * @return The smallest value, or zero if nothing was recorded.
+     */
+    public long getMin() { return min; }
+
+    /**
+     * Gets and returns the largest recorded value.
+     * @return The largest value, or zero if nothing was recorded.
+     */
+    public long getMax() { return max; }
+
+    /**
+     * Gets and returns the arithmetic mean of the recorded values.
+     * @return The mean, or zero if nothing was recorded.
+     */
+    public double getMean() { return count == 0 ? 0 : (double)sum / count; }
+
+    /**
+     * Gets and returns the median of the recorded values.
+     * @return The 50th percentile.
+     */
+    public long getMedian() { return getValueAtPercentile(50); }
+
+    /**
+     * Gets and returns the 90th percentile of the recorded values.
+     * @return The 90th percentile.
+     */
+    public long get90thPercentile() { return getValueAtPercentile(90); }
+
+    /**
+     * Gets and returns the 99th percentile of the recorded values.
+     * @return The 99th percentile.
+     */
+    public long get99thPercentile() { return getValueAtPercentile(99); }
+
+    /**
+     * Gets and returns the 99.9th percentile of the recorded values.
+     * @return The 99.9th percentile.
+     */
+    public long get999thPercentile() { return getValueAtPercentile(99.9); }
+
+    /**
+     * Gets and returns the value below which the given share of the recorded values lie.
+     * The value is the upper bound of the bucket it was counted in, but never more than {@link #getMax()}.
+     * @param percentile The percentile, between 0 and 100.
+     * @return The value at the percentile, or zero if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("Percentile must be between 0 and 100!");
+        if (count == 0)
+            return 0;
+
+        long rank = Math.max(1, (long)Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank)
+                return Math.max(min, Math.min(max, Histogram.highestValueOf(i)));
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, min=%d, median=%d, p90=%d, p99=%d, p99.9=%d, max=%d",
+                count, min, getMedian(), get90thPercentile(), get99thPercentile(), get999thPercentile(), max);
+    }
+
+}
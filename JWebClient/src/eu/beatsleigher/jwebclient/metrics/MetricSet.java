@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.metrics;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * The metrics of a group of downloads: all downloads of a {@link DownloadMetrics}, or those from a single host.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public final class MetricSet implements DownloadMetricsMXBean {
+
+    private final String name;
+    private final AtomicLong successCount;
+    private final AtomicLong failureCount;
+    private final AtomicLong retryCount;
+    private final AtomicLong bytesTransferred;
+    private final ConcurrentMap<String, AtomicLong> errorCounts;
+    private final Histogram connectTime;
+    private final Histogram timeToFirstByte;
+    private final Histogram duration;
+    private final Histogram throughput;
+
+    MetricSet(String name) {
+        this.name = name;
+        this.successCount = new AtomicLong();
+        this.failureCount = new AtomicLong();
+        this.retryCount = new AtomicLong();
+        this.bytesTransferred = new AtomicLong();
+        this.errorCounts = new ConcurrentHashMap<>();
+        this.connectTime = new Histogram();
+        this.timeToFirstByte = new Histogram();
+        this.duration = new Histogram();
+        this.throughput = new Histogram();
+    }
+
+    /**
+     * Gets and returns the name of the group.
+     * @return The host name, or an empty string for all downloads.
+     */
+    public String getName() { return name; }
+
+    @Override
+    public long getSuccessCount() { return successCount.get(); }
+
+    @Override
+    public long getFailureCount() { return failureCount.get(); }
+
+    @Override
+    public long getRetryCount() { return retryCount.get(); }
+
+    @Override
+    public long getBytesTransferred() { return bytesTransferred.get(); }
+
+    @Override
+    public Map<String, Long> getErrorCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : errorCounts.entrySet())
+            counts.put(entry.getKey(), entry.getValue().get());
+        return counts;
+    }
+
+    @Override
+    public HistogramSnapshot getConnectTime() { return connectTime.snapshot(); }
+
+    @Override
+    public HistogramSnapshot getTimeToFirstByte() { return timeToFirstByte.snapshot(); }
+
+    @Override
+    public HistogramSnapshot getDuration() { return duration.snapshot(); }
+
+    @Override
+    public HistogramSnapshot getThroughput() { return throughput.snapshot(); }
+
+    @Override
+    public void reset() {
+        successCount.set(0);
+        failureCount.set(0);
+        retryCount.set(0);
+        bytesTransferred.set(0);
+        errorCounts.clear();
+        connectTime.reset();
+        timeToFirstByte.reset();
+        duration.reset();
+        throughput.reset();
+    }
+
+    void record(DownloadRecord record) {
+        if (record.getTimeToFirstByte() >= 0)
+            timeToFirstByte.record(record.getTimeToFirstByte());
+        if (!record.isSuccessful()) {
+            failureCount.incrementAndGet();
+            String errorType = record.getError().getClass().getName();
+            AtomicLong count = errorCounts.get(errorType);
+            if (count == null) {
+                AtomicLong newCount = new AtomicLong();
+                count = errorCounts.putIfAbsent(errorType, newCount);
+                if (count == null)
+                    count = newCount;
+            }
+            count.incrementAndGet();
+            return;
+        }
+        successCount.incrementAndGet();
+        bytesTransferred.addAndGet(record.getBytesTransferred());
+        duration.record(record.getDuration());
+        throughput.record(record.getThroughput());
+    }
+
+    void recordConnect(long nanos) { connectTime.record(nanos); }
+
+    void recordRetry() { retryCount.incrementAndGet(); }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d succeeded, %d failed, %d retries, %d bytes; duration [%s]",
+                name.isEmpty() ? "all hosts" : name, getSuccessCount(), getFailureCount(), getRetryCount(),
+                getBytesTransferred(), duration.snapshot());
+    }
+
+}
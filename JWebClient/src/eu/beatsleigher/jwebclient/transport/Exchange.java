@@ -0,0 +1,285 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.transport;
+
+import java.io.*;
+import java.net.*;
+import java.time.*;
+import java.time.format.*;
+
+/**
+ * A single request and its response, as sent through a {@link Transport}.
+ *
+ * Like an {@link HttpURLConnection}, an exchange is set up first (method, headers),
+ * and sent as soon as anything about the response is asked for.
+ * Every exchange must be handed back once it's done with, using {@link #release()}, {@link #releaseUnread()} or {@link #abort()},
+ * so the transport can reuse or close the connection underneath.
+ *
+ * Transports report failures the way the retry policy expects them: a request which could not be sent
+ * as a {@link SocketException} (or {@link SocketTimeoutException}), and a body which broke off as an {@link EOFException}.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.2
+ */
+public abstract class Exchange {
+
+    /**
+     * The largest unread body (in bytes) which {@link #releaseUnread()} reads and throws away to keep a connection alive.
+     * Larger bodies are cheaper to abort.
+     */
+    public static final int MAX_DRAIN_SIZE = 64 * 1024;
+
+    private final URL url;
+    private volatile boolean aborted = false;
+
+    /**
+     * Default constructor.
+     * @param url The URL which is requested.
+     */
+    protected Exchange(URL url) {
+        this.url = url;
+    }
+
+    /**
+     * Gets and returns the URL which is requested.
+     * @return The requested URL.
+     */
+    public URL getUrl() { return url; }
+
+    /**
+     * Gets and returns how long it took to establish the connection the request was sent over.
+     * Close to zero if the transport could reuse an idle connection.
+     * @return The connect time in nanoseconds, or -1 if it's unknown, or the request hasn't been sent yet.
+     */
+    public long getConnectTime() { return -1; }
+
+    //<editor-fold defaultstate="collapsed" desc="Request">
+    /**
+     * Sets the method of the request. Defaults to <code>GET</code>.
+     * @param method The request method.
+     * @throws IOException If the method is not supported, or the request has already been sent.
+     */
+    public abstract void setRequestMethod(String method) throws IOException;
+
+    /**
+     * Sets a header of the request, replacing any previous value.
+     * @param name The name of the header.
+     * @param value The value of the header.
+     */
+    public abstract void setRequestHeader(String name, String value);
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Response">
+    /**
+     * Gets and returns the status code of the response, sending the request if it hasn't been sent yet.
+     * @return The HTTP status code.
+     * @throws IOException If the request fails.
+     */
+    public abstract int getResponseCode() throws IOException;
+
+    /**
+     * Gets and returns a header of the response, sending the request if it hasn't been sent yet.
+     * @param name The name of the header. Not case-sensitive.
+     * @return The (first) value of the header, or null if the header wasn't sent or the request failed.
+     */
+    public abstract String getHeaderField(String name);
+
+    /**
+     * Gets and returns the body of the response, sending the request if it hasn't been sent yet.
+     * @return The stream of the response body.
+     * @throws IOException If the request fails, or the server answered with an error.
+     * As with {@link HttpURLConnection}, a <code>404</code> or <code>410</code> is reported as a {@link FileNotFoundException}.
+     */
+    public abstract InputStream getBody() throws IOException;
+
+    /**
+     * Gets and returns the <code>Content-Length</code> of the response.
+     * @return The length of the body as sent, or -1 if unknown.
+     */
+    public long getContentLength() { return getHeaderFieldLong("Content-Length", -1); }
+
+    /**
+     * Gets and returns the <code>Content-Type</code> of the response.
+     * @return The content type, or null.
+     */
+    public String getContentType() { return getHeaderField("Content-Type"); }
+
+    /**
+     * Gets and returns the <code>Content-Encoding</code> of the response.
+     * @return The content encoding, or null.
+     */
+    public String getContentEncoding() { return getHeaderField("Content-Encoding"); }
+
+    /**
+     * Gets and returns a header of the response as a number.
+     * @param name The name of the header.
+     * @param defaultValue The value to return if the header is missing or not a number.
+     * @return The value of the header.
+     */
+    public long getHeaderFieldLong(String name, long defaultValue) {
+        String value = getHeaderField(name);
+        try {
+            return value == null ? defaultValue : Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Gets and returns a header of the response as a date.
+     * @param name The name of the header.
+     * @param defaultValue The value to return if the header is missing or not a date.
+     * @return The date in milliseconds since the epoch.
+     */
+    public long getHeaderFieldDate(String name, long defaultValue) {
+        String value = getHeaderField(name);
+        try {
+            return value == null ? defaultValue : ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ex) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Creates the exception {@link #getBody()} throws for an error response.
+     * @param responseCode The status code of the response; 400 or above.
+     * @return A {@link FileNotFoundException} for <code>404</code> and <code>410</code>, a {@link HttpStatusException} otherwise.
+     */
+    protected IOException createStatusException(int responseCode) {
+        if (responseCode == HttpURLConnection.HTTP_NOT_FOUND || responseCode == HttpURLConnection.HTTP_GONE)
+            return new FileNotFoundException(url.toString());
+        return new HttpStatusException(url, responseCode, getRetryAfter());
+    }
+
+    /**
+     * Gets and returns the time the server asked us to wait through the <code>Retry-After</code> header,
+     * which holds either a number of seconds or a date.
+     * @return The time in milliseconds, or -1 if the header is missing or malformed.
+     */
+    private long getRetryAfter() {
+        String value = getHeaderField("Retry-After");
+        if (value == null)
+            return -1;
+        try {
+            return Math.max(0, Long.parseLong(value.trim())) * 1000;
+        } catch (NumberFormatException ex) {
+            long date = getHeaderFieldDate("Retry-After", -1);
+            return date < 0 ? -1 : Math.max(0, date - System.currentTimeMillis());
+        }
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Release">
+    /**
+     * Hands the exchange back after its body has been read to the end and its stream closed.
+     * The connection is kept for further requests. Calls after the first one are ignored.
+     */
+    public abstract void release();
+
+    /**
+     * Hands the exchange back without having read its body.
+     * Small bodies (error pages, redirects and the like) are read and thrown away, so the connection can be kept;
+     * otherwise the exchange is {@link #abort() aborted}.
+     */
+    public abstract void releaseUnread();
+
+    /**
+     * Hands back an exchange which failed, or whose response is no longer wanted.
+     * The transport does not reuse the connection (or, for multiplexed connections, the stream).
+     * May be called from another thread, to stop a body which is still being read.
+     */
+    public abstract void abort();
+
+    /**
+     * Records that the exchange is being aborted on purpose, so reads which fail because of it
+     * aren't reported as a body which broke off. Implementations of {@link #abort()} call this before closing anything.
+     */
+    protected final void markAborted() {
+        aborted = true;
+    }
+
+    /**
+     * Wraps the stream of a response body, so a read which fails without saying why (a plain {@link IOException},
+     * as the JDK throws them when the connection breaks off, e.g. <code>Premature EOF</code>) is reported as an {@link EOFException}.
+     * Once the exchange has been {@link #abort() aborted}, failing reads are passed on as they are; nobody wants them retried.
+     * @param body The stream of the body.
+     * @return The wrapped stream.
+     */
+    protected InputStream wrapBody(InputStream body) {
+        return new FilterInputStream(body) {
+            @Override
+            public int read() throws IOException {
+                try {
+                    return super.read();
+                } catch (IOException ex) {
+                    throw brokenOff(ex);
+                }
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                try {
+                    return in.read(buffer, offset, length);
+                } catch (IOException ex) {
+                    throw brokenOff(ex);
+                }
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                try {
+                    return super.skip(n);
+                } catch (IOException ex) {
+                    throw brokenOff(ex);
+                }
+            }
+        };
+    }
+
+    private IOException brokenOff(IOException ex) {
+        if (aborted || ex.getClass() != IOException.class)
+            return ex;
+        EOFException eofException = new EOFException("Body of " + url + " broke off: " + ex.getMessage());
+        eofException.initCause(ex);
+        return eofException;
+    }
+
+    /**
+     * Reads a stream to its end and closes it, as long as there isn't too much left.
+     * @param iStream The stream to drain.
+     * @return False if the stream had more than {@link #MAX_DRAIN_SIZE} bytes left; it is left open then.
+     * @throws IOException If reading from the stream fails.
+     */
+    protected static boolean drain(InputStream iStream) throws IOException {
+        byte[] buffer = new byte[4096];
+        long drained = 0;
+        int i;
+        while ((i = iStream.read(buffer)) >= 0) {
+            drained += i;
+            if (drained > MAX_DRAIN_SIZE)
+                return false;
+        }
+        iStream.close();
+        return true;
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.transport;
+
+import java.io.*;
+import java.net.*;
+import java.net.http.*;
+
+/**
+ * A {@link Transport} on top of <code>java.net.http.HttpClient</code>.
+ *
+ * The client speaks HTTP/2 with servers which support it (over TLS, as negotiated with ALPN,
+ * or over plain connections via <code>Upgrade: h2c</code>) and falls back to HTTP/1.1 otherwise.
+ * Over HTTP/2, all requests to the same server are multiplexed over a single connection,
+ * so many small downloads no longer need a connection (and a handshake) each.
+ * The body is streamed as it arrives, so the progress events and the downloaded data are the same as with the default transport.
+ *
+ * To actually run many downloads to the same host at once, raise the per-host limit of the
+ * {@link eu.beatsleigher.jwebclient.engine.DownloadEngine} as well.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.1
+ */
+public class HttpClientTransport implements Transport {
+
+    private final HttpClient httpClient;
+
+    /**
+     * Creates a transport with a new client, which prefers HTTP/2 and follows redirects (except from HTTPS to HTTP).
+     */
+    public HttpClientTransport() {
+        this(HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build());
+    }
+
+    /**
+     * Creates a transport which sends its requests through the given client.
+     * @param httpClient The client to use. Its connections are shared by all exchanges of this transport.
+     */
+    public HttpClientTransport(HttpClient httpClient) {
+        if (httpClient == null)
+            throw new IllegalArgumentException("httpClient must not be null!");
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * Gets and returns the client the requests are sent through.
+     * @return The HTTP client.
+     */
+    public HttpClient getHttpClient() { return httpClient; }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Exchange open(URL url) throws IOException {
+        try {
+            return new HttpClientExchange(url, url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException ex) {
+            throw new MalformedURLException("Cannot request " + url + ": " + ex.getMessage());
+        }
+    }
+
+    /**
+     * An exchange sent through the client. The body is read through the stream of {@link HttpResponse.BodyHandlers#ofInputStream()}.
+     */
+    private final class HttpClientExchange extends Exchange {
+
+        private final HttpRequest.Builder requestBuilder;
+        private String method = "GET";
+        private volatile HttpResponse<InputStream> response = null;
+        private IOException failure = null;
+        private volatile boolean released = false;
+
+        HttpClientExchange(URL url, URI uri) {
+            super(url);
+            this.requestBuilder = HttpRequest.newBuilder(uri);
+        }
+
+        @Override
+        public void setRequestMethod(String method) throws IOException {
+            if (response != null || failure != null)
+                throw new ProtocolException("The request has already been sent!");
+            this.method = method;
+        }
+
+        @Override
+        public void setRequestHeader(String name, String value) {
+            requestBuilder.setHeader(name, value);
+        }
+
+        private HttpResponse<InputStream> send() throws IOException {
+            if (response != null)
+                return response;
+            if (failure != null)
+                throw failure;
+
+            HttpRequest request = requestBuilder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                return response;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                failure = new InterruptedIOException("Interrupted while requesting " + getUrl() + "!");
+                throw failure;
+            } catch (HttpTimeoutException ex) {
+                failure = new SocketTimeoutException("Request to " + getUrl() + " timed out: " + ex.getMessage());
+                failure.initCause(ex);
+                throw failure;
+            } catch (IOException ex) {
+                // The client reports most broken connections as plain IOExceptions
+                if (ex.getClass() == IOException.class) {
+                    failure = new SocketException("Request to " + getUrl() + " failed: " + ex.getMessage());
+                    failure.initCause(ex);
+                } else {
+                    failure = ex;
+                }
+                throw failure;
+            }
+        }
+
+        @Override
+        public int getResponseCode() throws IOException {
+            return send().statusCode();
+        }
+
+        @Override
+        public String getHeaderField(String name) {
+            try {
+                return send().headers().firstValue(name).orElse(null);
+            } catch (IOException ex) {
+                return null;
+            }
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            HttpResponse<InputStream> response = send();
+            int responseCode = response.statusCode();
+            if (responseCode < 400)
+                return wrapBody(response.body());
+
+            IOException statusException = createStatusException(responseCode);
+            abort();
+            throw statusException;
+        }
+
+        @Override
+        public void release() {
+            if (released)
+                return;
+            released = true;
+            closeBody();
+        }
+
+        @Override
+        public void releaseUnread() {
+            if (released)
+                return;
+            released = true;
+            if (response == null)
+                return;
+            try {
+                if (drain(response.body()))
+                    return;
+            } catch (IOException ex) {
+                // Then there's nothing left worth keeping
+            }
+            closeBody();
+        }
+
+        @Override
+        public void abort() {
+            markAborted();
+            released = true;
+            closeBody();
+        }
+
+        /**
+         * Closes the body stream. Over HTTP/2, this cancels just this stream if the body hasn't been read to the end;
+         * over HTTP/1.1, the connection is closed then.
+         */
+        private void closeBody() {
+            if (response == null)
+                return;
+            try {
+                response.body().close();
+            } catch (IOException ex) {
+                // Nothing we could do about it
+            }
+        }
+
+    }
+
+}
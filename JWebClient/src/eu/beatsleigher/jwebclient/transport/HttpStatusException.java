@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+
+package eu.beatsleigher.jwebclient.transport;
+
+import java.io.*;
+import java.net.*;
+
+/**
+ * Thrown when the server answers a request with an error status, other than <code>404 Not Found</code>
+ * and <code>410 Gone</code>, which are reported as {@link FileNotFoundException} like {@link HttpURLConnection} does.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public class HttpStatusException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final URL url;
+    private final int statusCode;
+    private final long retryAfter;
+
+    /**
+     * Default constructor.
+     * @param url The URL which was requested.
+     * @param statusCode The HTTP status code of the response.
+     * @param retryAfter The time (in milliseconds) the server asked us to wait before trying again, or -1 if it didn't.
+     */
+    public HttpStatusException(URL url, int statusCode, long retryAfter) {
+        super("Server returned HTTP response code: " + statusCode + " for URL: " + url);
+        this.url = url;
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Gets and returns the URL which was requested.
+     * @return The URL.
+     */
+    public URL getUrl() { return url; }
+
+    /**
+     * Gets and returns the HTTP status code of the response.
+     * @return The status code.
+     */
+    public int getStatusCode() { return statusCode; }
+
+    /**
+     * Gets and returns the time the server asked us to wait before trying again, through the <code>Retry-After</code> header.
+     * @return The time in milliseconds, or -1 if the server didn't say.
+     */
+    public long getRetryAfter() { return retryAfter; }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.transport;
+
+import java.io.*;
+import java.net.*;
+
+/**
+ * A way of talking HTTP, which {@link eu.beatsleigher.jwebclient.JWebClient} sends its requests through.
+ *
+ * Two transports are provided: the {@link eu.beatsleigher.jwebclient.engine.ConnectionManager}, 
+ * which uses {@link HttpURLConnection} and HTTP/1.1 (the default), 
+ * and the {@link HttpClientTransport}, which uses <code>java.net.http.HttpClient</code> and speaks HTTP/2 where the server does.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public interface Transport {
+
+    /**
+     * Prepares a request to the given URL.
+     * The request is sent once the response is first asked for.
+     * @param url The URL to request.
+     * @return The new exchange.
+     * @throws IOException If the request could not be prepared.
+     */
+    public Exchange open(URL url) throws IOException;
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient;
+
+import eu.beatsleigher.jwebclient.bench.LocalHttpServer;
+import eu.beatsleigher.jwebclient.transport.*;
+import java.io.*;
+import java.net.*;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.*;
+import org.junit.rules.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link DownloadJournal}, and that downloads are resumed from it.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public class DownloadJournalTest {
+
+    private static final int SIZE = 200000;
+    private static final int COMMITTED = 50000;
+
+    private static LocalHttpServer server;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void startServer() throws IOException {
+        server = new LocalHttpServer();
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        server.close();
+    }
+
+    /**
+     * Leaves the file and journal of a download which failed after {@link #COMMITTED} bytes.
+     * The bytes are zeros rather than the payload, so a resumed download can be told from one which started over.
+     */
+    private void interruptDownload(JWebClient client, String entityTag) throws IOException {
+        File workPath = client.getWorkPath();
+        Files.write(workPath.toPath(), new byte[COMMITTED]);
+        DownloadJournal journal = new DownloadJournal(workPath);
+        journal.begin(client.getDownloadSource(), new ResponseExchange(client.getDownloadSource(), "ETag", entityTag), 0, SIZE);
+        journal.interrupted(COMMITTED);
+    }
+
+    @Test
+    public void testResumeOffset() throws IOException {
+        URL source = server.getBytesUrl(SIZE);
+        JWebClient client = new JWebClient(source, folder.newFile("resume.bin"));
+        interruptDownload(client, "\"" + SIZE + "\"");
+
+        File workPath = client.getWorkPath();
+        assertEquals(COMMITTED, new DownloadJournal(workPath).getResumeOffset(source, workPath));
+        // The journal belongs to another download
+        assertEquals(0, new DownloadJournal(workPath).getResumeOffset(server.getBytesUrl(SIZE + 1), workPath));
+        // Never beyond what actually made it to the disk
+        Files.write(workPath.toPath(), new byte[COMMITTED / 2]);
+        assertEquals(COMMITTED / 2, new DownloadJournal(workPath).getResumeOffset(source, workPath));
+    }
+
+    @Test
+    public void testNoValidator() throws IOException {
+        URL source = server.getBytesUrl(SIZE);
+        JWebClient client = new JWebClient(source, folder.newFile("novalidator.bin"));
+        interruptDownload(client, null);
+
+        File workPath = client.getWorkPath();
+        assertEquals(0, new DownloadJournal(workPath).getResumeOffset(source, workPath));
+    }
+
+    @Test
+    public void testWeakEntityTag() throws IOException {
+        URL source = server.getBytesUrl(SIZE);
+        JWebClient client = new JWebClient(source, folder.newFile("weak.bin"));
+        interruptDownload(client, "W/\"" + SIZE + "\"");
+
+        File workPath = client.getWorkPath();
+        assertEquals(0, new DownloadJournal(workPath).getResumeOffset(source, workPath));
+    }
+
+    @Test
+    public void testDownloadIsResumed() throws IOException {
+        JWebClient client = new JWebClient(server.getBytesUrl(SIZE), folder.newFile("resumed.bin"));
+        client.setResumeEnabled(true);
+        interruptDownload(client, "\"" + SIZE + "\"");
+
+        client.downloadFile();
+        byte[] data = Files.readAllBytes(client.getDownloadPath().toPath());
+        assertEquals(SIZE, data.length);
+        assertArrayEquals(new byte[COMMITTED], Arrays.copyOf(data, COMMITTED));
+        assertArrayEquals(server.getPayload(COMMITTED, SIZE - COMMITTED), Arrays.copyOfRange(data, COMMITTED, SIZE));
+        assertFalse(new File(client.getWorkPath().getPath() + DownloadJournal.JOURNAL_SUFFIX).exists());
+    }
+
+    @Test
+    public void testChangedFileStartsOver() throws IOException {
+        JWebClient client = new JWebClient(server.getBytesUrl(SIZE), folder.newFile("changed.bin"));
+        client.setResumeEnabled(true);
+        interruptDownload(client, "\"changed\"");
+
+        client.downloadFile();
+        assertArrayEquals(server.getPayload(0, SIZE), Files.readAllBytes(client.getDownloadPath().toPath()));
+        assertFalse(new File(client.getWorkPath().getPath() + DownloadJournal.JOURNAL_SUFFIX).exists());
+    }
+
+    @Test
+    public void testResumeDisabled() throws IOException {
+        JWebClient client = new JWebClient(server.getBytesUrl(SIZE), folder.newFile("disabled.bin"));
+        client.setResumeEnabled(false);
+        interruptDownload(client, "\"" + SIZE + "\"");
+
+        client.downloadFile();
+        assertArrayEquals(server.getPayload(0, SIZE), Files.readAllBytes(client.getDownloadPath().toPath()));
+    }
+
+    /**
+     * The response an interrupted download had started with. Only its headers are known.
+     */
+    private static final class ResponseExchange extends Exchange {
+
+        private final Map<String, String> headers = new HashMap<>();
+
+        ResponseExchange(URL url, String name, String value) {
+            super(url);
+            if (value != null)
+                headers.put(name, value);
+        }
+
+        @Override
+        public void setRequestMethod(String method) { }
+
+        @Override
+        public void setRequestHeader(String name, String value) { }
+
+        @Override
+        public int getResponseCode() { return HttpURLConnection.HTTP_OK; }
+
+        @Override
+        public String getHeaderField(String name) { return headers.get(name); }
+
+        @Override
+        public InputStream getBody() { return new ByteArrayInputStream(new byte[0]); }
+
+        @Override
+        public void release() { }
+
+        @Override
+        public void releaseUnread() { }
+
+        @Override
+        public void abort() { }
+
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient;
+
+import eu.beatsleigher.jwebclient.bench.LocalHttpServer;
+import eu.beatsleigher.jwebclient.cache.DownloadCache;
+import eu.beatsleigher.jwebclient.metrics.*;
+import java.io.*;
+import org.junit.*;
+import org.junit.rules.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests that every download is recorded with the {@link DownloadMetrics} once, with the right outcome.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public class DownloadMetricsTest {
+
+    private static final int SIZE = 4 * 1024 * 1024;
+    private static final int CACHED_SIZE = 1000;
+
+    private static LocalHttpServer server;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void startServer() throws IOException {
+        server = new LocalHttpServer();
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        server.close();
+    }
+
+    /**
+     * Creates a client whose download can't be committed: the download path is a directory which isn't empty.
+     */
+    private JWebClient createUncommittableClient(DownloadMetrics metrics) throws IOException {
+        File dlPath = folder.newFolder();
+        new File(dlPath, "occupied").createNewFile();
+        JWebClient client = new JWebClient(server.getBytesUrl(SIZE), dlPath);
+        client.setAtomicOutput(true);
+        client.setDownloadMetrics(metrics);
+        return client;
+    }
+
+    private static void assertFailedOnce(DownloadMetrics metrics) {
+        assertEquals(0, metrics.getTotal().getSuccessCount());
+        assertEquals(1, metrics.getTotal().getFailureCount());
+    }
+
+    @Test
+    public void testFile() throws IOException {
+        DownloadMetrics metrics = new DownloadMetrics();
+        JWebClient client = new JWebClient(server.getBytesUrl(SIZE), new File(folder.getRoot(), "file.bin"));
+        client.setAtomicOutput(true);
+        client.setDownloadMetrics(metrics);
+        client.downloadFile();
+        assertEquals(1, metrics.getTotal().getSuccessCount());
+        assertEquals(SIZE, metrics.getTotal().getBytesTransferred());
+    }
+
+    @Test
+    public void testUncommittedFile() throws IOException {
+        DownloadMetrics metrics = new DownloadMetrics();
+        try {
+            createUncommittableClient(metrics).downloadFile();
+            fail("A download which can't be committed must fail!");
+        } catch (IOException ex) {
+            // The part file couldn't replace the directory
+        }
+        assertFailedOnce(metrics);
+    }
+
+    @Test
+    public void testUncommittedSegmentedFile() throws IOException {
+        DownloadMetrics metrics = new DownloadMetrics();
+        JWebClient client = createUncommittableClient(metrics);
+        client.setSegmentCount(4);
+        try {
+            client.downloadFile();
+            fail("A download which can't be committed must fail!");
+        } catch (IOException ex) {
+            // The part file couldn't replace the directory
+        }
+        assertFailedOnce(metrics);
+    }
+
+    @Test
+    public void testCachedData() throws IOException {
+        DownloadMetrics metrics = new DownloadMetrics();
+        JWebClient client = new JWebClient(server.getBytesUrl(CACHED_SIZE, "cache=max-age=60"), (File)null);
+        client.setDownloadCache(new DownloadCache());
+        client.setDownloadMetrics(metrics);
+        client.downloadData();
+        client.downloadData();
+        // The second download never left the cache
+        assertEquals(1, metrics.getTotal().getSuccessCount());
+        assertEquals(CACHED_SIZE, metrics.getTotal().getBytesTransferred());
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient;
+
+import java.util.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the list view of a {@link ListenerRegistry}, which the deprecated list based API of the client hands out.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public class ListenerRegistryTest {
+
+    private final List<String> delivered = new ArrayList<>();
+
+    private final ListenerRegistry<String, String> registry = new ListenerRegistry<String, String>() {
+        @Override
+        protected void deliver(String listener, String evt) {
+            delivered.add(listener + ":" + evt);
+        }
+    };
+
+    @Test
+    public void testRemoveAt() {
+        List<String> list = registry.asList();
+        registry.add("a", null);
+        list.add("b");
+        list.add("a");
+        // The second registration of the equal listener goes, not the first one
+        assertEquals("a", list.remove(2));
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<>(list));
+        assertEquals("a", list.remove(0));
+        assertEquals(Arrays.asList("b"), new ArrayList<>(list));
+        try {
+            list.remove(1);
+            fail("There's no listener at index 1!");
+        } catch (IndexOutOfBoundsException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        List<String> list = registry.asList();
+        list.addAll(Arrays.asList("a", "b", "a"));
+        Iterator<String> iterator = list.iterator();
+        assertEquals("a", iterator.next());
+        assertEquals("b", iterator.next());
+        assertEquals("a", iterator.next());
+        iterator.remove();
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<>(list));
+        try {
+            iterator.remove();
+            fail("remove() may only be called once per next()!");
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+
+        // Removing the registration the iterator returned last doesn't take another one if it's already gone
+        iterator = list.iterator();
+        iterator.next();
+        registry.remove("a");
+        iterator.remove();
+        assertEquals(Arrays.asList("b"), new ArrayList<>(list));
+
+        registry.fire("evt");
+        assertEquals(Arrays.asList("b:evt"), delivered);
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient;
+
+import eu.beatsleigher.jwebclient.bench.LocalHttpServer;
+import eu.beatsleigher.jwebclient.cache.DownloadCache;
+import eu.beatsleigher.jwebclient.engine.RetryPolicy;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests that bodies which end before their <code>Content-Length</code> fail the download, rather than coming back short,
+ * and that a retry policy recovers from them.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public class TruncatedBodyTest {
+
+    private static final int SIZE = 1000;
+
+    private static LocalHttpServer server;
+
+    @BeforeClass
+    public static void startServer() throws IOException {
+        server = new LocalHttpServer();
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void testTruncatedData() throws IOException {
+        DownloadCache cache = new DownloadCache();
+        JWebClient client = new JWebClient(server.getBytesUrl(SIZE, "truncate=500&cache=max-age=60"), (File)null);
+        client.setDownloadCache(cache);
+        try {
+            client.downloadData();
+            fail("A body which ended early must fail the download!");
+        } catch (EOFException ex) {
+            assertNull(client.getDownloadedData());
+        }
+        assertEquals(0, cache.getMemorySize());
+    }
+
+    @Test
+    public void testTruncatedString() throws IOException {
+        DownloadCache cache = new DownloadCache();
+        JWebClient client = new JWebClient(server.getBytesUrl(SIZE, "truncate=500&cache=max-age=60"), (File)null);
+        client.setDownloadCache(cache);
+        try {
+            client.downloadString();
+            fail("A body which ended early must fail the download!");
+        } catch (EOFException ex) {
+            assertEquals("", client.getDownloadedString());
+        }
+        assertEquals(0, cache.getMemorySize());
+    }
+
+    @Test
+    public void testRetriedTruncatedData() throws IOException {
+        JWebClient client = new JWebClient(server.getBytesUrl(SIZE, "truncate=500&truncations=1&data"), (File)null);
+        client.setRetryPolicy(RetryPolicy.DEFAULT);
+        client.downloadData();
+        assertArrayEquals(server.getPayload(0, SIZE), client.getDownloadedData());
+    }
+
+    @Test
+    public void testRetriedTruncatedString() throws IOException {
+        JWebClient client = new JWebClient(server.getBytesUrl(SIZE, "truncate=500&truncations=1&string"), (File)null);
+        client.setRetryPolicy(RetryPolicy.DEFAULT);
+        client.downloadString();
+        assertEquals(new String(server.getPayload(0, SIZE), StandardCharsets.UTF_8), client.getDownloadedString());
+    }
+
+}
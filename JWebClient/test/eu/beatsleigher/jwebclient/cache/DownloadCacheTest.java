@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.cache;
+
+import eu.beatsleigher.jwebclient.JWebClient;
+import eu.beatsleigher.jwebclient.bench.LocalHttpServer;
+import java.io.*;
+import java.net.*;
+import java.nio.file.*;
+import org.junit.*;
+import org.junit.rules.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests that the {@link DownloadCache} serves fresh responses, and revalidates stale ones.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public class DownloadCacheTest {
+
+    private static final int SIZE = 5000;
+
+    private static LocalHttpServer server;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void startServer() throws IOException {
+        server = new LocalHttpServer();
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        server.close();
+    }
+
+    private JWebClient createClient(DownloadCache cache, String cacheControl) throws IOException {
+        JWebClient client = new JWebClient(server.getBytesUrl(SIZE, "cache=" + cacheControl), folder.newFile());
+        client.setDownloadCache(cache);
+        return client;
+    }
+
+    @Test
+    public void testFreshResponseIsServedFromCache() throws IOException {
+        DownloadCache cache = new DownloadCache();
+        JWebClient client = createClient(cache, "max-age=60");
+        long requests = server.getRequestCount();
+
+        client.downloadData();
+        client.downloadData();
+        assertArrayEquals(server.getPayload(0, SIZE), client.getDownloadedData());
+        assertEquals(requests + 1, server.getRequestCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testStaleResponseIsRevalidated() throws IOException {
+        DownloadCache cache = new DownloadCache();
+        JWebClient client = createClient(cache, "no-cache");
+        long requests = server.getRequestCount();
+
+        client.downloadData();
+        client.downloadData();
+        assertArrayEquals(server.getPayload(0, SIZE), client.getDownloadedData());
+        // The second request was answered with 304 Not Modified
+        assertEquals(requests + 2, server.getRequestCount());
+        assertEquals(1, cache.getRevalidationCount());
+        assertEquals(0, cache.getHitCount());
+
+        client.downloadFile();
+        assertArrayEquals(server.getPayload(0, SIZE), Files.readAllBytes(client.getDownloadPath().toPath()));
+        assertEquals(2, cache.getRevalidationCount());
+    }
+
+    @Test
+    public void testNoStoreIsNotCached() throws IOException {
+        DownloadCache cache = new DownloadCache();
+        JWebClient client = createClient(cache, "no-store");
+        long requests = server.getRequestCount();
+
+        client.downloadData();
+        client.downloadData();
+        assertArrayEquals(server.getPayload(0, SIZE), client.getDownloadedData());
+        assertEquals(requests + 2, server.getRequestCount());
+        assertEquals(0, cache.getRevalidationCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0, cache.getMemorySize());
+    }
+
+    @Test
+    public void testRevalidatedFromDisk() throws IOException {
+        File directory = folder.newFolder();
+        JWebClient client = createClient(new DownloadCache(0, 0, directory, 1024 * 1024), "no-cache");
+        client.downloadData();
+
+        // A new cache picks up what the last one stored
+        DownloadCache reopened = new DownloadCache(0, 0, directory, 1024 * 1024);
+        assertTrue(reopened.getDiskSize() > 0);
+        client.setDownloadCache(reopened);
+        client.downloadData();
+        assertArrayEquals(server.getPayload(0, SIZE), client.getDownloadedData());
+        assertEquals(1, reopened.getRevalidationCount());
+    }
+
+}
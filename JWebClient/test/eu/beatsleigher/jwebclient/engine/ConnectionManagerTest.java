@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.engine;
+
+import eu.beatsleigher.jwebclient.transport.*;
+import java.io.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Runs the {@link TransportTestBase transport tests} against the {@link ConnectionManager},
+ * and checks that it keeps connections alive.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public class ConnectionManagerTest extends TransportTestBase {
+
+    private ConnectionManager connectionManager;
+
+    @Before
+    public void setUp() {
+        connectionManager = new ConnectionManager();
+    }
+
+    @Override
+    protected Transport getTransport() { return connectionManager; }
+
+    @Test
+    public void testConnectionIsReused() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            Exchange exchange = connectionManager.open(server.getBytesUrl(1000));
+            readFully(exchange.getBody());
+            exchange.release();
+        }
+        ConnectionStatistics statistics = connectionManager.getStatistics();
+        assertEquals(0, statistics.getLeasedCount());
+        assertEquals(1, statistics.getIdleCount());
+        assertEquals(1, statistics.getCreatedCount());
+        assertEquals(2, statistics.getReusedCount());
+    }
+
+    @Test
+    public void testSmallUnreadBodyIsDrained() throws IOException {
+        Exchange exchange = connectionManager.open(server.getBytesUrl(1000));
+        exchange.getResponseCode();
+        exchange.releaseUnread();
+        assertEquals(0, connectionManager.getStatistics().getAbortedCount());
+        assertEquals(1, connectionManager.getStatistics().getIdleCount());
+    }
+
+    @Test
+    public void testErrorBodyIsDrained() throws IOException {
+        Exchange exchange = connectionManager.open(server.getStatusUrl(503));
+        try {
+            exchange.getBody();
+            fail("A 503 must be reported as HttpStatusException!");
+        } catch (HttpStatusException ex) {
+            exchange.releaseUnread();
+        }
+        assertEquals(0, connectionManager.getStatistics().getAbortedCount());
+        assertEquals(1, connectionManager.getStatistics().getIdleCount());
+    }
+
+    @Test
+    public void testLargeUnreadBodyIsAborted() throws IOException {
+        Exchange exchange = connectionManager.open(server.getBytesUrl(4 * Exchange.MAX_DRAIN_SIZE));
+        exchange.getResponseCode();
+        exchange.releaseUnread();
+        ConnectionStatistics statistics = connectionManager.getStatistics();
+        assertEquals(1, statistics.getAbortedCount());
+        assertEquals(0, statistics.getIdleCount());
+        assertEquals(0, statistics.getLeasedCount());
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.transport;
+
+import java.io.*;
+import java.net.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * Runs the {@link TransportTestBase transport tests} against the {@link HttpClientTransport}.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.0
+ */
+public class HttpClientTransportTest extends TransportTestBase {
+
+    private final HttpClientTransport transport = new HttpClientTransport();
+
+    @Override
+    protected Transport getTransport() { return transport; }
+
+    @Test
+    public void testRefusedConnection() throws IOException {
+        ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        int port = serverSocket.getLocalPort();
+        serverSocket.close();
+
+        Exchange exchange = transport.open(new URL("http", "127.0.0.1", port, "/"));
+        try {
+            exchange.getResponseCode();
+            fail("Nothing listens on port " + port + "!");
+        } catch (SocketException ex) {
+            // Reported the way the retry policy expects it
+        } finally {
+            exchange.abort();
+        }
+    }
+
+}
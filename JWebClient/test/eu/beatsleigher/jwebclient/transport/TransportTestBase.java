@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2014 Beatsleigher.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package eu.beatsleigher.jwebclient.transport;
+
+import eu.beatsleigher.jwebclient.bench.LocalHttpServer;
+import java.io.*;
+import java.net.*;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ * The tests every {@link Transport} has to pass, run against a {@link LocalHttpServer}.
+ * Subclasses provide the transport.
+ *
+ * @author Beatsleigher
+ * @since 17-10-2026
+ * @version 1.1
+ */
+public abstract class TransportTestBase {
+
+    protected static LocalHttpServer server;
+
+    @BeforeClass
+    public static void startServer() throws IOException {
+        server = new LocalHttpServer();
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        server.close();
+    }
+
+    /**
+     * Gets and returns the transport under test.
+     * @return The transport.
+     */
+    protected abstract Transport getTransport();
+
+    protected static byte[] readFully(InputStream iStream) throws IOException {
+        ByteArrayOutputStream oStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int i;
+        while ((i = iStream.read(buffer)) >= 0)
+            oStream.write(buffer, 0, i);
+        iStream.close();
+        return oStream.toByteArray();
+    }
+
+    @Test
+    public void testBody() throws IOException {
+        Exchange exchange = getTransport().open(server.getBytesUrl(100000));
+        try {
+            assertEquals(HttpURLConnection.HTTP_OK, exchange.getResponseCode());
+            assertEquals(100000, exchange.getContentLength());
+            assertEquals("\"100000\"", exchange.getHeaderField("ETag"));
+            assertArrayEquals(server.getPayload(0, 100000), readFully(exchange.getBody()));
+            exchange.release();
+        } finally {
+            exchange.abort();
+        }
+    }
+
+    @Test
+    public void testChunkedBody() throws IOException {
+        Exchange exchange = getTransport().open(server.getBytesUrl(100000, "chunked"));
+        try {
+            assertEquals(-1, exchange.getContentLength());
+            assertArrayEquals(server.getPayload(0, 100000), readFully(exchange.getBody()));
+            exchange.release();
+        } finally {
+            exchange.abort();
+        }
+    }
+
+    @Test
+    public void testNotFound() throws IOException {
+        Exchange exchange = getTransport().open(server.getStatusUrl(404));
+        try {
+            assertEquals(HttpURLConnection.HTTP_NOT_FOUND, exchange.getResponseCode());
+            exchange.getBody();
+            fail("A 404 must be reported as FileNotFoundException!");
+        } catch (FileNotFoundException ex) {
+            assertEquals(exchange.getUrl().toString(), ex.getMessage());
+        } finally {
+            exchange.releaseUnread();
+        }
+    }
+
+    @Test
+    public void testServerError() throws IOException {
+        Exchange exchange = getTransport().open(server.getStatusUrl(503));
+        try {
+            exchange.getBody();
+            fail("A 503 must be reported as HttpStatusException!");
+        } catch (HttpStatusException ex) {
+            assertEquals(503, ex.getStatusCode());
+            assertEquals(exchange.getUrl(), ex.getUrl());
+        } finally {
+            exchange.releaseUnread();
+        }
+    }
+
+    @Test
+    public void testRange() throws IOException {
+        Exchange exchange = getTransport().open(server.getBytesUrl(100000));
+        try {
+            exchange.setRequestHeader("Range", "bytes=1000-1999");
+            assertEquals(HttpURLConnection.HTTP_PARTIAL, exchange.getResponseCode());
+            assertEquals("bytes 1000-1999/100000", exchange.getHeaderField("Content-Range"));
+            assertArrayEquals(server.getPayload(1000, 1000), readFully(exchange.getBody()));
+            exchange.release();
+        } finally {
+            exchange.abort();
+        }
+    }
+
+    @Test
+    public void testIfRangeMismatch() throws IOException {
+        Exchange exchange = getTransport().open(server.getBytesUrl(100000));
+        try {
+            exchange.setRequestHeader("Range", "bytes=1000-1999");
+            exchange.setRequestHeader("If-Range", "\"changed\"");
+            assertEquals(HttpURLConnection.HTTP_OK, exchange.getResponseCode());
+            assertNull(exchange.getHeaderField("Content-Range"));
+            assertArrayEquals(server.getPayload(0, 100000), readFully(exchange.getBody()));
+            exchange.release();
+        } finally {
+            exchange.abort();
+        }
+    }
+
+    @Test
+    public void testHead() throws IOException {
+        Exchange exchange = getTransport().open(server.getBytesUrl(100000));
+        try {
+            exchange.setRequestMethod("HEAD");
+            assertEquals(HttpURLConnection.HTTP_OK, exchange.getResponseCode());
+            assertEquals(100000, exchange.getContentLength());
+            assertEquals("bytes", exchange.getHeaderField("Accept-Ranges"));
+            exchange.releaseUnread();
+        } finally {
+            exchange.abort();
+        }
+    }
+
+    @Test
+    public void testReleaseUnread() throws IOException {
+        Exchange exchange = getTransport().open(server.getBytesUrl(1000));
+        exchange.getResponseCode();
+        exchange.releaseUnread();
+        // Calls after the first one are ignored
+        exchange.releaseUnread();
+        exchange.release();
+        exchange.abort();
+
+        // The next request goes through as usual
+        exchange = getTransport().open(server.getBytesUrl(1000));
+        try {
+            assertArrayEquals(server.getPayload(0, 1000), readFully(exchange.getBody()));
+            exchange.release();
+        } finally {
+            exchange.abort();
+        }
+    }
+
+    @Test
+    public void testBrokenOffBody() throws IOException {
+        Exchange exchange = getTransport().open(server.getBytesUrl(100000, "truncate=50000&chunked"));
+        try {
+            readFully(exchange.getBody());
+            fail("A body which broke off must fail the read!");
+        } catch (EOFException ex) {
+            // The retry policy retries these
+        } finally {
+            exchange.abort();
+        }
+    }
+
+    @Test
+    public void testAbortedBody() throws IOException {
+        Exchange exchange = getTransport().open(server.getBytesUrl(1000000));
+        InputStream iStream = exchange.getBody();
+        assertTrue(iStream.read(new byte[1000]) > 0);
+        exchange.abort();
+        try {
+            readFully(iStream);
+        } catch (EOFException ex) {
+            fail("A read which fails because the exchange was aborted must not be reported as a body which broke off!");
+        } catch (IOException ex) {
+            // Expected, unless the stream simply ends
+        }
+    }
+
+}